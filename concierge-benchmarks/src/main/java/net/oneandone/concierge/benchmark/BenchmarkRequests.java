@@ -0,0 +1,79 @@
+package net.oneandone.concierge.benchmark;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.dropwizard.util.Duration;
+import net.oneandone.concierge.benchmark.resolver.ItemDetailsExtensionResolver;
+import net.oneandone.concierge.benchmark.resolver.ItemResolver;
+import net.oneandone.concierge.configuration.Resolvers;
+import net.oneandone.concierge.resource.GenericApiResource;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Helpers to call the {@link GenericApiResource} in process without a servlet container. */
+final class BenchmarkRequests {
+
+    private BenchmarkRequests() {
+    }
+
+    /**
+     * Returns the resource for the synthetic resolvers, resolvers will be called on the calling thread.
+     *
+     * @return the resource
+     */
+    static GenericApiResource resource() {
+        final Resolvers resolvers = new Resolvers(
+                Collections.singletonList(ItemResolver.class.getName()),
+                Collections.singletonList(ItemDetailsExtensionResolver.class.getName()));
+        return GenericApiResource.builder()
+                .resolvers(resolvers)
+                .executor(MoreExecutors.directExecutor())
+                .timeout(Duration.seconds(10))
+                .build();
+    }
+
+    /**
+     * Returns a request without headers for the specified query string.
+     * <p/>
+     * The request is a proxy which supports the parameter and header methods only, which are the only methods called
+     * by the resource.
+     *
+     * @param query the query string, e.g. {@code per_page=10&show=details}
+     * @return the request
+     */
+    static HttpServletRequest request(final String query) {
+        final ListMultimap<String, String> parameters = ArrayListMultimap.create();
+        for (final String parameter : Splitter.on('&').omitEmptyStrings().split(query)) {
+            final List<String> keyAndValue = Splitter.on('=').limit(2).splitToList(parameter);
+            parameters.put(keyAndValue.get(0), keyAndValue.size() > 1 ? keyAndValue.get(1) : "");
+        }
+
+        final Map<String, String[]> parameterMap = new HashMap<>();
+        for (final Map.Entry<String, List<String>> entry : Multimaps.asMap(parameters).entrySet()) {
+            parameterMap.put(entry.getKey(), entry.getValue().toArray(new String[entry.getValue().size()]));
+        }
+        final Map<String, String[]> unmodifiableParameterMap = Collections.unmodifiableMap(parameterMap);
+
+        return (HttpServletRequest) Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(), new Class<?>[] { HttpServletRequest.class }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getParameterMap":
+                    return unmodifiableParameterMap;
+                case "getParameter":
+                    final String[] values = unmodifiableParameterMap.get((String) args[0]);
+                    return values != null ? values[0] : null;
+                case "getHeader":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
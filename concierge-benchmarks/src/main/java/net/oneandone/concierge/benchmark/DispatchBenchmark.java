@@ -0,0 +1,56 @@
+package net.oneandone.concierge.benchmark;
+
+import net.oneandone.concierge.resource.GenericApiResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.core.Response;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the dispatch of small requests to the resolvers by the {@link GenericApiResource}.
+ * <p/>
+ * The resolvers are called on the benchmark thread and return prepared elements, so the results are dominated by
+ * routing, the resolution pipeline and the rendering of a single element.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    private GenericApiResource resource;
+    private HttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        resource = BenchmarkRequests.resource();
+        request = BenchmarkRequests.request("");
+    }
+
+    @Benchmark
+    public Response element() {
+        return resource.getResource(request, "items/item-42");
+    }
+
+    @Benchmark
+    public Response extension() {
+        return resource.getResource(request, "items/item-42/details");
+    }
+
+    @Benchmark
+    public Response unknownGroup() {
+        return resource.getResource(request, "unknown");
+    }
+}
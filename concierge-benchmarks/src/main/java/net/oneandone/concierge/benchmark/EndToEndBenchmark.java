@@ -0,0 +1,68 @@
+package net.oneandone.concierge.benchmark;
+
+import com.google.common.io.ByteStreams;
+import net.oneandone.concierge.Concierge;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code GET} requests through an in-process Dropwizard application configured by {@code benchmark.yml}.
+ * <p/>
+ * The client is a plain {@link HttpURLConnection} with keep-alive, so the results include the HTTP stack of the server
+ * and a small constant overhead of the client.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    /** The port of the application connector in {@code benchmark.yml}. */
+    private static final int PORT = 18080;
+
+    @Param({ "items/item-42", "items?per_page=100", "items?per_page=100&show=details" })
+    private String path;
+
+    private Concierge concierge;
+    private URL url;
+
+    @Setup
+    public void setUp() throws Exception {
+        concierge = Concierge.start(EndToEndBenchmark.class.getResource("/benchmark.yml"));
+        url = new URL("http://localhost:" + PORT + "/" + path);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        concierge.stop();
+    }
+
+    @Benchmark
+    public long get() throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        if (connection.getResponseCode() != 200) {
+            throw new IllegalStateException("unexpected status " + connection.getResponseCode() + " for " + url);
+        }
+        try (final InputStream inputStream = connection.getInputStream()) {
+            return ByteStreams.copy(inputStream, ByteStreams.nullOutputStream());
+        }
+    }
+}
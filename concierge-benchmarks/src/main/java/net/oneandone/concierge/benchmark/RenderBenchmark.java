@@ -0,0 +1,51 @@
+package net.oneandone.concierge.benchmark;
+
+import net.oneandone.concierge.resource.GenericApiResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the rendering of the extended JSON structure of groups with different numbers of synthetic elements.
+ * <p/>
+ * Each element is rendered with its links and, if requested, its {@code details} extension.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RenderBenchmark {
+
+    @Param({ "10", "1000", "100000" })
+    private int elements;
+
+    @Param({ "", "details" })
+    private String show;
+
+    private GenericApiResource resource;
+    private HttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        resource = BenchmarkRequests.resource();
+        request = BenchmarkRequests.request("per_page=" + elements + (show.isEmpty() ? "" : "&show=" + show));
+    }
+
+    @Benchmark
+    public Object group() {
+        return resource.getResource(request, "items").getEntity();
+    }
+}
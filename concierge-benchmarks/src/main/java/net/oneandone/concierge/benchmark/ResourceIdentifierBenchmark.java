@@ -0,0 +1,72 @@
+package net.oneandone.concierge.benchmark;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import net.oneandone.concierge.api.filter.Filters;
+import net.oneandone.concierge.resource.ResourceIdentifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures the parsing of resource identifiers and the derivation of their hierarchies and filters. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourceIdentifierBenchmark {
+
+    private static final String URI = "users/johann.bitionaire/posts/darkwing-duck/comments";
+
+    private Multimap<String, String> parameters;
+    private ResourceIdentifier resourceIdentifier;
+
+    @Setup
+    public void setUp() {
+        parameters = HashMultimap.create();
+        parameters.put("page", "2");
+        parameters.put("per_page", "25");
+        parameters.put("show", "profile");
+        resourceIdentifier = ResourceIdentifier.parse(URI, parameters);
+    }
+
+    @Benchmark
+    public ResourceIdentifier parse() {
+        return ResourceIdentifier.parse(URI, parameters);
+    }
+
+    @Benchmark
+    public String[] hierarchy() {
+        return resourceIdentifier.hierarchy();
+    }
+
+    @Benchmark
+    public String[] completeHierarchy() {
+        return resourceIdentifier.completeHierarchy();
+    }
+
+    @Benchmark
+    public Filters filters() {
+        return resourceIdentifier.filters();
+    }
+
+    @Benchmark
+    public Filters parseAndWalkScopes() {
+        ResourceIdentifier scope = ResourceIdentifier.parse(URI, parameters);
+        while (scope.hasNextScope()) {
+            scope.hierarchy();
+            scope = scope.next();
+        }
+        return scope.filters();
+    }
+}
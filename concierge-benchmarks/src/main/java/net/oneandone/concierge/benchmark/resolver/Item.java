@@ -0,0 +1,53 @@
+package net.oneandone.concierge.benchmark.resolver;
+
+import net.oneandone.concierge.api.Element;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/** A synthetic element with a small, fixed content. */
+public class Item implements Element {
+
+    /** The date of the last modification of all items. */
+    static final ZonedDateTime LAST_MODIFIED = ZonedDateTime.of(2016, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private final long id;
+    private final JsonObject content;
+
+    Item(final long id) {
+        this.id = id;
+        this.content = Json.createObjectBuilder()
+                .add("name", "item " + id)
+                .add("description", "a synthetic element for benchmarks")
+                .add("price", id * 0.99)
+                .add("available", id % 2 == 0)
+                .build();
+    }
+
+    @Override
+    public String group() {
+        return "items";
+    }
+
+    @Override
+    public Long id() {
+        return id;
+    }
+
+    @Override
+    public JsonObject content() {
+        return content;
+    }
+
+    @Override
+    public String address() {
+        return "item-" + id;
+    }
+
+    @Override
+    public ZonedDateTime lastModified() {
+        return LAST_MODIFIED;
+    }
+}
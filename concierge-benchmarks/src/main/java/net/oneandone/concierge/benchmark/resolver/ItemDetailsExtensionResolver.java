@@ -0,0 +1,44 @@
+package net.oneandone.concierge.benchmark.resolver;
+
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Extension;
+import net.oneandone.concierge.api.resolver.ExtensionResolver;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+/** Resolves the extension {@code details} of the synthetic items. */
+public class ItemDetailsExtensionResolver implements ExtensionResolver {
+
+    private static final JsonObject DETAILS = Json.createObjectBuilder()
+            .add("weight", 42)
+            .add("color", "transparent")
+            .build();
+
+    @Override
+    public String[] hierarchy() {
+        return new String[] { "items", "details" };
+    }
+
+    @Override
+    public Optional<Extension> resolve(final Element element) {
+        return Optional.of(new Extension() {
+            @Override
+            public JsonObject content() {
+                return DETAILS;
+            }
+
+            @Override
+            public String address() {
+                return "details";
+            }
+
+            @Override
+            public ZonedDateTime lastModified() {
+                return Item.LAST_MODIFIED;
+            }
+        });
+    }
+}
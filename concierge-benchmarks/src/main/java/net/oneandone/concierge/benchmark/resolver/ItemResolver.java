@@ -0,0 +1,77 @@
+package net.oneandone.concierge.benchmark.resolver;
+
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.filter.Filters;
+import net.oneandone.concierge.api.resolver.BasicGroupResolver;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Resolves the group {@code items} with {@value #TOTAL} synthetic elements.
+ * <p/>
+ * The elements are created once, so the benchmarks measure the gateway and not the resolver. A page of any size up to
+ * all elements may be requested with the {@code per_page} parameter.
+ */
+public class ItemResolver extends BasicGroupResolver {
+
+    /** The total number of items. */
+    public static final int TOTAL = 100_000;
+
+    private static final List<Element> ITEMS;
+
+    static {
+        final List<Element> items = new ArrayList<>(TOTAL);
+        for (int i = 0; i < TOTAL; i++) {
+            items.add(new Item(i));
+        }
+        ITEMS = Collections.unmodifiableList(items);
+    }
+
+    @Override
+    public int defaultPageSize() {
+        return 10;
+    }
+
+    @Override
+    public int maximumPageSize() {
+        return TOTAL;
+    }
+
+    @Override
+    public String[] hierarchy() {
+        return new String[] { "items" };
+    }
+
+    @Override
+    public Optional<Element> element(final Element parent, final String address) {
+        if (!address.startsWith("item-")) {
+            return Optional.empty();
+        }
+        try {
+            final int id = Integer.parseInt(address.substring("item-".length()));
+            return id >= 0 && id < TOTAL ? Optional.of(ITEMS.get(id)) : Optional.empty();
+        } catch (final NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public int total(final Element parent, final Filters filters) {
+        return TOTAL;
+    }
+
+    @Override
+    public ZonedDateTime lastUpdate(final Element parent, final Filters filters) {
+        return Item.LAST_MODIFIED;
+    }
+
+    @Override
+    public List<Element> elements(final Element parent, final int page, final int perPage, final Filters filters) {
+        final int from = Math.min((page - 1) * perPage, TOTAL);
+        return ITEMS.subList(from, Math.min(from + perPage, TOTAL));
+    }
+}
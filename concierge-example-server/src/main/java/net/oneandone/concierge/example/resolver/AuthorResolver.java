@@ -1,6 +1,8 @@
 package net.oneandone.concierge.example.resolver;
 
 import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.filter.AttributeFilter;
+import net.oneandone.concierge.api.filter.Filter;
 import net.oneandone.concierge.api.filter.Filters;
 import net.oneandone.concierge.api.resolver.BasicGroupResolver;
 
@@ -8,6 +10,7 @@ import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class AuthorResolver extends BasicGroupResolver {
 
@@ -21,6 +24,12 @@ public class AuthorResolver extends BasicGroupResolver {
         return 100;
     }
 
+    @Override
+    public boolean supports(final Class<? extends Filter> filterClass) {
+        // the authors will be sorted by the gateway
+        return filterClass == AttributeFilter.class;
+    }
+
     @Override
     public String[] hierarchy() {
         return new String[] { "authors" };
@@ -33,7 +42,7 @@ public class AuthorResolver extends BasicGroupResolver {
 
     @Override
     public int total(final Element parent, final Filters filters) {
-        return Library.getAuthors().size();
+        return (int) authors(filters).count();
     }
 
     @Override
@@ -45,7 +54,12 @@ public class AuthorResolver extends BasicGroupResolver {
     public List<Element> elements(final Element parent, final int page, final int perPage, final Filters filters) {
         final int skip = (page - 1) * perPage;
         final int limit = perPage;
-        return Library.getAuthors().stream().skip(skip).limit(limit).collect(Collectors.toList());
+        return authors(filters).skip(skip).limit(limit).collect(Collectors.toList());
+    }
+
+    private static Stream<Element> authors(final Filters filters) {
+        final Optional<AttributeFilter> attributeFilter = filters.get(AttributeFilter.class);
+        return Library.getAuthors().stream().map(a -> (Element) a).filter(a -> !attributeFilter.isPresent() || attributeFilter.get().test(a));
     }
 
 }
@@ -1,16 +1,16 @@
 package net.oneandone.concierge.example.resolver;
 
-import net.oneandone.concierge.api.Element;
 import net.oneandone.concierge.api.Extension;
-import net.oneandone.concierge.api.resolver.ExtensionResolver;
-import net.oneandone.concierge.example.model.Book;
+import net.oneandone.concierge.api.resolver.BatchExtensionResolver;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
-public class BookRatingExtensionResolver implements ExtensionResolver {
+public class BookRatingExtensionResolver extends BatchExtensionResolver {
     @Override
-    public Optional<Extension> resolve(final Element element) {
-        return Library.getRating((Book) element).map(e -> (Extension) e);
+    public Map<Long, Extension> extensions(final Collection<Long> ids) {
+        return new HashMap<>(Library.getRatings(ids));
     }
 
     @Override
@@ -8,6 +8,7 @@ import net.oneandone.concierge.example.model.Book;
 import net.oneandone.concierge.example.model.BookRating;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -37,6 +38,11 @@ public class Library {
         return LIBRARY.values().stream().filter(e -> e.book.equals(book)).map(e -> e.bookRating).findAny();
     }
 
+    protected static Map<Long, BookRating> getRatings(final Collection<Long> bookIds) {
+        initialize();
+        return LIBRARY.values().stream().filter(e -> bookIds.contains(e.book.id())).collect(Collectors.toMap(e -> e.book.id(), e -> e.bookRating));
+    }
+
     private static void initialize() {
         if (!initialized) {
             synchronized (MUTEX) {
@@ -1,6 +1,7 @@
 package net.oneandone.concierge;
 
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.MoreExecutors;
 import io.dropwizard.Application;
 import io.dropwizard.setup.Environment;
 import lombok.AccessLevel;
@@ -8,9 +9,18 @@ import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.oneandone.concierge.api.Element;
 import net.oneandone.concierge.configuration.ApiGatewayConfiguration;
+import net.oneandone.concierge.configuration.CacheConfiguration;
+import net.oneandone.concierge.configuration.ExecutorConfiguration;
+import net.oneandone.concierge.configuration.LimitsConfiguration;
+import net.oneandone.concierge.configuration.TraceConfiguration;
 import net.oneandone.concierge.resource.GenericApiResource;
+import net.oneandone.concierge.resource.cache.LocalResponseCache;
+import net.oneandone.concierge.resource.trace.ResolutionTraceServlet;
+import net.oneandone.concierge.resource.trace.ResolutionTraces;
 
 import java.net.URL;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * The {@code Concierge} will help you to create an API gateway easily.
@@ -46,7 +56,51 @@ public class Concierge extends Application<ApiGatewayConfiguration> {
 
     @Override
     public void run(final ApiGatewayConfiguration configuration, final Environment environment) throws Exception {
-        environment.jersey().register(new GenericApiResource(configuration.getResolvers()));
+        final ExecutorConfiguration executorConfiguration = configuration.getExecutor();
+        final Executor executor;
+        if (executorConfiguration.getThreads() > 0) {
+            executor = environment.lifecycle().executorService("concierge-resolver-%d")
+                    .minThreads(executorConfiguration.getThreads())
+                    .maxThreads(executorConfiguration.getThreads())
+                    .build();
+        } else {
+            executor = MoreExecutors.directExecutor();
+        }
+
+        final LimitsConfiguration limitsConfiguration = configuration.getLimits();
+        ScheduledExecutorService scheduler = null;
+        if (executorConfiguration.getBatchWindow().toNanoseconds() > 0 || limitsConfiguration.isTimingOut()) {
+            scheduler = environment.lifecycle().scheduledExecutorService("concierge-scheduler-%d").threads(1).build();
+        }
+
+        final TraceConfiguration traceConfiguration = configuration.getTrace();
+        ResolutionTraces traces = null;
+        if (traceConfiguration.isEnabled()) {
+            traces = new ResolutionTraces(traceConfiguration.getRetained());
+            environment.admin().addServlet("concierge-traces", new ResolutionTraceServlet(traces)).addMapping("/traces/*");
+        }
+
+        final CacheConfiguration cacheConfiguration = configuration.getCache();
+        environment.jersey().register(GenericApiResource.builder()
+                .resolvers(configuration.getResolvers())
+                .executor(executor)
+                .timeout(executorConfiguration.getTimeout())
+                .coalescing(executorConfiguration.isCoalescing())
+                .scheduler(scheduler)
+                .batchWindow(executorConfiguration.getBatchWindow())
+                .batchSize(executorConfiguration.getBatchSize())
+                .limits(limitsConfiguration)
+                .streaming(configuration.getResponse().isStreaming())
+                .maximumPageSize(configuration.getResponse().getMaximumPageSize())
+                .maximumScannedElements(configuration.getResponse().getMaximumScannedElements())
+                .streamingThreshold(configuration.getResponse().getStreamingThreshold())
+                .maximumBatchSize(configuration.getResponse().getMaximumBatchSize())
+                .compression(configuration.getResponse().getCompression().isEnabled() ? configuration.getResponse().getCompression() : null)
+                .cache(cacheConfiguration.isEnabled() ? new LocalResponseCache(cacheConfiguration.getMaximumSize().toBytes()) : null)
+                .cacheConfiguration(cacheConfiguration)
+                .metrics(environment.metrics())
+                .traces(traces)
+                .build());
         this.environment = environment;
     }
 
@@ -0,0 +1,50 @@
+package net.oneandone.concierge.api;
+
+import com.google.common.base.Preconditions;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A page of elements resolved by cursor.
+ *
+ * @see net.oneandone.concierge.api.resolver.BasicGroupResolver#elements(Element, String, int, net.oneandone.concierge.api.filter.Filters)
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class CursorPage {
+
+    private final List<Element> elements;
+    private final String nextCursor;
+
+    /**
+     * Returns the elements of this page.
+     *
+     * @return the list of elements
+     */
+    public List<Element> elements() {
+        return elements;
+    }
+
+    /**
+     * Returns the opaque cursor of the next page.
+     *
+     * @return the cursor of the next page or an empty optional if this is the last page
+     */
+    public Optional<String> nextCursor() {
+        return Optional.ofNullable(nextCursor);
+    }
+
+    /**
+     * Returns a page with the specified elements.
+     *
+     * @param elements   the elements of the page
+     * @param nextCursor the opaque cursor of the next page or {@code null} if this is the last page
+     * @return the page
+     */
+    public static CursorPage of(final List<Element> elements, final String nextCursor) {
+        Preconditions.checkNotNull(elements, "the elements may not be null");
+        return new CursorPage(elements, nextCursor);
+    }
+}
@@ -7,15 +7,21 @@ import lombok.AllArgsConstructor;
 import java.time.ZonedDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 /** An elements group. */
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 public class Group implements Addressable {
 
+    /** The total of a group whose total number of elements is unknown. */
+    public static final int UNKNOWN_TOTAL = -1;
+
     private final String address;
     private final List<Element> elements;
     private final int total;
     private final ZonedDateTime lastModified;
+    private final String nextCursor;
+    private final boolean totalEstimated;
 
     /**
      * Returns the list of elements that belong to this group.
@@ -31,12 +37,33 @@ public class Group implements Addressable {
      * <p />
      * An instance of this class may contain only a subset of all available elements.
      *
-     * @return the total number of elements for this group
+     * @return the total number of elements for this group or {@link #UNKNOWN_TOTAL} if unknown
      */
     public int total() {
         return total;
     }
 
+    /**
+     * Returns {@code true} if the {@link #total()} is an estimate only.
+     *
+     * @return {@code true} if the total is an estimate, {@code false} if the total is exact or unknown
+     */
+    public boolean isTotalEstimated() {
+        return totalEstimated;
+    }
+
+    /**
+     * Returns the opaque cursor of the page following the elements of this group.
+     * <p />
+     * The cursor will be passed to the resolver in a {@link net.oneandone.concierge.api.filter.CursorFilter} to resolve
+     * the next page, which should cost the same as resolving the first page.
+     *
+     * @return the cursor of the next page or an empty optional if there is no next page or the group isn't paged by cursor
+     */
+    public Optional<String> nextCursor() {
+        return Optional.ofNullable(nextCursor);
+    }
+
     @Override
     public String address() {
         return address;
@@ -60,7 +87,7 @@ public class Group implements Addressable {
 
     static class EmptyGroup extends Group {
         EmptyGroup(final String address) {
-            super(address, Collections.emptyList(), 0, ZonedDateTime.now());
+            super(address, Collections.emptyList(), 0, ZonedDateTime.now(), null, false);
         }
     }
 
@@ -78,7 +105,7 @@ public class Group implements Addressable {
 
     static class SingleElementGroup extends Group {
         SingleElementGroup(final Element element) {
-            super(element.group(), Collections.singletonList(element), 1, element.lastModified());
+            super(element.group(), Collections.singletonList(element), 1, element.lastModified(), null, false);
         }
     }
 
@@ -88,18 +115,47 @@ public class Group implements Addressable {
      *
      * @param name the group name
      * @param elements the list of elements for this group (might be a paged result)
-     * @param total the number of total results for this group
+     * @param total the number of total results for this group or {@link #UNKNOWN_TOTAL} if unknown
      * @param zonedDateTime the date of the last update
      * @return multi element group
      */
     public static Group withElements(final String name, final List<Element> elements, final int total, final ZonedDateTime zonedDateTime) {
+        return withElements(name, elements, total, zonedDateTime, null);
+    }
+
+    /**
+     * Returns a multi element group which is a page of a group paged by cursor.
+     *
+     * @param name the group name
+     * @param elements the list of elements of the page
+     * @param total the number of total results for this group or {@link #UNKNOWN_TOTAL} if unknown
+     * @param zonedDateTime the date of the last update
+     * @param nextCursor the opaque cursor of the next page or {@code null} if this is the last page
+     * @return multi element group
+     */
+    public static Group withElements(final String name, final List<Element> elements, final int total, final ZonedDateTime zonedDateTime, final String nextCursor) {
+        Preconditions.checkNotNull(elements, "the elements may not be null");
+        return new MultiElementGroup(name, elements, total, zonedDateTime, nextCursor, false);
+    }
+
+    /**
+     * Returns a multi element group with an estimated total.
+     *
+     * @param name the group name
+     * @param elements the list of elements of the page
+     * @param estimatedTotal the estimated number of total results for this group
+     * @param zonedDateTime the date of the last update
+     * @param nextCursor the opaque cursor of the next page or {@code null} if this is the last page or the group isn't paged by cursor
+     * @return multi element group
+     */
+    public static Group withEstimatedTotal(final String name, final List<Element> elements, final int estimatedTotal, final ZonedDateTime zonedDateTime, final String nextCursor) {
         Preconditions.checkNotNull(elements, "the elements may not be null");
-        return new MultiElementGroup(name, elements, total, zonedDateTime);
+        return new MultiElementGroup(name, elements, estimatedTotal, zonedDateTime, nextCursor, estimatedTotal != UNKNOWN_TOTAL);
     }
 
     static class MultiElementGroup extends Group {
-        MultiElementGroup(String name, List<Element> elements, int total, ZonedDateTime lastModified) {
-            super(name, elements, total, lastModified);
+        MultiElementGroup(String name, List<Element> elements, int total, ZonedDateTime lastModified, String nextCursor, boolean totalEstimated) {
+            super(name, elements, total, lastModified, nextCursor, totalEstimated);
         }
     }
 }
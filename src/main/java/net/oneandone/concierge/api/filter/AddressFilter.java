@@ -1,7 +1,9 @@
 package net.oneandone.concierge.api.filter;
 
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.ToString;
 import net.oneandone.concierge.api.Addressable;
 
 /**
@@ -10,6 +12,8 @@ import net.oneandone.concierge.api.Addressable;
  * @see Addressable#address()
  */
 @AllArgsConstructor
+@EqualsAndHashCode
+@ToString
 public class AddressFilter implements Filter {
 
     /** The address to accept. */
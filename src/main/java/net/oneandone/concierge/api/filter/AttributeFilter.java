@@ -0,0 +1,69 @@
+package net.oneandone.concierge.api.filter;
+
+import com.google.common.base.Preconditions;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import net.oneandone.concierge.api.Element;
+
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Accepts the elements of a {@link net.oneandone.concierge.api.Group} by the values of top-level fields of their content.
+ * <p />
+ * An element will be accepted if the value of every filtered field equals one of the accepted values. Strings will be
+ * compared by their content, numbers, booleans and {@code null} by their JSON representation. The filter is optional,
+ * resolvers which don't {@link net.oneandone.concierge.api.resolver.GroupResolver#supports(Class) support} it will be
+ * filtered by the gateway.
+ */
+@EqualsAndHashCode
+@ToString
+public class AttributeFilter implements Filter {
+
+    /** The accepted values by the names of the fields. */
+    @Getter private final Map<String, Set<String>> attributes;
+
+    /**
+     * Creates the filter accepting the specified values.
+     *
+     * @param attributes the accepted values by the names of the fields
+     */
+    public AttributeFilter(final Map<String, Set<String>> attributes) {
+        Preconditions.checkNotNull(attributes, "the attributes may not be null");
+        this.attributes = attributes;
+    }
+
+    /**
+     * Returns {@code true} if the content of the specified element matches the filter.
+     *
+     * @param element the element
+     * @return {@code true} if the element will be accepted
+     */
+    public boolean test(final Element element) {
+        final JsonObject content = element.content();
+        for (final Map.Entry<String, Set<String>> attribute : attributes.entrySet()) {
+            final String value = content != null ? valueOf(content.get(attribute.getKey())) : null;
+            if (value == null || !attribute.getValue().contains(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String valueOf(final JsonValue value) {
+        if (value == null) {
+            return null;
+        } else if (value instanceof JsonString) {
+            return ((JsonString) value).getString();
+        } else if (value instanceof JsonNumber || value == JsonValue.TRUE || value == JsonValue.FALSE || value == JsonValue.NULL) {
+            return value.toString();
+        }
+        return null;
+    }
+
+}
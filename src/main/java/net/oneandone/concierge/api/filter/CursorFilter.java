@@ -0,0 +1,26 @@
+package net.oneandone.concierge.api.filter;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.OptionalInt;
+
+/**
+ * Pages the elements of a {@link net.oneandone.concierge.api.Group} by the opaque cursor returned with the previous page.
+ *
+ * @see net.oneandone.concierge.api.Group#nextCursor()
+ */
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class CursorFilter implements Filter {
+
+    /** The cursor of the page to display. */
+    @Getter private final String cursor;
+
+    /** The optional number of elements per page. */
+    @Getter private final OptionalInt perPage;
+
+}
@@ -0,0 +1,25 @@
+package net.oneandone.concierge.api.filter;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Set;
+
+/**
+ * Restricts the content of the elements of a {@link net.oneandone.concierge.api.Group} to the specified top-level fields.
+ * <p />
+ * The gateway removes all other fields of {@link net.oneandone.concierge.api.Element#content()} before rendering,
+ * resolvers may use the filter to fetch less data from their backends. Extensions, sub-groups and links will be
+ * rendered regardless of the filter.
+ */
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class FieldsFilter implements Filter {
+
+    /** The names of the fields to display. */
+    @Getter private final Set<String> fields;
+
+}
@@ -1,6 +1,11 @@
 package net.oneandone.concierge.api.filter;
 
-/** Representation of a result filter. */
+/**
+ * Representation of a result filter.
+ * <p/>
+ * Filters should implement {@link Object#equals(Object)} and {@link Object#hashCode()}, so equal resolver calls within
+ * a single request can be recognized and made only once.
+ */
 public interface Filter {
 
 }
@@ -6,8 +6,11 @@ import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /** This class contains an array of {@link Filter} instances that can be applied on {@link net.oneandone.concierge.api.Group}s. */
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
@@ -43,6 +46,63 @@ public class Filters {
         return filters.length;
     }
 
+    /**
+     * Returns the filters with the specified filter replacing the filter of the same class.
+     *
+     * @param filter the filter to add or replace
+     * @return the filters with the specified filter
+     */
+    public Filters with(final Filter filter) {
+        Preconditions.checkNotNull(filter, "the filter may not be null");
+
+        final Filter[] replacedFilters = without(filter.getClass()).filters;
+        final Filter[] newFilters = Arrays.copyOf(replacedFilters, replacedFilters.length + 1);
+        newFilters[replacedFilters.length] = filter;
+        return new Filters(newFilters);
+    }
+
+    /**
+     * Returns the filters without the filters of the specified classes.
+     *
+     * @param filterClasses the classes of the filters to remove
+     * @return the remaining filters
+     */
+    @SafeVarargs
+    public final Filters without(final Class<? extends Filter>... filterClasses) {
+        final Set<Class<? extends Filter>> removedClasses = new HashSet<>(filterClasses.length);
+        for (final Class<? extends Filter> filterClass : filterClasses) {
+            removedClasses.add(filterClass);
+        }
+        return new Filters(Arrays.stream(filters).filter(filter -> !removedClasses.contains(filter.getClass())).toArray(Filter[]::new));
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Filters)) {
+            return false;
+        }
+        // there is at most one filter per class, so the order of the filters doesn't matter
+        final Filters otherFilters = (Filters) other;
+        return filters.length == otherFilters.filters.length && Arrays.asList(filters).containsAll(Arrays.asList(otherFilters.filters));
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 0;
+        for (final Filter filter : filters) {
+            hashCode += filter.hashCode();
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(filters);
+    }
+
     /** Builder for {@link Filters}. */
     @NoArgsConstructor(access = AccessLevel.PRIVATE)
     public static class Builder {
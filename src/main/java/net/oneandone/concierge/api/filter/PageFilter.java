@@ -1,12 +1,16 @@
 package net.oneandone.concierge.api.filter;
 
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.ToString;
 
 import java.util.OptionalInt;
 
 /** Pages the elements of a {@link net.oneandone.concierge.api.Group}. */
 @AllArgsConstructor
+@EqualsAndHashCode
+@ToString
 public class PageFilter implements Filter {
 
     /** The page to display. */
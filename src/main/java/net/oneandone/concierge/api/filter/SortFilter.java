@@ -0,0 +1,93 @@
+package net.oneandone.concierge.api.filter;
+
+import com.google.common.base.Preconditions;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import net.oneandone.concierge.api.Element;
+
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sorts the elements of a {@link net.oneandone.concierge.api.Group} by the values of top-level fields of their content.
+ * <p />
+ * Numbers will be sorted by their value and strings lexicographically, elements without a value or with values of
+ * other types will be sorted last. The filter is optional, resolvers which don't
+ * {@link net.oneandone.concierge.api.resolver.GroupResolver#supports(Class) support} it will be sorted by the gateway.
+ */
+@EqualsAndHashCode
+@ToString
+public class SortFilter implements Filter {
+
+    /** The orders by their precedence. */
+    @Getter private final List<Order> orders;
+
+    /**
+     * Creates the filter sorting by the specified orders.
+     *
+     * @param orders the orders by their precedence
+     */
+    public SortFilter(final List<Order> orders) {
+        Preconditions.checkNotNull(orders, "the orders may not be null");
+        this.orders = orders;
+    }
+
+    /**
+     * Returns the comparator of elements sorting them as specified by this filter.
+     *
+     * @return the comparator of elements
+     */
+    public Comparator<Element> comparator() {
+        Comparator<Element> comparator = (first, second) -> 0;
+        for (final Order order : orders) {
+            final Comparator<Element> fieldComparator = (first, second) -> compare(valueOf(first, order.getField()), valueOf(second, order.getField()), order.isDescending());
+            comparator = comparator.thenComparing(fieldComparator);
+        }
+        return comparator;
+    }
+
+    private static JsonValue valueOf(final Element element, final String field) {
+        final JsonObject content = element.content();
+        final JsonValue value = content != null ? content.get(field) : null;
+        return value instanceof JsonNumber || value instanceof JsonString ? value : null;
+    }
+
+    private static int compare(final JsonValue first, final JsonValue second, final boolean descending) {
+        if (first == null || second == null) {
+            // missing values will be sorted last regardless of the direction
+            return first == null ? (second == null ? 0 : 1) : -1;
+        }
+
+        final int result;
+        if (first instanceof JsonNumber && second instanceof JsonNumber) {
+            result = ((JsonNumber) first).bigDecimalValue().compareTo(((JsonNumber) second).bigDecimalValue());
+        } else if (first instanceof JsonString && second instanceof JsonString) {
+            result = ((JsonString) first).getString().compareTo(((JsonString) second).getString());
+        } else {
+            // numbers will be sorted before strings
+            result = first instanceof JsonNumber ? -1 : 1;
+        }
+        return descending ? -result : result;
+    }
+
+    /** The order of a single field. */
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    @ToString
+    public static class Order {
+
+        /** The name of the field. */
+        @Getter private final String field;
+
+        /** Whether the elements will be sorted in descending order. */
+        @Getter private final boolean descending;
+
+    }
+
+}
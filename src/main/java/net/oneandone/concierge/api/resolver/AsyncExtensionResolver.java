@@ -0,0 +1,98 @@
+package net.oneandone.concierge.api.resolver;
+
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Extension;
+import net.oneandone.concierge.api.Group;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * Resolves extensions for elements without blocking the calling thread.
+ * <p />
+ * Implement this interface instead of {@link ExtensionResolver} if the backend offers a non-blocking client. The
+ * blocking methods of {@link ExtensionResolver} will wait for the asynchronous result.
+ */
+public interface AsyncExtensionResolver extends ExtensionResolver {
+
+    /**
+     * Resolves and returns the future optional extension for the specified parent element.
+     *
+     * @param element the parent element
+     * @return the future optional extension for the specified parent element
+     */
+    CompletionStage<Optional<Extension>> resolveAsync(final Element element);
+
+    /**
+     * Resolves and returns the future extensions for a specified group.
+     * <p />
+     * The default implementation calls {@link #resolveAsync(Element)} for every element of the group.
+     *
+     * @param group the group
+     * @return the future map of the group elements and their extensions
+     */
+    default CompletionStage<Map<Element, Extension>> resolveAsync(final Group group) {
+        final List<Element> elements = group.elements();
+        final List<CompletableFuture<Optional<Extension>>> futures = new ArrayList<>(elements.size());
+        for (final Element element : elements) {
+            futures.add(resolveAsync(element).toCompletableFuture());
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).thenApply(ignored -> {
+            final Map<Element, Extension> result = new HashMap<>();
+            for (int i = 0; i < elements.size(); i++) {
+                final Optional<Extension> extension = futures.get(i).join();
+                if (extension.isPresent()) {
+                    result.put(elements.get(i), extension.get());
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Returns the future date of the last modification of the extension for the specified parent element without resolving it.
+     * <p />
+     * The default implementation returns the result of {@link #lastModified(Element)}.
+     *
+     * @param element the parent element
+     * @return the future optional date of the last modification
+     */
+    default CompletionStage<Optional<ZonedDateTime>> lastModifiedAsync(final Element element) {
+        return CompletableFuture.completedFuture(lastModified(element));
+    }
+
+    @Override
+    default Optional<Extension> resolve(final Element element) {
+        return resolveAsync(element).toCompletableFuture().join();
+    }
+
+    @Override
+    default Map<Element, Extension> resolve(final Group group) {
+        return resolveAsync(group).toCompletableFuture().join();
+    }
+
+    /**
+     * Returns an asynchronous view of the specified extension resolver.
+     * <p />
+     * Asynchronous resolvers will be returned as they are, blocking resolvers will be called on the specified executor.
+     *
+     * @param extensionResolver the extension resolver
+     * @param executor the executor for calls of blocking resolvers
+     * @return the asynchronous extension resolver
+     */
+    static AsyncExtensionResolver of(final ExtensionResolver extensionResolver, final Executor executor) {
+        if (extensionResolver instanceof AsyncExtensionResolver) {
+            return (AsyncExtensionResolver) extensionResolver;
+        }
+        return new BlockingExtensionResolverAdapter(extensionResolver, executor);
+    }
+
+}
@@ -0,0 +1,100 @@
+package net.oneandone.concierge.api.resolver;
+
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Group;
+import net.oneandone.concierge.api.filter.Filters;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * Resolves all elements for a group without blocking the calling thread.
+ * <p />
+ * Implement this interface instead of {@link GroupResolver} if the backend offers a non-blocking client. The blocking
+ * methods of {@link GroupResolver} will wait for the asynchronous result.
+ */
+public interface AsyncGroupResolver extends GroupResolver {
+
+    /**
+     * Returns the future group.
+     *
+     * @param parent the parent element
+     * @param filters the list of filters
+     * @return the future group
+     */
+    CompletionStage<Group> elementsAsync(final Element parent, final Filters filters);
+
+    /**
+     * Returns the future groups for all specified parent elements.
+     * <p />
+     * The default implementation calls {@link #elementsAsync(Element, Filters)} for every parent.
+     *
+     * @param parents the parent elements
+     * @param filters the list of filters, equal for all parents
+     * @return the future map of the parent elements and their groups
+     * @see GroupResolver#groups(Collection, Filters)
+     */
+    default CompletionStage<Map<Element, Group>> groupsAsync(final Collection<Element> parents, final Filters filters) {
+        final List<Element> parentList = new ArrayList<>(parents);
+        final List<CompletableFuture<Group>> futures = new ArrayList<>(parentList.size());
+        for (final Element parent : parentList) {
+            futures.add(elementsAsync(parent, filters).toCompletableFuture());
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).thenApply(ignored -> {
+            final Map<Element, Group> result = new HashMap<>();
+            for (int i = 0; i < parentList.size(); i++) {
+                result.put(parentList.get(i), futures.get(i).join());
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Returns the future date of the last modification of the group without resolving its elements.
+     * <p />
+     * The default implementation returns the result of {@link #lastModified(Element, Filters)}.
+     *
+     * @param parent the parent element
+     * @param filters the list of filters
+     * @return the future optional date of the last modification
+     */
+    default CompletionStage<Optional<ZonedDateTime>> lastModifiedAsync(final Element parent, final Filters filters) {
+        return CompletableFuture.completedFuture(lastModified(parent, filters));
+    }
+
+    @Override
+    default Group elements(final Element parent, final Filters filters) {
+        return elementsAsync(parent, filters).toCompletableFuture().join();
+    }
+
+    @Override
+    default Map<Element, Group> groups(final Collection<Element> parents, final Filters filters) {
+        return groupsAsync(parents, filters).toCompletableFuture().join();
+    }
+
+    /**
+     * Returns an asynchronous view of the specified group resolver.
+     * <p />
+     * Asynchronous resolvers will be returned as they are, blocking resolvers will be called on the specified executor.
+     *
+     * @param groupResolver the group resolver
+     * @param executor the executor for calls of blocking resolvers
+     * @return the asynchronous group resolver
+     */
+    static AsyncGroupResolver of(final GroupResolver groupResolver, final Executor executor) {
+        if (groupResolver instanceof AsyncGroupResolver) {
+            return (AsyncGroupResolver) groupResolver;
+        }
+        return new BlockingGroupResolverAdapter(groupResolver, executor);
+    }
+
+}
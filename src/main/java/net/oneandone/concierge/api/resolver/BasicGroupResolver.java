@@ -1,18 +1,45 @@
 package net.oneandone.concierge.api.resolver;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.oneandone.concierge.api.CursorPage;
 import net.oneandone.concierge.api.Element;
 import net.oneandone.concierge.api.Group;
 import net.oneandone.concierge.api.filter.AddressFilter;
+import net.oneandone.concierge.api.filter.CursorFilter;
+import net.oneandone.concierge.api.filter.FieldsFilter;
 import net.oneandone.concierge.api.filter.Filters;
 import net.oneandone.concierge.api.filter.PageFilter;
+import net.oneandone.concierge.api.filter.SortFilter;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**  Implementation of a basic group resolver in order to prevent if-else cascades. */
 public abstract class BasicGroupResolver implements GroupResolver {
 
+    /**
+     * The default executor counting the totals in the background shared by all resolvers, see {@link #deferredTotalExecutor()}.
+     * <p />
+     * Counting usually blocks on the backend, so it must not run on the common fork join pool. The executor is bounded
+     * by its threads and its queue, counts exceeding the queue will be rejected and started again by a later request.
+     */
+    private static final ExecutorService DEFERRED_TOTAL_EXECUTOR = deferredTotalExecutor(2, 1_000);
+
+    /** The totals counted in the background by parent and filters, see {@link TotalMode#DEFERRED}. */
+    private final Cache<List<Object>, DeferredTotal> deferredTotals = CacheBuilder.newBuilder().maximumSize(10_000).build();
+
     /**
      * Return a specific element for the specified address.
      *
@@ -31,6 +58,63 @@ public abstract class BasicGroupResolver implements GroupResolver {
      */
     public abstract int total(final Element parent, final Filters filters);
 
+    /**
+     * Returns the way the total number of elements will be determined.
+     * <p />
+     * The default implementation returns {@link TotalMode#EXACT}, so {@link #total(Element, Filters)} will be called
+     * for every resolved page.
+     *
+     * @return the total mode
+     */
+    public TotalMode totalMode() {
+        return TotalMode.EXACT;
+    }
+
+    /**
+     * Returns the estimated number of total elements for the specified parent and filters, see {@link TotalMode#ESTIMATED}.
+     * <p />
+     * The default implementation returns {@link Group#UNKNOWN_TOTAL}.
+     *
+     * @param parent the parent element
+     * @param filters the filters
+     * @return the estimated number of total elements
+     */
+    public int estimatedTotal(final Element parent, final Filters filters) {
+        return Group.UNKNOWN_TOTAL;
+    }
+
+    /**
+     * Returns the duration a total counted in the background will be used before it will be counted again, see
+     * {@link TotalMode#DEFERRED}.
+     * <p />
+     * The totals are cached by parent and filters without the paging, fields and sort filters, so the parent elements should implement
+     * {@link Object#equals(Object)} and {@link Object#hashCode()}. The outdated total will be used until the count is done.
+     *
+     * @return the time to live of a deferred total, one minute by default
+     */
+    protected Duration deferredTotalTimeToLive() {
+        return Duration.ofMinutes(1);
+    }
+
+    /**
+     * Returns the executor counting the totals in the background, see {@link TotalMode#DEFERRED}.
+     * <p />
+     * The default implementation returns an executor of two daemon threads shared by all resolvers, which queues at
+     * most 1000 counts. Override this method if the backend allows more concurrent counts.
+     *
+     * @return the executor for deferred totals
+     */
+    protected Executor deferredTotalExecutor() {
+        return DEFERRED_TOTAL_EXECUTOR;
+    }
+
+    private static ExecutorService deferredTotalExecutor(final int threads, final int queueSize) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES, new ArrayBlockingQueue<>(queueSize),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("concierge-deferred-total-%d").build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     /**
      * Returns the last update date for the list with the specified parent and filters.
      *
@@ -53,6 +137,25 @@ public abstract class BasicGroupResolver implements GroupResolver {
      */
     public abstract List<Element> elements(final Element parent, final int page, final int perPage, final Filters filters);
 
+    /**
+     * Returns the page of elements following the specified cursor for the specified parent and filters.
+     * <p />
+     * Override this method if the backend supports keyset pagination, so deep pages cost the same as the first one. The
+     * method will be called for the first page and for every {@link CursorFilter cursor} returned with a previous page,
+     * pages requested by number will still be resolved by {@link #elements(Element, int, int, Filters)}. The default
+     * implementation returns an empty optional, which means that cursors are not supported and requests with a cursor
+     * will be answered with the first page.
+     *
+     * @param parent the parent element
+     * @param cursor the opaque cursor returned with the previous page or {@code null} for the first page
+     * @param perPage the per page count
+     * @param filters the filters
+     * @return the page with the cursor of the next page or an empty optional if cursors are not supported
+     */
+    public Optional<CursorPage> elements(final Element parent, final String cursor, final int perPage, final Filters filters) {
+        return Optional.empty();
+    }
+
     @Override
     public final Group elements(final Element parent, final Filters filters) {
         final Optional<AddressFilter> addressFilter = filters.get(AddressFilter.class);
@@ -66,17 +169,115 @@ public abstract class BasicGroupResolver implements GroupResolver {
         }
 
         final Optional<PageFilter> pageFilter = filters.get(PageFilter.class);
+        final Optional<CursorFilter> cursorFilter = filters.get(CursorFilter.class);
         int page = 0;
         int perPage = defaultPageSize();
         if (defaultPageSize() != 0 && maximumPageSize() != 0) {
             page = 1;
-            if (pageFilter.isPresent()) {
+            if (cursorFilter.isPresent()) {
+                perPage = cursorFilter.get().getPerPage().orElse(perPage);
+            } else if (pageFilter.isPresent()) {
                 page = pageFilter.get().getPage();
                 perPage = pageFilter.get().getPerPage().orElse(perPage);
             }
+            perPage = Math.min(perPage, maximumPageSize());
+
+            if (page == 1) {
+                final Optional<CursorPage> cursorPage = elements(parent, cursorFilter.map(CursorFilter::getCursor).orElse(null), perPage, filters);
+                if (cursorPage.isPresent()) {
+                    return group(parent, cursorPage.get().elements(), filters, cursorPage.get().nextCursor().orElse(null));
+                }
+            }
+        }
+
+        return group(parent, elements(parent, page, perPage, filters), filters, null);
+    }
+
+    private Group group(final Element parent, final List<Element> elements, final Filters filters, final String nextCursor) {
+        switch (totalMode()) {
+            case ESTIMATED:
+                return Group.withEstimatedTotal(name(), elements, estimatedTotal(parent, filters), lastUpdate(parent, filters), nextCursor);
+            case DEFERRED:
+                return Group.withElements(name(), elements, deferredTotal(parent, filters), lastUpdate(parent, filters), nextCursor);
+            case SKIPPED:
+                return Group.withElements(name(), elements, Group.UNKNOWN_TOTAL, lastUpdate(parent, filters), nextCursor);
+            default:
+                return Group.withElements(name(), elements, total(parent, filters), lastUpdate(parent, filters), nextCursor);
         }
+    }
+
+    /**
+     * Returns the cached total for the specified parent and filters and starts to count it if it is missing or outdated.
+     *
+     * @param parent the parent element
+     * @param filters the filters
+     * @return the cached total or {@link Group#UNKNOWN_TOTAL} if the total hasn't been counted yet
+     */
+    private int deferredTotal(final Element parent, final Filters filters) {
+        final List<Object> key = Arrays.asList(parent, filters.without(PageFilter.class, CursorFilter.class, FieldsFilter.class, SortFilter.class));
+        final long now = System.nanoTime();
+        final DeferredTotal deferredTotal = deferredTotals.getIfPresent(key);
+        if (deferredTotal == null || now - deferredTotal.started >= deferredTotalTimeToLive().toNanos()) {
+            final DeferredTotal recount = new DeferredTotal(now, deferredTotal != null ? deferredTotal.total : Group.UNKNOWN_TOTAL);
+            final boolean counting;
+            if (deferredTotal == null) {
+                counting = deferredTotals.asMap().putIfAbsent(key, recount) == null;
+            } else {
+                counting = deferredTotals.asMap().replace(key, deferredTotal, recount);
+            }
 
-        return Group.withElements(name(), elements(parent, page, perPage, filters), total(parent, filters), lastUpdate(parent, filters));
+            if (counting) {
+                try {
+                    CompletableFuture.supplyAsync(() -> total(parent, filters), deferredTotalExecutor()).whenComplete((total, throwable) -> {
+                        if (throwable == null) {
+                            recount.total = total;
+                        } else {
+                            // count again on the next request
+                            deferredTotals.asMap().remove(key, recount);
+                        }
+                    });
+                } catch (final RejectedExecutionException e) {
+                    // the executor is saturated, count again on the next request
+                    deferredTotals.asMap().remove(key, recount);
+                }
+            }
+        }
+
+        final DeferredTotal current = deferredTotals.getIfPresent(key);
+        return current != null ? current.total : Group.UNKNOWN_TOTAL;
+    }
+
+    /**
+     * Returns the {@link #lastUpdate(Element, Filters) last update date} for lists of elements.
+     * <p />
+     * A single element can't be checked without resolving it, so an empty optional will be returned for filters
+     * containing an {@link AddressFilter}.
+     *
+     * @param parent the parent element
+     * @param filters the list of filters
+     * @return the optional date of the last modification
+     */
+    @Override
+    public Optional<ZonedDateTime> lastModified(final Element parent, final Filters filters) {
+        if (filters.get(AddressFilter.class).isPresent()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(lastUpdate(parent, filters));
+    }
+
+    /** A total counted in the background. */
+    private static final class DeferredTotal {
+
+        /** The start of the count in nanoseconds, see {@link System#nanoTime()}. */
+        private final long started;
+
+        /** The counted total or the previous total while counting. */
+        private volatile int total;
+
+        private DeferredTotal(final long started, final int total) {
+            this.started = started;
+            this.total = total;
+        }
     }
 
 }
@@ -0,0 +1,78 @@
+package net.oneandone.concierge.api.resolver;
+
+import com.google.common.collect.Lists;
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Extension;
+import net.oneandone.concierge.api.Group;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Implementation of a basic extension resolver resolving the extensions of many elements by a single call of the backend.
+ * <p />
+ * Implement {@link #extensions(Collection)} with a multi-get of the backend by the {@link Element#id() ids} of the
+ * elements, so the extensions of a page of elements cost one backend call instead of one per element. The extension
+ * of a single element will be resolved by the same method.
+ */
+public abstract class BatchExtensionResolver implements ExtensionResolver {
+
+    /**
+     * Returns the extensions of the elements with the specified ids.
+     * <p />
+     * The number of ids will never exceed the {@link #maximumBatchSize() maximum batch size}.
+     *
+     * @param ids the ids of the parent elements
+     * @return the extensions by the ids of their parent elements, elements without an extension may be missing
+     */
+    public abstract Map<Long, Extension> extensions(final Collection<Long> ids);
+
+    /**
+     * Returns the maximum number of elements per call of {@link #extensions(Collection)}.
+     * <p />
+     * The default implementation returns {@code 100}.
+     *
+     * @return the maximum batch size
+     */
+    @Override
+    public int maximumBatchSize() {
+        return 100;
+    }
+
+    @Override
+    public final Optional<Extension> resolve(final Element element) {
+        return Optional.ofNullable(extensions(Collections.singleton(element.id())).get(element.id()));
+    }
+
+    @Override
+    public final Map<Element, Extension> resolve(final Group group) {
+        final Map<Element, Extension> result = new HashMap<>();
+        if (group.elements().isEmpty()) {
+            return result;
+        }
+
+        final int batchSize = maximumBatchSize() > 0 ? maximumBatchSize() : group.elements().size();
+        for (final List<Element> batch : Lists.partition(group.elements(), batchSize)) {
+            final Set<Long> ids = new LinkedHashSet<>(batch.size());
+            for (final Element element : batch) {
+                ids.add(element.id());
+            }
+
+            final Map<Long, Extension> extensions = extensions(ids);
+            for (final Element element : batch) {
+                final Extension extension = extensions.get(element.id());
+                if (extension != null) {
+                    result.put(element, extension);
+                }
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,91 @@
+package net.oneandone.concierge.api.resolver;
+
+import com.google.common.base.Preconditions;
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Extension;
+import net.oneandone.concierge.api.Group;
+
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * Calls a blocking {@link ExtensionResolver} on an executor.
+ * <p />
+ * If the extension resolver doesn't override {@link ExtensionResolver#resolve(Group)}, the extensions of the elements of
+ * a group will be resolved concurrently.
+ */
+class BlockingExtensionResolverAdapter implements AsyncExtensionResolver {
+
+    /** The blocking extension resolver. */
+    private final ExtensionResolver extensionResolver;
+
+    /** The executor for the calls of the blocking extension resolver. */
+    private final Executor executor;
+
+    /** Flag indicating whether the extension resolver resolves groups by itself. */
+    private final boolean resolvesGroups;
+
+    BlockingExtensionResolverAdapter(final ExtensionResolver extensionResolver, final Executor executor) {
+        this.extensionResolver = Preconditions.checkNotNull(extensionResolver, "the extension resolver may not be null");
+        this.executor = Preconditions.checkNotNull(executor, "the executor may not be null");
+
+        try {
+            this.resolvesGroups = extensionResolver.getClass().getMethod("resolve", Group.class).getDeclaringClass() != ExtensionResolver.class;
+        } catch (final NoSuchMethodException e) {
+            throw new IllegalStateException("extension resolver does not implement " + ExtensionResolver.class.getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public String[] hierarchy() {
+        return extensionResolver.hierarchy();
+    }
+
+    @Override
+    public String name() {
+        return extensionResolver.name();
+    }
+
+    @Override
+    public int maximumBatchSize() {
+        return extensionResolver.maximumBatchSize();
+    }
+
+    @Override
+    public CompletionStage<Optional<Extension>> resolveAsync(final Element element) {
+        return CompletableFuture.supplyAsync(() -> extensionResolver.resolve(element), executor);
+    }
+
+    @Override
+    public CompletionStage<Map<Element, Extension>> resolveAsync(final Group group) {
+        if (resolvesGroups || group.elements().size() <= 1) {
+            return CompletableFuture.supplyAsync(() -> extensionResolver.resolve(group), executor);
+        }
+        return AsyncExtensionResolver.super.resolveAsync(group);
+    }
+
+    @Override
+    public CompletionStage<Optional<ZonedDateTime>> lastModifiedAsync(final Element element) {
+        return CompletableFuture.supplyAsync(() -> extensionResolver.lastModified(element), executor);
+    }
+
+    @Override
+    public Optional<Extension> resolve(final Element element) {
+        return extensionResolver.resolve(element);
+    }
+
+    @Override
+    public Map<Element, Extension> resolve(final Group group) {
+        return extensionResolver.resolve(group);
+    }
+
+    @Override
+    public Optional<ZonedDateTime> lastModified(final Element element) {
+        return extensionResolver.lastModified(element);
+    }
+
+}
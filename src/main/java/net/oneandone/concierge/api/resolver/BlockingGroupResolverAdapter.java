@@ -0,0 +1,86 @@
+package net.oneandone.concierge.api.resolver;
+
+import com.google.common.base.Preconditions;
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Group;
+import net.oneandone.concierge.api.filter.Filter;
+import net.oneandone.concierge.api.filter.Filters;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/** Calls a blocking {@link GroupResolver} on an executor. */
+class BlockingGroupResolverAdapter implements AsyncGroupResolver {
+
+    /** The blocking group resolver. */
+    private final GroupResolver groupResolver;
+
+    /** The executor for the calls of the blocking group resolver. */
+    private final Executor executor;
+
+    BlockingGroupResolverAdapter(final GroupResolver groupResolver, final Executor executor) {
+        this.groupResolver = Preconditions.checkNotNull(groupResolver, "the group resolver may not be null");
+        this.executor = Preconditions.checkNotNull(executor, "the executor may not be null");
+    }
+
+    @Override
+    public String[] hierarchy() {
+        return groupResolver.hierarchy();
+    }
+
+    @Override
+    public String name() {
+        return groupResolver.name();
+    }
+
+    @Override
+    public int defaultPageSize() {
+        return groupResolver.defaultPageSize();
+    }
+
+    @Override
+    public int maximumPageSize() {
+        return groupResolver.maximumPageSize();
+    }
+
+    @Override
+    public boolean supports(final Class<? extends Filter> filterClass) {
+        return groupResolver.supports(filterClass);
+    }
+
+    @Override
+    public CompletionStage<Group> elementsAsync(final Element parent, final Filters filters) {
+        return CompletableFuture.supplyAsync(() -> groupResolver.elements(parent, filters), executor);
+    }
+
+    @Override
+    public CompletionStage<Map<Element, Group>> groupsAsync(final Collection<Element> parents, final Filters filters) {
+        return CompletableFuture.supplyAsync(() -> groupResolver.groups(parents, filters), executor);
+    }
+
+    @Override
+    public CompletionStage<Optional<ZonedDateTime>> lastModifiedAsync(final Element parent, final Filters filters) {
+        return CompletableFuture.supplyAsync(() -> groupResolver.lastModified(parent, filters), executor);
+    }
+
+    @Override
+    public Group elements(final Element parent, final Filters filters) {
+        return groupResolver.elements(parent, filters);
+    }
+
+    @Override
+    public Map<Element, Group> groups(final Collection<Element> parents, final Filters filters) {
+        return groupResolver.groups(parents, filters);
+    }
+
+    @Override
+    public Optional<ZonedDateTime> lastModified(final Element parent, final Filters filters) {
+        return groupResolver.lastModified(parent, filters);
+    }
+
+}
@@ -4,6 +4,7 @@ import net.oneandone.concierge.api.Element;
 import net.oneandone.concierge.api.Extension;
 import net.oneandone.concierge.api.Group;
 
+import java.time.ZonedDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -36,4 +37,31 @@ public interface ExtensionResolver extends Resolver {
         return result;
     }
 
+    /**
+     * Returns the maximum number of elements of the groups passed to {@link #resolve(Group)}.
+     * <p />
+     * Larger groups will be split into batches of at most this size, which will be resolved concurrently. The default
+     * implementation returns {@code 0}, which means that groups of any size will be resolved at once. See
+     * {@link BatchExtensionResolver} for resolvers backed by a multi-get of the backend.
+     *
+     * @return the maximum batch size or {@code 0} if unlimited
+     */
+    default int maximumBatchSize() {
+        return 0;
+    }
+
+    /**
+     * Returns the date of the last modification of the extension for the specified parent element without resolving it.
+     * <p />
+     * This method will be called to answer conditional requests, so it should be considerably cheaper than
+     * {@link #resolve(Element)}. The default implementation returns an empty optional, which means that the freshness
+     * of the extension can't be determined without resolving it.
+     *
+     * @param element the parent element
+     * @return the optional date of the last modification
+     */
+    default Optional<ZonedDateTime> lastModified(final Element element) {
+        return Optional.empty();
+    }
+
 }
@@ -2,7 +2,16 @@ package net.oneandone.concierge.api.resolver;
 
 import net.oneandone.concierge.api.Element;
 import net.oneandone.concierge.api.Group;
+import net.oneandone.concierge.api.filter.AttributeFilter;
+import net.oneandone.concierge.api.filter.Filter;
 import net.oneandone.concierge.api.filter.Filters;
+import net.oneandone.concierge.api.filter.SortFilter;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 
 /** Resolves all elements for a group. */
 public interface GroupResolver extends Resolver {
@@ -21,6 +30,20 @@ public interface GroupResolver extends Resolver {
      */
     int maximumPageSize();
 
+    /**
+     * Returns {@code true} if the resolver applies the optional filters of the specified class itself.
+     * <p />
+     * The {@link AttributeFilter} and the {@link SortFilter} are optional, the gateway will apply them to the elements
+     * of resolvers not supporting them and will pass only the remaining filters to the resolver. The default
+     * implementation supports none of them.
+     *
+     * @param filterClass the class of an optional filter
+     * @return {@code true} if the resolver applies the filters of the specified class
+     */
+    default boolean supports(final Class<? extends Filter> filterClass) {
+        return false;
+    }
+
     /**
      * Returns the group.
      *
@@ -30,4 +53,38 @@ public interface GroupResolver extends Resolver {
      */
     Group elements(final Element parent, final Filters filters);
 
+    /**
+     * Returns the groups for all specified parent elements.
+     * <p />
+     * This method will be called if the group is requested for a list of elements at once, e.g. by showing a sub-group
+     * of all elements of a page. The default implementation calls {@link #elements(Element, Filters)} for every parent,
+     * resolvers should override it if their backend is able to resolve the groups with a single request.
+     *
+     * @param parents the parent elements
+     * @param filters the list of filters, equal for all parents
+     * @return the map of the parent elements and their groups
+     */
+    default Map<Element, Group> groups(final Collection<Element> parents, final Filters filters) {
+        final Map<Element, Group> result = new HashMap<>();
+        for (final Element parent : parents) {
+            result.put(parent, elements(parent, filters));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the date of the last modification of the group without resolving its elements.
+     * <p />
+     * This method will be called to check if a cached response is still up to date, so it should be considerably
+     * cheaper than {@link #elements(Element, Filters)}. The default implementation returns an empty optional, which
+     * means that the freshness of the group can't be determined without resolving it.
+     *
+     * @param parent the parent element
+     * @param filters the list of filters
+     * @return the optional date of the last modification
+     */
+    default Optional<ZonedDateTime> lastModified(final Element parent, final Filters filters) {
+        return Optional.empty();
+    }
+
 }
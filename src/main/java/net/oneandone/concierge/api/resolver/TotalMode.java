@@ -0,0 +1,24 @@
+package net.oneandone.concierge.api.resolver;
+
+/**
+ * The way a {@link BasicGroupResolver} determines the total number of elements of a paged group.
+ * <p />
+ * Counting all elements is often more expensive than resolving a single page, so the total may be estimated, skipped
+ * or computed in the background. Responses for groups without an exact total have no {@code last} link and a
+ * {@code Content-Range} header with an unknown complete length.
+ */
+public enum TotalMode {
+
+    /** The total will be counted for every page by {@link BasicGroupResolver#total(net.oneandone.concierge.api.Element, net.oneandone.concierge.api.filter.Filters)}. */
+    EXACT,
+
+    /** The total will be estimated for every page by {@link BasicGroupResolver#estimatedTotal(net.oneandone.concierge.api.Element, net.oneandone.concierge.api.filter.Filters)}. */
+    ESTIMATED,
+
+    /** The total will be counted in the background and cached, the total is unknown until the first count is done. */
+    DEFERRED,
+
+    /** The total won't be determined at all. */
+    SKIPPED
+
+}
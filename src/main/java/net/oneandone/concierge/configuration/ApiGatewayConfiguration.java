@@ -11,4 +11,19 @@ public class ApiGatewayConfiguration extends Configuration {
     @JsonProperty(value = "resolvers", required = true)
     @Getter private Resolvers resolvers;
 
+    @JsonProperty(value = "executor")
+    @Getter private ExecutorConfiguration executor = new ExecutorConfiguration();
+
+    @JsonProperty(value = "limits")
+    @Getter private LimitsConfiguration limits = new LimitsConfiguration();
+
+    @JsonProperty(value = "response")
+    @Getter private ResponseConfiguration response = new ResponseConfiguration();
+
+    @JsonProperty(value = "cache")
+    @Getter private CacheConfiguration cache = new CacheConfiguration();
+
+    @JsonProperty(value = "trace")
+    @Getter private TraceConfiguration trace = new TraceConfiguration();
+
 }
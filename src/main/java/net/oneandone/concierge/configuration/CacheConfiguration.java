@@ -0,0 +1,51 @@
+package net.oneandone.concierge.configuration;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+import io.dropwizard.util.Size;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Configuration of the response cache.
+ * <p/>
+ * The time to live of a response is the minimum time to live of all resolvers involved in its resolution, including
+ * the resolvers of the extensions and sub-groups requested by the {@code show} query parameter. Responses with a time
+ * to live of {@code 0} won't be cached.
+ */
+public class CacheConfiguration {
+
+    /** The maximum total size of all cached response bodies. */
+    @JsonProperty("maximumSize")
+    @Getter private Size maximumSize = Size.megabytes(64);
+
+    /** The time to live of the responses of resolvers without a configured time to live. */
+    @JsonProperty("defaultTimeToLive")
+    @Getter private Duration defaultTimeToLive = Duration.seconds(0);
+
+    /** The time to live of the responses by resolver hierarchy, e.g. {@code users/posts} or {@code users/profile}. */
+    @JsonProperty("timeToLive")
+    @Getter private Map<String, Duration> timeToLive = Collections.emptyMap();
+
+    /**
+     * Ask the group resolver whether the group has been modified before serving a cached response.
+     * <p/>
+     * See {@link net.oneandone.concierge.api.resolver.GroupResolver#lastModified(net.oneandone.concierge.api.Element, net.oneandone.concierge.api.filter.Filters)}.
+     */
+    @JsonProperty("revalidate")
+    @Getter private boolean revalidate = true;
+
+    /**
+     * Returns {@code true} if any response may be cached, otherwise {@code false}.
+     *
+     * @return {@code true} if any response may be cached, otherwise {@code false}
+     */
+    @JsonIgnore
+    public boolean isEnabled() {
+        return defaultTimeToLive.toNanoseconds() > 0 || timeToLive.values().stream().anyMatch(duration -> duration.toNanoseconds() > 0);
+    }
+
+}
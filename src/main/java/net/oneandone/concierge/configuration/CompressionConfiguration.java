@@ -0,0 +1,23 @@
+package net.oneandone.concierge.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Size;
+import lombok.Getter;
+
+/**
+ * Configuration of the compression of the responses.
+ * <p/>
+ * Responses will be compressed with gzip if the client accepts it. Cached responses will be stored compressed as well,
+ * so they won't be compressed again on every hit.
+ */
+public class CompressionConfiguration {
+
+    /** Compress the responses of the generic resource. */
+    @JsonProperty("enabled")
+    @Getter private boolean enabled = true;
+
+    /** The minimum size of a response body to be compressed, streamed responses will always be compressed. */
+    @JsonProperty("minimumSize")
+    @Getter private Size minimumSize = Size.kilobytes(1);
+
+}
@@ -0,0 +1,55 @@
+package net.oneandone.concierge.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+import lombok.Getter;
+
+/** Configuration of the executor resolving independent extensions and sub-groups concurrently. */
+public class ExecutorConfiguration {
+
+    /**
+     * The number of resolver threads.
+     * <p/>
+     * If set to {@code 0} all resolvers will be called one after another on the request thread.
+     */
+    @JsonProperty("threads")
+    @Getter private int threads = 0;
+
+    /** The maximum duration of the resolution of a single request. */
+    @JsonProperty("timeout")
+    @Getter private Duration timeout = Duration.seconds(30);
+
+    /**
+     * Whether concurrent requests share their resolution.
+     * <p/>
+     * Identical requests in flight at the same time will be resolved and rendered only once, identical resolver calls
+     * of concurrent requests, e.g. of overlapping resources, will be made only once. Elements and groups must implement
+     * {@code equals} and {@code hashCode} to share the resolver calls for their children.
+     * <p/>
+     * Disabled by default, enable it only if the responses of the resolvers don't depend on the request, e.g. on
+     * headers or the authenticated user, otherwise concurrent requests might receive each other's responses.
+     */
+    @JsonProperty("coalescing")
+    @Getter private boolean coalescing = false;
+
+    /**
+     * The duration resolver calls of concurrent requests are gathered to be resolved by a single batched call.
+     * <p/>
+     * The calls for the children of different elements by the same resolver, e.g. the extensions of the elements of
+     * concurrent requests, will be resolved by a single call of {@code groupsAsync} or {@code resolveAsync(Group)} of the
+     * resolver. Every batched call will be delayed by up to this duration, so batching only pays off for resolvers with
+     * backends offering multi-gets. If set to {@code 0} calls won't be batched.
+     */
+    @JsonProperty("batchWindow")
+    @Getter private Duration batchWindow = Duration.milliseconds(0);
+
+    /**
+     * The maximum number of parent elements of a batched resolver call.
+     * <p/>
+     * A batch will be resolved immediately once it is full. Extension resolvers declaring a maximum batch size will be
+     * limited to theirs.
+     */
+    @JsonProperty("batchSize")
+    @Getter private int batchSize = 100;
+
+}
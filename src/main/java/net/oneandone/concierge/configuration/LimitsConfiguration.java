@@ -0,0 +1,87 @@
+package net.oneandone.concierge.configuration;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Configuration of the limits of the resolver calls.
+ * <p/>
+ * A resolver call exceeding its timeout fails while the backend call itself may still be running. A resolver call
+ * exceeding the maximum number of concurrent calls of its resolver fails immediately, so a degraded backend can't
+ * exhaust the threads and the time of all requests (bulkhead). Extensions requested by the {@code show} query parameter
+ * whose resolver failed this way will be missing in the response, the missing extensions will be listed by the
+ * {@code X-Concierge-Missing} response header. Resources resolved by such a resolver will be answered with
+ * {@code 503 Service Unavailable}.
+ * <p/>
+ * Without resolver threads, see {@link ExecutorConfiguration#getThreads()}, blocking resolvers are called on the request
+ * thread. Their calls fail once the timeout is exceeded as well, but the request thread stays blocked until the
+ * resolver returns, so configure resolver threads to limit the time of the requests as well.
+ */
+public class LimitsConfiguration {
+
+    /** The timeout of the calls of resolvers without a configured timeout, calls won't time out if set to {@code 0}. */
+    @JsonProperty("defaultTimeout")
+    @Getter private Duration defaultTimeout = Duration.seconds(0);
+
+    /** The timeout of the calls by resolver hierarchy, e.g. {@code users/posts} or {@code users/profile}. */
+    @JsonProperty("timeout")
+    @Getter private Map<String, Duration> timeout = Collections.emptyMap();
+
+    /** The maximum number of concurrent calls of resolvers without a configured maximum, unlimited if set to {@code 0}. */
+    @JsonProperty("defaultMaximumConcurrentCalls")
+    @Getter private int defaultMaximumConcurrentCalls = 0;
+
+    /** The maximum number of concurrent calls by resolver hierarchy, e.g. {@code users/posts} or {@code users/profile}. */
+    @JsonProperty("maximumConcurrentCalls")
+    @Getter private Map<String, Integer> maximumConcurrentCalls = Collections.emptyMap();
+
+    /**
+     * Returns the timeout of the calls of the resolver with the specified hierarchy.
+     *
+     * @param path the hierarchy of the resolver joined by {@code /}
+     * @return the timeout, calls won't time out if it's {@code 0}
+     */
+    @JsonIgnore
+    public Duration getTimeout(final String path) {
+        final Duration resolverTimeout = timeout.get(path);
+        return resolverTimeout != null ? resolverTimeout : defaultTimeout;
+    }
+
+    /**
+     * Returns the maximum number of concurrent calls of the resolver with the specified hierarchy.
+     *
+     * @param path the hierarchy of the resolver joined by {@code /}
+     * @return the maximum number of concurrent calls or {@code 0} if unlimited
+     */
+    @JsonIgnore
+    public int getMaximumConcurrentCalls(final String path) {
+        final Integer resolverMaximum = maximumConcurrentCalls.get(path);
+        return resolverMaximum != null ? resolverMaximum : defaultMaximumConcurrentCalls;
+    }
+
+    /**
+     * Returns {@code true} if any resolver call may time out, otherwise {@code false}.
+     *
+     * @return {@code true} if any resolver call may time out, otherwise {@code false}
+     */
+    @JsonIgnore
+    public boolean isTimingOut() {
+        return defaultTimeout.toNanoseconds() > 0 || timeout.values().stream().anyMatch(duration -> duration.toNanoseconds() > 0);
+    }
+
+    /**
+     * Returns {@code true} if any resolver call is limited, otherwise {@code false}.
+     *
+     * @return {@code true} if any resolver call is limited, otherwise {@code false}
+     */
+    @JsonIgnore
+    public boolean isEnabled() {
+        return isTimingOut() || defaultMaximumConcurrentCalls > 0 || maximumConcurrentCalls.values().stream().anyMatch(maximum -> maximum > 0);
+    }
+
+}
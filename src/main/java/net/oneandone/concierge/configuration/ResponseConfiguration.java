@@ -0,0 +1,58 @@
+package net.oneandone.concierge.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+
+/** Configuration of the rendering of the responses. */
+public class ResponseConfiguration {
+
+    /**
+     * Write the responses element by element to the client instead of rendering the complete response as string first.
+     * <p/>
+     * Streaming keeps the memory footprint of large groups flat, but a failure while rendering can't be reported
+     * with a proper status code anymore once the first bytes have been sent.
+     */
+    @JsonProperty("streaming")
+    @Getter private boolean streaming = false;
+
+    /**
+     * The maximum page size of paged groups or {@code 0} if only limited by the group resolvers.
+     * <p/>
+     * Larger requested page sizes will be reduced to this number, as will be the default page sizes of the resolvers.
+     */
+    @JsonProperty("maximumPageSize")
+    @Getter private int maximumPageSize = 1000;
+
+    /**
+     * The maximum number of elements scanned for a page of a group filtered or sorted by the gateway or {@code 0} if
+     * unlimited.
+     * <p/>
+     * Groups of resolvers not supporting the requested attribute filters or sort order are filtered page by page by the
+     * gateway. Once this number is exceeded, the matches found so far will be returned with an unknown total, sorted
+     * groups will be rejected with status {@code 400}.
+     */
+    @JsonProperty("maximumScannedElements")
+    @Getter private int maximumScannedElements = 10000;
+
+    /**
+     * The number of elements of a response above which it will be streamed or {@code 0} to never force streaming.
+     * <p/>
+     * Responses exceeding this number, e.g. of unpaged groups, will be streamed to the client even if {@link #streaming}
+     * is disabled and won't be cached. They won't be truncated, use paged groups to limit the size of the responses.
+     */
+    @JsonProperty("streamingThreshold")
+    @Getter private int streamingThreshold = 1000;
+
+    /**
+     * The maximum number of resources of a single batch request or {@code 0} if unlimited.
+     * <p/>
+     * Larger batches will be rejected with status {@code 413}, they would hold the resolver threads for too long.
+     */
+    @JsonProperty("maximumBatchSize")
+    @Getter private int maximumBatchSize = 50;
+
+    /** The compression of the responses. */
+    @JsonProperty("compression")
+    @Getter private CompressionConfiguration compression = new CompressionConfiguration();
+
+}
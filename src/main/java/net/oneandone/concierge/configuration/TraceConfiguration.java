@@ -0,0 +1,24 @@
+package net.oneandone.concierge.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+
+/**
+ * Configuration of the resolution traces.
+ * <p/>
+ * If enabled, a client may request the trace of a request with the {@code X-Concierge-Trace} header or the {@code trace}
+ * query parameter. The resolver calls will be summarized in the {@code Server-Timing} header of the response, the
+ * complete trace is available on the admin port at {@code /traces/<id>} with the id of the {@code X-Concierge-Trace-Id}
+ * header.
+ */
+public class TraceConfiguration {
+
+    /** Allow clients to request the trace of a request. */
+    @JsonProperty("enabled")
+    @Getter private boolean enabled = false;
+
+    /** The number of the most recent traces available on the admin port. */
+    @JsonProperty("retained")
+    @Getter private int retained = 100;
+
+}
@@ -0,0 +1,76 @@
+package net.oneandone.concierge.resource;
+
+import com.google.common.base.Preconditions;
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Extension;
+import net.oneandone.concierge.api.Group;
+import net.oneandone.concierge.api.resolver.AsyncExtensionResolver;
+
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Gathers the calls of an {@link AsyncExtensionResolver} by concurrent requests and resolves them by single calls of
+ * {@link AsyncExtensionResolver#resolveAsync(Group)}, see {@link MicroBatcher}.
+ * <p/>
+ * The elements of groups are gathered element by element, so they may be resolved along with the elements of other
+ * requests. The gathered group has no date of the last modification, as its elements may belong to different groups.
+ */
+class BatchingExtensionResolver implements AsyncExtensionResolver {
+
+    /** The batch key of all elements, the elements of an extension resolver can always be resolved together. */
+    private static final Object ELEMENTS = new Object();
+
+    /** The batched extension resolver. */
+    private final AsyncExtensionResolver extensionResolver;
+
+    /** The batcher of the parent elements. */
+    private final MicroBatcher<Element, Extension> batcher;
+
+    /** The name of the group of the parent elements. */
+    private final String groupName;
+
+    /**
+     * Creates the batching view of the specified extension resolver.
+     *
+     * @param extensionResolver the extension resolver
+     * @param batcher           the batcher of the parent elements
+     */
+    BatchingExtensionResolver(final AsyncExtensionResolver extensionResolver, final MicroBatcher<Element, Extension> batcher) {
+        this.extensionResolver = Preconditions.checkNotNull(extensionResolver, "the extension resolver may not be null");
+        this.batcher = Preconditions.checkNotNull(batcher, "the batcher may not be null");
+        this.groupName = hierarchy().length > 1 ? hierarchy()[hierarchy().length - 2] : "";
+    }
+
+    @Override
+    public String[] hierarchy() {
+        return extensionResolver.hierarchy();
+    }
+
+    @Override
+    public String name() {
+        return extensionResolver.name();
+    }
+
+    @Override
+    public int maximumBatchSize() {
+        return extensionResolver.maximumBatchSize();
+    }
+
+    @Override
+    public CompletionStage<Optional<Extension>> resolveAsync(final Element element) {
+        return batcher.load(ELEMENTS, element, elements -> extensionResolver.resolveAsync(Group.withElements(groupName, elements, elements.size(), null)))
+                .thenApply(Optional::ofNullable);
+    }
+
+    @Override
+    public CompletionStage<Optional<ZonedDateTime>> lastModifiedAsync(final Element element) {
+        return extensionResolver.lastModifiedAsync(element);
+    }
+
+    @Override
+    public Optional<ZonedDateTime> lastModified(final Element element) {
+        return extensionResolver.lastModified(element);
+    }
+}
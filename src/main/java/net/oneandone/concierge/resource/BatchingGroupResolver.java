@@ -0,0 +1,85 @@
+package net.oneandone.concierge.resource;
+
+import com.google.common.base.Preconditions;
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Group;
+import net.oneandone.concierge.api.filter.Filter;
+import net.oneandone.concierge.api.filter.Filters;
+import net.oneandone.concierge.api.resolver.AsyncGroupResolver;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Gathers the calls of an {@link AsyncGroupResolver} by concurrent requests and resolves them by single calls of
+ * {@link AsyncGroupResolver#groupsAsync(Collection, Filters)}, see {@link MicroBatcher}.
+ * <p/>
+ * Groups of many parents requested by {@link #groupsAsync(Collection, Filters)} are gathered parent by parent, so they
+ * may be resolved along with the groups of other requests. Only the groups of the same filters will be resolved
+ * together. The groups of the root hierarchy have no parent and will be resolved without batching.
+ */
+class BatchingGroupResolver implements AsyncGroupResolver {
+
+    /** The batched group resolver. */
+    private final AsyncGroupResolver groupResolver;
+
+    /** The batcher of the parent elements. */
+    private final MicroBatcher<Element, Group> batcher;
+
+    /**
+     * Creates the batching view of the specified group resolver.
+     *
+     * @param groupResolver the group resolver
+     * @param batcher       the batcher of the parent elements
+     */
+    BatchingGroupResolver(final AsyncGroupResolver groupResolver, final MicroBatcher<Element, Group> batcher) {
+        this.groupResolver = Preconditions.checkNotNull(groupResolver, "the group resolver may not be null");
+        this.batcher = Preconditions.checkNotNull(batcher, "the batcher may not be null");
+    }
+
+    @Override
+    public String[] hierarchy() {
+        return groupResolver.hierarchy();
+    }
+
+    @Override
+    public String name() {
+        return groupResolver.name();
+    }
+
+    @Override
+    public int defaultPageSize() {
+        return groupResolver.defaultPageSize();
+    }
+
+    @Override
+    public int maximumPageSize() {
+        return groupResolver.maximumPageSize();
+    }
+
+    @Override
+    public boolean supports(final Class<? extends Filter> filterClass) {
+        return groupResolver.supports(filterClass);
+    }
+
+    @Override
+    public CompletionStage<Group> elementsAsync(final Element parent, final Filters filters) {
+        if (parent == null) {
+            return groupResolver.elementsAsync(null, filters);
+        }
+        return batcher.load(filters, parent, parents -> groupResolver.groupsAsync(parents, filters))
+                .thenApply(group -> group != null ? group : Group.empty(groupResolver.name()));
+    }
+
+    @Override
+    public CompletionStage<Optional<ZonedDateTime>> lastModifiedAsync(final Element parent, final Filters filters) {
+        return groupResolver.lastModifiedAsync(parent, filters);
+    }
+
+    @Override
+    public Optional<ZonedDateTime> lastModified(final Element parent, final Filters filters) {
+        return groupResolver.lastModified(parent, filters);
+    }
+}
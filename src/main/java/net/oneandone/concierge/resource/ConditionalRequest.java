@@ -0,0 +1,129 @@
+package net.oneandone.concierge.resource;
+
+import com.google.common.base.Splitter;
+import com.google.common.hash.Hashing;
+
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The conditions of a conditional {@code GET} request.
+ * <p/>
+ * As specified by RFC 7232 the {@code If-None-Match} header takes precedence over the {@code If-Modified-Since} header.
+ * Dates will be accepted in the ISO format of our {@code Last-Modified} header as well as in the HTTP date format.
+ */
+class ConditionalRequest {
+
+    /** The request without any conditions. */
+    static final ConditionalRequest NONE = new ConditionalRequest(Optional.empty(), Collections.emptyList());
+
+    /** The date of the {@code If-Modified-Since} header. */
+    private final Optional<ZonedDateTime> ifModifiedSince;
+
+    /** The entity tags of the {@code If-None-Match} header without their weakness indicator. */
+    private final List<String> ifNoneMatch;
+
+    private ConditionalRequest(final Optional<ZonedDateTime> ifModifiedSince, final List<String> ifNoneMatch) {
+        this.ifModifiedSince = ifModifiedSince;
+        this.ifNoneMatch = ifNoneMatch;
+    }
+
+    /**
+     * Returns the conditions of the specified request.
+     * <p/>
+     * Invalid dates will be ignored.
+     *
+     * @param request the request
+     * @return the conditions
+     */
+    static ConditionalRequest of(final HttpServletRequest request) {
+        final String ifNoneMatchHeader = request.getHeader("If-None-Match");
+        final String ifModifiedSinceHeader = request.getHeader("If-Modified-Since");
+        if (ifNoneMatchHeader == null && ifModifiedSinceHeader == null) {
+            return NONE;
+        }
+
+        final List<String> ifNoneMatch;
+        if (ifNoneMatchHeader != null) {
+            ifNoneMatch = Splitter.on(',').trimResults().omitEmptyStrings().splitToList(ifNoneMatchHeader.replace("W/", ""));
+        } else {
+            ifNoneMatch = Collections.emptyList();
+        }
+        return new ConditionalRequest(parseDate(ifModifiedSinceHeader), ifNoneMatch);
+    }
+
+    /**
+     * Returns {@code true} if the request has conditions which may be evaluated by the date of the last modification only.
+     *
+     * @return {@code true} if the request has an {@code If-Modified-Since} but no {@code If-None-Match} header
+     */
+    boolean isDateConditional() {
+        return ifNoneMatch.isEmpty() && ifModifiedSince.isPresent();
+    }
+
+    /**
+     * Returns {@code true} if the resource with the specified date of the last modification has not been modified.
+     *
+     * @param lastModified the date of the last modification of the resource
+     * @return {@code true} if the resource has not been modified since the date of the {@code If-Modified-Since} header
+     */
+    boolean isNotModified(final ZonedDateTime lastModified) {
+        return isDateConditional() && !lastModified.truncatedTo(ChronoUnit.SECONDS).isAfter(ifModifiedSince.get());
+    }
+
+    /**
+     * Returns {@code true} if the resource with the specified entity tag and date of the last modification has not been modified.
+     *
+     * @param eTag         the entity tag of the resource or {@code null} if unknown
+     * @param lastModified the date of the last modification of the resource
+     * @return {@code true} if the resource has not been modified
+     */
+    boolean isNotModified(final String eTag, final ZonedDateTime lastModified) {
+        if (!ifNoneMatch.isEmpty()) {
+            return eTag != null && (ifNoneMatch.contains("*") || ifNoneMatch.contains(eTag));
+        }
+        return isNotModified(lastModified);
+    }
+
+    /**
+     * Returns the strong entity tag for the specified response body.
+     *
+     * @param body the response body
+     * @return the quoted entity tag
+     */
+    static String eTag(final byte[] body) {
+        return '"' + Hashing.murmur3_128().hashBytes(body).toString() + '"';
+    }
+
+    /**
+     * Returns the strong entity tag for the specified response body.
+     *
+     * @param body the response body
+     * @return the quoted entity tag
+     */
+    static String eTag(final String body) {
+        return '"' + Hashing.murmur3_128().hashString(body, StandardCharsets.UTF_8).toString() + '"';
+    }
+
+    private static Optional<ZonedDateTime> parseDate(final String date) {
+        if (date == null) {
+            return Optional.empty();
+        }
+
+        for (final DateTimeFormatter formatter : new DateTimeFormatter[]{DateTimeFormatter.ISO_OFFSET_DATE_TIME, DateTimeFormatter.RFC_1123_DATE_TIME}) {
+            try {
+                return Optional.of(ZonedDateTime.parse(date.trim(), formatter));
+            } catch (final DateTimeParseException e) {
+                // try the next format
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,137 @@
+package net.oneandone.concierge.resource;
+
+import com.google.common.base.Splitter;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The content codings of the response bodies.
+ * <p/>
+ * The coding will be negotiated by the {@code Accept-Encoding} header of the request as specified by RFC 7231. Each
+ * coding has its own representation of the body and therefore its own entity tag.
+ */
+enum ContentEncoding {
+
+    /** The body won't be encoded. */
+    IDENTITY(null),
+
+    /** The body will be compressed with gzip. */
+    GZIP("gzip") {
+        @Override
+        byte[] encode(final byte[] body) {
+            final ByteArrayOutputStream encodedBody = new ByteArrayOutputStream(body.length / 4);
+            try (final GZIPOutputStream outputStream = new GZIPOutputStream(encodedBody)) {
+                outputStream.write(body);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return encodedBody.toByteArray();
+        }
+
+        @Override
+        StreamingOutput encode(final StreamingOutput body) {
+            return outputStream -> {
+                final GZIPOutputStream encodedStream = new GZIPOutputStream(outputStream);
+                body.write(encodedStream);
+                encodedStream.finish();
+            };
+        }
+    };
+
+    private static final Splitter LIST_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+    private static final Splitter PARAMETER_SPLITTER = Splitter.on(';').trimResults();
+
+    /** The value of the {@code Content-Encoding} header or {@code null} for the identity. */
+    private final String coding;
+
+    ContentEncoding(final String coding) {
+        this.coding = coding;
+    }
+
+    /**
+     * Returns the value of the {@code Content-Encoding} header.
+     *
+     * @return the content coding or {@code null} if the body isn't encoded
+     */
+    String coding() {
+        return coding;
+    }
+
+    /**
+     * Returns the encoded body.
+     *
+     * @param body the body
+     * @return the encoded body
+     */
+    byte[] encode(final byte[] body) {
+        return body;
+    }
+
+    /**
+     * Returns the output encoding the body while it is written.
+     *
+     * @param body the output of the body
+     * @return the output of the encoded body
+     */
+    StreamingOutput encode(final StreamingOutput body) {
+        return body;
+    }
+
+    /**
+     * Returns the entity tag of the encoded body for the entity tag of the body.
+     *
+     * @param eTag the quoted entity tag of the body or {@code null}
+     * @return the quoted entity tag of the encoded body or {@code null}
+     */
+    String eTag(final String eTag) {
+        if (coding == null || eTag == null) {
+            return eTag;
+        }
+        return eTag.substring(0, eTag.length() - 1) + "-" + coding + '"';
+    }
+
+    /**
+     * Returns the preferred coding accepted by the specified {@code Accept-Encoding} header.
+     * <p/>
+     * Codings with a quality of {@code 0} are not acceptable, the wildcard {@code *} accepts gzip unless it has been
+     * listed explicitly.
+     *
+     * @param acceptEncoding the {@code Accept-Encoding} header or {@code null}
+     * @return the negotiated coding
+     */
+    static ContentEncoding negotiate(final String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return IDENTITY;
+        }
+
+        double gzipQuality = -1;
+        double wildcardQuality = -1;
+        for (final String acceptedCoding : LIST_SPLITTER.split(acceptEncoding)) {
+            final List<String> parameters = PARAMETER_SPLITTER.splitToList(acceptedCoding);
+            final String name = parameters.get(0).toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (final String parameter : parameters.subList(1, parameters.size())) {
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (final NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+
+            if ("gzip".equals(name) || "x-gzip".equals(name)) {
+                gzipQuality = quality;
+            } else if ("*".equals(name)) {
+                wildcardQuality = quality;
+            }
+        }
+        return (gzipQuality >= 0 ? gzipQuality : wildcardQuality) > 0 ? GZIP : IDENTITY;
+    }
+}
@@ -0,0 +1,263 @@
+package net.oneandone.concierge.resource;
+
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Group;
+import net.oneandone.concierge.api.filter.AddressFilter;
+import net.oneandone.concierge.api.filter.AttributeFilter;
+import net.oneandone.concierge.api.filter.CursorFilter;
+import net.oneandone.concierge.api.filter.Filter;
+import net.oneandone.concierge.api.filter.Filters;
+import net.oneandone.concierge.api.filter.PageFilter;
+import net.oneandone.concierge.api.filter.SortFilter;
+import net.oneandone.concierge.api.resolver.AsyncGroupResolver;
+
+import javax.ws.rs.BadRequestException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Applies the optional {@link AttributeFilter attribute} and {@link SortFilter sort} filters to the elements of group
+ * resolvers which don't {@link net.oneandone.concierge.api.resolver.GroupResolver#supports(Class) support} them.
+ * <p/>
+ * The resolver will be called page by page with the remaining filters. The elements will be filtered as the pages
+ * arrive and only the matching elements of the requested page will be kept, so a group of any size will be filtered
+ * with the memory of a single page. Sorting needs all matching elements, which will be kept until the last page has
+ * been resolved. Pages filtered by the gateway have no cursor and their total is unknown unless all pages have been
+ * resolved.
+ * <p/>
+ * The scan stops once the maximum number of scanned elements is reached, e.g. for rare matches in a large group or for
+ * resolvers ignoring the requested pages. The matching elements of the requested page found so far will be returned
+ * with an unknown total, sorted groups will be rejected with status {@code 400} since their order would be incomplete.
+ */
+final class FilterFallback {
+
+    private FilterFallback() {
+    }
+
+    /**
+     * Returns the future group of the specified parent, see {@link AsyncGroupResolver#elementsAsync(Element, Filters)}.
+     *
+     * @param resolver               the group resolver
+     * @param parent                 the parent element
+     * @param filters                the filters
+     * @param maximumScannedElements the maximum number of elements scanned for a page or {@code 0} if unlimited
+     * @return the future group
+     */
+    static CompletableFuture<Group> elements(final AsyncGroupResolver resolver, final Element parent, final Filters filters, final int maximumScannedElements) {
+        if (!isRequired(resolver, filters)) {
+            return resolver.elementsAsync(parent, filters).toCompletableFuture();
+        }
+
+        if (resolver.defaultPageSize() <= 0 || filters.get(AddressFilter.class).isPresent()) {
+            // unpaged groups and single elements will be resolved at once
+            return resolver.elementsAsync(parent, supportedFilters(resolver, filters)).toCompletableFuture()
+                    .thenApply(group -> new Scan(resolver, filters, 0).addAll(group));
+        }
+
+        final int perPage = resolver.maximumPageSize() > 0 ? resolver.maximumPageSize() : resolver.defaultPageSize();
+        return scan(resolver, parent, supportedFilters(resolver, filters).without(PageFilter.class, CursorFilter.class), perPage,
+                new Scan(resolver, filters, maximumScannedElements), 1);
+    }
+
+    /**
+     * Returns the future groups of the specified parents, see {@link AsyncGroupResolver#groupsAsync(Collection, Filters)}.
+     *
+     * @param resolver               the group resolver
+     * @param parents                the parent elements
+     * @param filters                the filters
+     * @param maximumScannedElements the maximum number of elements scanned for a page of each group or {@code 0} if unlimited
+     * @return the future groups by their parent elements
+     */
+    static CompletableFuture<Map<Element, Group>> groups(final AsyncGroupResolver resolver, final Collection<Element> parents, final Filters filters,
+                                                         final int maximumScannedElements) {
+        if (!isRequired(resolver, filters)) {
+            return resolver.groupsAsync(parents, filters).toCompletableFuture();
+        }
+
+        if (resolver.defaultPageSize() <= 0) {
+            // the groups of unpaged resolvers will still be resolved with a single call
+            return resolver.groupsAsync(parents, supportedFilters(resolver, filters)).toCompletableFuture().thenApply(groups -> {
+                final Map<Element, Group> result = new HashMap<>();
+                for (final Map.Entry<Element, Group> group : groups.entrySet()) {
+                    result.put(group.getKey(), new Scan(resolver, filters, 0).addAll(group.getValue()));
+                }
+                return result;
+            });
+        }
+
+        final List<Element> parentList = new ArrayList<>(parents);
+        final List<CompletableFuture<Group>> futures = new ArrayList<>(parentList.size());
+        for (final Element parent : parentList) {
+            futures.add(elements(resolver, parent, filters, maximumScannedElements));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).thenApply(ignored -> {
+            final Map<Element, Group> result = new HashMap<>();
+            for (int i = 0; i < parentList.size(); i++) {
+                result.put(parentList.get(i), futures.get(i).join());
+            }
+            return result;
+        });
+    }
+
+    private static boolean isRequired(final AsyncGroupResolver resolver, final Filters filters) {
+        return isUnsupported(resolver, filters, AttributeFilter.class) || isUnsupported(resolver, filters, SortFilter.class);
+    }
+
+    private static Filters supportedFilters(final AsyncGroupResolver resolver, final Filters filters) {
+        Filters supportedFilters = filters;
+        for (final Class<? extends Filter> filterClass : Arrays.asList(AttributeFilter.class, SortFilter.class)) {
+            if (!resolver.supports(filterClass)) {
+                supportedFilters = supportedFilters.without(filterClass);
+            }
+        }
+        return supportedFilters;
+    }
+
+    private static boolean isUnsupported(final AsyncGroupResolver resolver, final Filters filters, final Class<? extends Filter> filterClass) {
+        return filters.get(filterClass).isPresent() && !resolver.supports(filterClass);
+    }
+
+    private static CompletableFuture<Group> scan(final AsyncGroupResolver resolver, final Element parent, final Filters filters, final int perPage, final Scan scan,
+                                                 final int firstPage) {
+        // pages resolved synchronously will be scanned in a loop to keep the stack flat
+        for (int page = firstPage; ; page++) {
+            final CompletableFuture<Group> group = resolver.elementsAsync(parent, filters.with(new PageFilter(page, OptionalInt.of(perPage)))).toCompletableFuture();
+            if (!group.isDone() || group.isCompletedExceptionally()) {
+                final int nextPage = page + 1;
+                return group.thenCompose(resolvedGroup -> scan.add(resolvedGroup, perPage) ? CompletableFuture.completedFuture(scan.group())
+                        : scan(resolver, parent, filters, perPage, scan, nextPage));
+            }
+            final boolean scanned;
+            try {
+                scanned = scan.add(group.join(), perPage);
+            } catch (final BadRequestException e) {
+                final CompletableFuture<Group> rejected = new CompletableFuture<>();
+                rejected.completeExceptionally(e);
+                return rejected;
+            }
+            if (scanned) {
+                return CompletableFuture.completedFuture(scan.group());
+            }
+        }
+    }
+
+    /** The state of the filtering of the pages of a group. */
+    private static final class Scan {
+
+        private final String name;
+        private final AttributeFilter attributeFilter;
+        private final SortFilter sortFilter;
+
+        /** The number of matching elements before the requested page. */
+        private final int offset;
+
+        /** The number of elements of the requested page. */
+        private final int limit;
+
+        /** The maximum number of scanned elements or {@code 0} if unlimited. */
+        private final int maximumScannedElements;
+
+        /** The matching elements of the requested page, or all matching elements if they will be sorted. */
+        private final List<Element> elements = new ArrayList<>();
+
+        private int scannedElements;
+        private int matchingElements;
+        private boolean exhausted;
+        private ZonedDateTime lastModified;
+
+        private Scan(final AsyncGroupResolver resolver, final Filters filters, final int maximumScannedElements) {
+            this.name = resolver.name();
+            this.maximumScannedElements = maximumScannedElements;
+            this.attributeFilter = resolver.supports(AttributeFilter.class) ? null : filters.get(AttributeFilter.class).orElse(null);
+            this.sortFilter = resolver.supports(SortFilter.class) ? null : filters.get(SortFilter.class).orElse(null);
+
+            final Optional<PageFilter> pageFilter = filters.get(PageFilter.class);
+            final Optional<CursorFilter> cursorFilter = filters.get(CursorFilter.class);
+            if (resolver.defaultPageSize() <= 0 || filters.get(AddressFilter.class).isPresent()) {
+                this.offset = 0;
+                this.limit = Integer.MAX_VALUE;
+            } else if (cursorFilter.isPresent()) {
+                // the gateway can't continue the cursors of the resolver, the first page will be returned
+                this.offset = 0;
+                this.limit = cursorFilter.get().getPerPage().orElse(resolver.defaultPageSize());
+            } else if (pageFilter.isPresent()) {
+                this.limit = pageFilter.get().getPerPage().orElse(resolver.defaultPageSize());
+                this.offset = (pageFilter.get().getPage() - 1) * limit;
+            } else {
+                this.offset = 0;
+                this.limit = resolver.defaultPageSize();
+            }
+        }
+
+        /**
+         * Filters all elements of the specified group.
+         *
+         * @param group the complete group
+         * @return the filtered group
+         */
+        private Group addAll(final Group group) {
+            add(group, Integer.MAX_VALUE);
+            return group();
+        }
+
+        /**
+         * Filters the elements of the specified page.
+         *
+         * @param group   the page of the group
+         * @param perPage the requested number of elements of the page
+         * @return {@code true} if no more pages need to be resolved
+         * @throws BadRequestException if the maximum number of scanned elements of a sorted group is exceeded
+         */
+        private boolean add(final Group group, final int perPage) {
+            for (final Element element : group.elements()) {
+                if (attributeFilter == null || attributeFilter.test(element)) {
+                    if (sortFilter != null || (matchingElements >= offset && matchingElements - offset < limit)) {
+                        elements.add(element);
+                    }
+                    matchingElements++;
+                }
+            }
+            scannedElements += group.elements().size();
+
+            if (group.lastModified() != null && (lastModified == null || group.lastModified().isAfter(lastModified))) {
+                lastModified = group.lastModified();
+            }
+
+            final boolean exactTotal = group.total() >= 0 && !group.isTotalEstimated();
+            exhausted = group.elements().size() < perPage || (exactTotal && scannedElements >= group.total());
+            if (exhausted || (sortFilter == null && matchingElements - offset >= limit)) {
+                return true;
+            }
+
+            if (maximumScannedElements > 0 && scannedElements >= maximumScannedElements) {
+                if (sortFilter != null) {
+                    throw new BadRequestException("sorting group '" + name + "' exceeded the maximum of " + maximumScannedElements + " scanned elements");
+                }
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Returns the requested page of the filtered group.
+         *
+         * @return the filtered group
+         */
+        private Group group() {
+            List<Element> page = elements;
+            if (sortFilter != null) {
+                elements.sort(sortFilter.comparator());
+                page = offset < elements.size() ? elements.subList(offset, (int) Math.min((long) offset + limit, elements.size())) : new ArrayList<>();
+            }
+            return Group.withElements(name, page, exhausted ? matchingElements : Group.UNKNOWN_TOTAL, lastModified != null ? lastModified : ZonedDateTime.now());
+        }
+    }
+}
@@ -1,134 +1,931 @@
 package net.oneandone.concierge.resource;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Table;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.dropwizard.util.Duration;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
 import net.oneandone.concierge.api.Element;
 import net.oneandone.concierge.api.Extension;
 import net.oneandone.concierge.api.Group;
+import net.oneandone.concierge.api.filter.CursorFilter;
+import net.oneandone.concierge.api.filter.FieldsFilter;
 import net.oneandone.concierge.api.filter.Filters;
 import net.oneandone.concierge.api.filter.PageFilter;
-import net.oneandone.concierge.api.resolver.ExtensionResolver;
+import net.oneandone.concierge.api.resolver.AsyncExtensionResolver;
+import net.oneandone.concierge.api.resolver.AsyncGroupResolver;
 import net.oneandone.concierge.api.resolver.GroupResolver;
-import net.oneandone.concierge.api.resolver.Resolver;
+import net.oneandone.concierge.configuration.CacheConfiguration;
+import net.oneandone.concierge.configuration.CompressionConfiguration;
+import net.oneandone.concierge.configuration.ExecutorConfiguration;
+import net.oneandone.concierge.configuration.LimitsConfiguration;
 import net.oneandone.concierge.configuration.Resolvers;
+import net.oneandone.concierge.configuration.ResponseConfiguration;
+import net.oneandone.concierge.resource.cache.CachedResponse;
+import net.oneandone.concierge.resource.cache.ResponseCache;
 import net.oneandone.concierge.resource.response.ApiResourcePaging;
 import net.oneandone.concierge.resource.response.ApiResponse;
+import net.oneandone.concierge.resource.response.Revalidator;
+import net.oneandone.concierge.resource.trace.ResolutionTrace;
+import net.oneandone.concierge.resource.trace.ResolutionTraces;
 
 import javax.json.*;
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
+@Slf4j
 @Path("/")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class GenericApiResource {
 
-    private final List<ExtensionResolver> extensionResolvers;
-    private final List<GroupResolver> groupResolvers;
+    /** The header requesting the trace of a request. */
+    static final String TRACE_HEADER = "X-Concierge-Trace";
+
+    /** The query parameter requesting the trace of a request. */
+    static final String TRACE_PARAMETER = "trace";
+
+    /** The response header with the id of the trace of the request. */
+    static final String TRACE_ID_HEADER = "X-Concierge-Trace-Id";
+
+    /** The response header with the estimated total of a paged group, see {@link net.oneandone.concierge.api.resolver.TotalMode#ESTIMATED}. */
+    static final String TOTAL_ESTIMATE_HEADER = "X-Total-Estimate";
+
+    /** The response header listing the hierarchies of the extensions missing in a partial response, see {@link LimitsConfiguration}. */
+    static final String MISSING_PARTS_HEADER = "X-Concierge-Missing";
+
+    /** The factory of all JSON builders, looking up the JSON provider once instead of on every builder. */
+    static final JsonBuilderFactory JSON_BUILDERS = Json.createBuilderFactory(Collections.emptyMap());
+
+    /** The routing index of all resolvers. */
+    private final ResolverIndex resolverIndex;
+
+    /** The maximum duration of the resolution of a request in nanoseconds. */
+    private final long timeout;
+
+    /** Whether the responses will be streamed to the client. */
+    private final boolean streaming;
+
+    /** The maximum page size of paged groups or {@code 0} if only limited by the group resolvers. */
+    private final int maximumPageSize;
+
+    /** The maximum number of elements scanned for a page filtered by the gateway or {@code 0} if unlimited. */
+    private final int maximumScannedElements;
+
+    /** The number of elements of a response above which it will be streamed or {@code 0} to never force streaming. */
+    private final int streamingThreshold;
+
+    /** The maximum number of resources of a batch request or {@code 0} if unlimited. */
+    private final int maximumBatchSize;
+
+    /** The compression of the responses or {@code null} if responses won't be compressed. */
+    private final CompressionConfiguration compression;
+
+    /** The cache of the rendered responses or {@code null} if responses won't be cached. */
+    private final ResponseCache cache;
+
+    /** The configuration of the response cache. */
+    private final CacheConfiguration cacheConfiguration;
+
+    /** The histogram of the number of resolver calls per request or {@code null} if no metrics will be recorded. */
+    private final Histogram resolverCalls;
+
+    /** The store of the traces of the requests or {@code null} if requests can't be traced. */
+    private final ResolutionTraces traces;
+
+    /** The resolutions of identical requests in flight or {@code null} if concurrent requests won't be coalesced. */
+    private final SingleFlight requests;
+
+    /** The resolver calls in flight or {@code null} if concurrent requests won't share their resolver calls. */
+    private final SingleFlight calls;
 
     public GenericApiResource(final Resolvers resolvers) {
+        this(resolvers, null, null, false, null, null, 0, null, false, 0, 0, 0, 0, null, null, null, null, null);
+    }
+
+    /**
+     * Creates the resource for the specified resolvers.
+     * <p/>
+     * Use {@link #builder()} to create an instance, only the resolvers are mandatory.
+     *
+     * @param resolvers              the resolvers
+     * @param executor               the executor for calls of blocking resolvers, resolvers will be called on the request thread if {@code null}
+     * @param timeout                the maximum duration of the resolution of a request, the default of {@link ExecutorConfiguration} if {@code null}
+     * @param coalescing             whether concurrent identical requests and resolver calls will share one resolution, see {@link ExecutorConfiguration#isCoalescing()}
+     * @param scheduler              the scheduler of the batch windows and the resolver timeouts, resolver calls of concurrent requests won't be batched if {@code null}
+     * @param batchWindow            the duration resolver calls are gathered for a batch, calls won't be batched if {@code null} or zero, see {@link ExecutorConfiguration#getBatchWindow()}
+     * @param batchSize              the maximum number of parent elements of a batch, the default of {@link ExecutorConfiguration} if {@code 0}
+     * @param limits                 the timeouts and the maximum numbers of concurrent calls of the resolvers, calls won't be limited if {@code null}
+     * @param streaming              whether the responses will be written element by element to the client instead of being rendered as string first
+     * @param maximumPageSize        the maximum page size of paged groups or {@code 0} if only limited by the group resolvers, see {@link ResponseConfiguration#getMaximumPageSize()}
+     * @param maximumScannedElements the maximum number of elements scanned for a page filtered by the gateway or {@code 0} if unlimited, see {@link ResponseConfiguration#getMaximumScannedElements()}
+     * @param streamingThreshold     the number of elements of a response above which it will be streamed or {@code 0} to never force streaming, see {@link ResponseConfiguration#getStreamingThreshold()}
+     * @param maximumBatchSize       the maximum number of resources of a batch request or {@code 0} if unlimited, see {@link ResponseConfiguration#getMaximumBatchSize()}
+     * @param compression            the compression of the responses, responses won't be compressed if {@code null}
+     * @param cache                  the cache of the rendered responses, responses won't be cached if {@code null}
+     * @param cacheConfiguration     the time to live of the cached responses, the default of {@link CacheConfiguration} if {@code null}
+     * @param metrics                the registry of the resolver metrics, no metrics will be recorded if {@code null}
+     * @param traces                 the store of the traces of the requests, requests can't be traced if {@code null}
+     */
+    @Builder
+    private GenericApiResource(final Resolvers resolvers, final Executor executor, final Duration timeout, final boolean coalescing,
+                               final ScheduledExecutorService scheduler, final Duration batchWindow, final int batchSize, final LimitsConfiguration limits, final boolean streaming,
+                               final int maximumPageSize, final int maximumScannedElements, final int streamingThreshold, final int maximumBatchSize, final CompressionConfiguration compression, final ResponseCache cache, final CacheConfiguration cacheConfiguration, final MetricRegistry metrics,
+                               final ResolutionTraces traces) {
         Preconditions.checkNotNull(resolvers, "the resolvers may not be null");
 
-        this.groupResolvers = resolvers.getGroupResolvers();
-        this.extensionResolvers = resolvers.getExtensionResolvers();
+        this.resolverIndex = new ResolverIndex(resolvers.getGroupResolvers(), resolvers.getExtensionResolvers(), executor != null ? executor : MoreExecutors.directExecutor(), metrics,
+                scheduler, batchWindow != null ? batchWindow.toNanoseconds() : 0, batchSize > 0 ? batchSize : new ExecutorConfiguration().getBatchSize(),
+                limits != null && limits.isEnabled() ? limits : null);
+        this.timeout = (timeout != null ? timeout : new ExecutorConfiguration().getTimeout()).toNanoseconds();
+        this.streaming = streaming;
+        this.maximumPageSize = maximumPageSize;
+        this.maximumScannedElements = maximumScannedElements;
+        this.streamingThreshold = streamingThreshold;
+        this.maximumBatchSize = maximumBatchSize;
+        this.compression = compression;
+        this.cache = cache;
+        this.cacheConfiguration = cacheConfiguration != null ? cacheConfiguration : new CacheConfiguration();
+        this.resolverCalls = metrics != null ? metrics.histogram(MetricRegistry.name("concierge", "requests", "resolver-calls")) : null;
+        this.traces = traces;
+        this.requests = coalescing ? new SingleFlight() : null;
+        this.calls = coalescing ? new SingleFlight() : null;
     }
 
     @OPTIONS
     @Path("/{uri:.*}")
     public Response getOptions(@PathParam("uri") final String uri) {
         final ResourceIdentifier resourceIdentifier = ResourceIdentifier.parse(uri);
-        final String[] resolverPath = resourceIdentifier.completeHierarchy();
+        final ResolverIndex.Node node = resolverIndex.findComplete(resourceIdentifier);
 
-        final Optional<GroupResolver> groupResolver = groupResolvers.stream().filter(r -> Arrays.equals(r.hierarchy(), resolverPath)).findAny();
-        if (!groupResolver.isPresent()) {
-            final Optional<ExtensionResolver> extensionResolver = extensionResolvers.stream().filter(r -> Arrays.equals(r.hierarchy(), resolverPath)).findAny();
-            if (!extensionResolver.isPresent()) {
-                return Response.status(Response.Status.NOT_FOUND).build();
-            }
+        if (!node.groupResolver().isPresent() && node.extensionResolvers().isEmpty()) {
+            return Response.status(Response.Status.NOT_FOUND).build();
         }
 
         return Response.ok().header("Accept", "GET, OPTIONS").build();
     }
 
+    /**
+     * Resolves the resource without holding the request thread while the resolvers are waiting on their backends.
+     *
+     * @param asyncResponse the suspended response
+     * @param request       the request
+     * @param uri           the URI of the resource
+     */
     @GET
     @Path("/{uri:.*}")
-    public Response getResource(@Context final HttpServletRequest request, @PathParam("uri") final String uri) {
-        // get all query parameters
-        final Multimap<String, String> parametersMultimap = HashMultimap.create();
+    public void getResource(@Suspended final AsyncResponse asyncResponse, @Context final HttpServletRequest request, @PathParam("uri") final String uri) {
+        final ResolutionContext context = createContext(request, uri);
+        resume(asyncResponse, context, "resource '" + uri + "'", () -> getResourceResponse(request, uri, context));
+    }
+
+    /**
+     * Resolves the resource and blocks until the response is available or the timeout is exceeded.
+     *
+     * @param request the request
+     * @param uri     the URI of the resource
+     * @return the response
+     */
+    public Response getResource(final HttpServletRequest request, final String uri) {
+        final ResolutionContext context = createContext(request, uri);
+        Response response;
+        try {
+            response = context.await(getResourceResponse(request, uri, context));
+        } catch (final ResolutionContext.ResolutionTimeoutException e) {
+            log.warn("resolution of resource '{}' timed out", uri);
+            response = Response.status(Response.Status.GATEWAY_TIMEOUT).build();
+        } catch (final ResolverLimits.ResolverUnavailableException e) {
+            log.warn("resolution of resource '{}' failed: {}", uri, e.getMessage());
+            response = Response.status(Response.Status.SERVICE_UNAVAILABLE).build();
+        } catch (final RuntimeException e) {
+            finish(context, null);
+            throw e;
+        }
+        return finish(context, response);
+    }
+
+    /**
+     * Resolves a batch of resources in one round trip without holding the request thread.
+     * <p/>
+     * The request body is a JSON array of URIs including their query parameters, e.g. {@code ["users?show=profile",
+     * "users/johann.bitionaire/posts"]}. All resources will be resolved together in the context of a single request, so
+     * parent elements and identical resolver calls will be shared, see {@link #getBatchResponse(List, ResolutionContext)}.
+     *
+     * @param asyncResponse the suspended response
+     * @param request       the request
+     * @param uris          the URIs of the resources
+     */
+    @POST
+    @Path("/_batch")
+    public void getBatch(@Suspended final AsyncResponse asyncResponse, @Context final HttpServletRequest request, final List<String> uris) {
+        final ResolutionContext context = createContext(request, "_batch");
+        resume(asyncResponse, context, "batch of " + (uris != null ? uris.size() : 0) + " resources", () -> getBatchResponse(uris, context));
+    }
+
+    /**
+     * Resolves the response and resumes the suspended response with it once it's available or the timeout is exceeded.
+     * <p/>
+     * The request will be {@link #finish(ResolutionContext, Response) finished} exactly once with the status sent to
+     * the client, including timed out requests, so they are recorded and traced as well.
+     *
+     * @param asyncResponse the suspended response
+     * @param context       the context of the request
+     * @param description   the description of the requested resources for the log
+     * @param resolution    the resolution of the response, started after the timeout has been set
+     */
+    private void resume(final AsyncResponse asyncResponse, final ResolutionContext context, final String description, final Supplier<CompletableFuture<Response>> resolution) {
+        final AtomicBoolean finished = new AtomicBoolean();
+        asyncResponse.setTimeout(timeout, TimeUnit.NANOSECONDS);
+        asyncResponse.setTimeoutHandler(suspendedResponse -> {
+            if (finished.compareAndSet(false, true)) {
+                log.warn("resolution of {} timed out", description);
+                suspendedResponse.resume(finish(context, Response.status(Response.Status.GATEWAY_TIMEOUT).build()));
+            }
+        });
+
+        CompletableFuture<Response> response;
+        try {
+            response = resolution.get();
+        } catch (final RuntimeException e) {
+            // e.g. invalid query parameters, which fail while the resolution is being started
+            response = new CompletableFuture<>();
+            response.completeExceptionally(e);
+        }
+
+        response.whenComplete((resolvedResponse, throwable) -> {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            if (throwable == null) {
+                asyncResponse.resume(finish(context, resolvedResponse));
+            } else if (ResolverLimits.isUnavailable(throwable)) {
+                log.warn("resolution of {} failed: {}", description, throwable.getMessage());
+                asyncResponse.resume(finish(context, Response.status(Response.Status.SERVICE_UNAVAILABLE).build()));
+            } else {
+                // the exception will be mapped by the exception mappers, the trace records its status if known
+                final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+                finish(context, cause instanceof WebApplicationException ? ((WebApplicationException) cause).getResponse() : null);
+                asyncResponse.resume(cause);
+            }
+        });
+    }
+
+    /**
+     * Resolves a batch of resources and blocks until the response is available or the timeout is exceeded.
+     *
+     * @param request the request
+     * @param uris    the URIs of the resources
+     * @return the response
+     */
+    public Response getBatch(final HttpServletRequest request, final List<String> uris) {
+        final ResolutionContext context = createContext(request, "_batch");
+        Response response;
+        try {
+            response = context.await(getBatchResponse(uris, context));
+        } catch (final ResolutionContext.ResolutionTimeoutException e) {
+            log.warn("resolution of batch of {} resources timed out", uris.size());
+            response = Response.status(Response.Status.GATEWAY_TIMEOUT).build();
+        } catch (final ResolverLimits.ResolverUnavailableException e) {
+            log.warn("resolution of batch of {} resources failed: {}", uris.size(), e.getMessage());
+            response = Response.status(Response.Status.SERVICE_UNAVAILABLE).build();
+        } catch (final RuntimeException e) {
+            finish(context, null);
+            throw e;
+        }
+        return finish(context, response);
+    }
+
+    /**
+     * Returns the context for the specified request, which will be traced if requested by the client and allowed.
+     * <p/>
+     * Traced requests won't share their resolver calls with concurrent requests, so the trace contains all calls.
+     *
+     * @param request the request
+     * @param uri     the URI of the resource
+     * @return the context of the request
+     */
+    private ResolutionContext createContext(final HttpServletRequest request, final String uri) {
+        if (traces != null && (request.getHeader(TRACE_HEADER) != null || request.getParameter(TRACE_PARAMETER) != null)) {
+            final String query = request.getQueryString();
+            return new ResolutionContext(timeout, new ResolutionTrace(query != null ? uri + "?" + query : uri), null, maximumScannedElements);
+        }
+        return new ResolutionContext(timeout, null, calls, maximumScannedElements);
+    }
+
+    /**
+     * Records the number of resolver calls and the trace of the finished request.
+     * <p/>
+     * The response of a traced request will contain the summary of the trace in the {@code Server-Timing} header and
+     * the id of the trace.
+     *
+     * @param context  the context of the request
+     * @param response the response or {@code null} if the resolution failed
+     * @return the response
+     */
+    private Response finish(final ResolutionContext context, final Response response) {
+        if (resolverCalls != null) {
+            resolverCalls.update(context.calls());
+        }
+
+        final Optional<ResolutionTrace> trace = context.trace();
+        if (!trace.isPresent()) {
+            return response;
+        }
+        trace.get().finish(response != null ? response.getStatus() : Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
+        traces.add(trace.get());
+        if (response == null) {
+            return null;
+        }
+        return Response.fromResponse(response)
+                .header("Server-Timing", trace.get().serverTiming())
+                .header(TRACE_ID_HEADER, trace.get().getId())
+                .build();
+    }
+
+    /**
+     * Returns the future response for the requested resource.
+     *
+     * @param request the request
+     * @param uri     the URI of the resource
+     * @param context the context of the request
+     * @return the future response
+     */
+    private CompletableFuture<Response> getResourceResponse(final HttpServletRequest request, final String uri, final ResolutionContext context) {
+        // get all query parameters, the immutable multimap won't be copied by the resource identifier
+        final ImmutableSetMultimap.Builder<String, String> parametersBuilder = ImmutableSetMultimap.builder();
         final Map<String, String[]> requestParameters = request.getParameterMap();
         for (Map.Entry<String, String[]> entry : requestParameters.entrySet()) {
-            parametersMultimap.putAll(entry.getKey(), Arrays.asList(entry.getValue()));
+            if (!TRACE_PARAMETER.equals(entry.getKey())) {
+                parametersBuilder.putAll(entry.getKey(), entry.getValue());
+            }
         }
 
         // resolve resource identifier
-        final ResourceIdentifier resourceIdentifier = ResourceIdentifier.parse(uri, parametersMultimap);
+        final ResourceIdentifier resourceIdentifier = ResourceIdentifier.parse(uri, parametersBuilder.build());
 
-        final ApiResponse apiResponse = getResponse(resourceIdentifier);
-        if (apiResponse == null) {
-            return Response.status(Response.Status.NOT_FOUND).build();
+        final ConditionalRequest conditions = ConditionalRequest.of(request);
+        final ContentEncoding encoding = compression != null ? ContentEncoding.negotiate(request.getHeader("Accept-Encoding")) : ContentEncoding.IDENTITY;
+
+        if (cache != null && !resourceIdentifier.empty()) {
+            final long timeToLive = getTimeToLive(resourceIdentifier);
+            if (timeToLive > 0) {
+                return getCachedResponse(resourceIdentifier, timeToLive, conditions, encoding, context);
+            }
+        }
+
+        if (conditions.isDateConditional() && !resourceIdentifier.empty()) {
+            // the resource doesn't need to be resolved if the resolvers are able to tell that it hasn't been modified
+            return getLastModified(resourceIdentifier, null, context).thenCompose(lastModified -> {
+                if (lastModified.isPresent() && conditions.isNotModified(lastModified.get())) {
+                    return CompletableFuture.completedFuture(buildNotModifiedResponse(null, lastModified.get()));
+                }
+                return getRenderedResponse(resourceIdentifier, conditions, encoding, context);
+            });
+        }
+
+        return getRenderedResponse(resourceIdentifier, conditions, encoding, context);
+    }
+
+    /**
+     * Returns the future response for a batch of resources.
+     * <p/>
+     * The response is a single JSON document with one part per requested URI in the order of the request, e.g.
+     * {@code {"responses": [{"uri": "users", "status": 200, "lastModified": "...", "body": {...}}]}}. Missing resources
+     * and failed resolutions will be reported by the status of their part and won't fail the whole batch. Conditions and
+     * the response cache don't apply to batches.
+     *
+     * @param uris    the URIs of the resources
+     * @param context the context of the request shared by all resources of the batch
+     * @return the future response
+     */
+    private CompletableFuture<Response> getBatchResponse(final List<String> uris, final ResolutionContext context) {
+        if (uris == null || uris.isEmpty()) {
+            return CompletableFuture.completedFuture(Response.status(Response.Status.BAD_REQUEST).build());
+        }
+        if (maximumBatchSize > 0 && uris.size() > maximumBatchSize) {
+            return CompletableFuture.completedFuture(Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE).build());
         }
-        final JsonStructure jsonResponse = apiResponse.getObject();
-        if (jsonResponse != null) {
-            final Response.ResponseBuilder responseBuilder = Response.ok(jsonResponse.toString());
-            if (apiResponse.getPaging().isPresent()) {
-                responseBuilder.header("Accept-Ranges", apiResponse.getPaging().get().getAcceptRanges());
-                responseBuilder.header("Content-Range", apiResponse.getPaging().get().getContentRange());
+
+        final List<CompletableFuture<JsonObject>> parts = new ArrayList<>(uris.size());
+        for (final String uri : uris) {
+            parts.add(getBatchPart(uri, context));
+        }
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[parts.size()])).thenApply(resolved -> {
+            final JsonArrayBuilder responsesBuilder = JSON_BUILDERS.createArrayBuilder();
+            for (final CompletableFuture<JsonObject> part : parts) {
+                responsesBuilder.add(part.join());
             }
-            responseBuilder.header("Last-Modified", apiResponse.getLastModified().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-            return responseBuilder.build();
-        } else {
-            return Response.status(Response.Status.NOT_FOUND).build();
+            final JsonObject batchResponse = JSON_BUILDERS.createObjectBuilder().add("responses", responsesBuilder.build()).build();
+            if (isStreamed(context.elements())) {
+                return withMissingParts(Response.ok(getStreamingOutput(batchResponse)).build(), context.missingParts());
+            }
+            return withMissingParts(Response.ok(batchResponse.toString()).build(), context.missingParts());
+        });
+    }
+
+    /**
+     * Returns the future part of a batch response for a single resource.
+     *
+     * @param uri     the URI of the resource including its query parameters
+     * @param context the context of the batch request
+     * @return the future part
+     */
+    private CompletableFuture<JsonObject> getBatchPart(final String uri, final ResolutionContext context) {
+        final CompletableFuture<ApiResponse> response;
+        try {
+            response = getResponse(ResourceIdentifier.parseWithQuery(uri != null ? uri : ""), context);
+        } catch (final IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(getBatchPart(uri, Response.Status.BAD_REQUEST, null));
         }
+
+        return response.handle((apiResponse, throwable) -> {
+            if (throwable != null && ResolverLimits.isUnavailable(throwable)) {
+                log.warn("resolution of resource '{}' of batch failed: {}", uri, throwable.getMessage());
+                return getBatchPart(uri, Response.Status.SERVICE_UNAVAILABLE, null);
+            }
+            if (throwable != null) {
+                log.warn("resolution of resource '{}' of batch failed", uri, throwable);
+                return getBatchPart(uri, Response.Status.INTERNAL_SERVER_ERROR, null);
+            }
+            if (apiResponse == null || apiResponse.getObject() == null) {
+                return getBatchPart(uri, Response.Status.NOT_FOUND, null);
+            }
+            return getBatchPart(uri, Response.Status.OK, apiResponse);
+        });
+    }
+
+    private static JsonObject getBatchPart(final String uri, final Response.Status status, final ApiResponse apiResponse) {
+        final JsonObjectBuilder partBuilder = JSON_BUILDERS.createObjectBuilder();
+        if (uri != null) {
+            partBuilder.add("uri", uri);
+        }
+        partBuilder.add("status", status.getStatusCode());
+        if (apiResponse != null) {
+            partBuilder.add("lastModified", apiResponse.getLastModified().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+            if (apiResponse.getPaging().isPresent() && apiResponse.getPaging().get().getContentRange() != null) {
+                partBuilder.add("contentRange", apiResponse.getPaging().get().getContentRange());
+            }
+            partBuilder.add("body", apiResponse.getObject());
+        }
+        return partBuilder.build();
+    }
+
+    /**
+     * Resolves and renders the resource.
+     *
+     * @param resourceIdentifier the resource identifier of the request
+     * @param conditions         the conditions of the request
+     * @param encoding           the content coding accepted by the client
+     * @param context            the context of the request
+     * @return the future response
+     */
+    private CompletableFuture<Response> getRenderedResponse(final ResourceIdentifier resourceIdentifier, final ConditionalRequest conditions, final ContentEncoding encoding,
+                                                            final ResolutionContext context) {
+        return getSharedResponse(resourceIdentifier, context).thenApply(sharedResponse -> {
+            final ApiResponse apiResponse = sharedResponse.apiResponse;
+            if (apiResponse == null || apiResponse.getObject() == null) {
+                return Response.status(Response.Status.NOT_FOUND).build();
+            }
+
+            // the JSON representation will be rendered lazily, so there is no need to render it for unmodified resources
+            if (conditions.isNotModified(apiResponse.getLastModified())) {
+                return buildNotModifiedResponse(null, apiResponse.getLastModified());
+            }
+
+            return withMissingParts(buildResponse(sharedResponse, conditions, encoding), sharedResponse.missingParts);
+        });
+    }
+
+    private Response buildResponse(final SharedResponse sharedResponse, final ConditionalRequest conditions, final ContentEncoding encoding) {
+        final ApiResponse apiResponse = sharedResponse.apiResponse;
+        if (isStreamed(sharedResponse.elements)) {
+            return buildResponse(encoding.encode(getStreamingOutput(apiResponse.getObject())), null, apiResponse.getLastModified(), apiResponse.getPaging(), conditions, encoding);
+        }
+        final String body = sharedResponse.body.get();
+        final String eTag = sharedResponse.eTag.get();
+        if (encoding != ContentEncoding.IDENTITY) {
+            final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            if (isCompressible(bytes)) {
+                return buildResponse(encoding.encode(bytes), encoding.eTag(eTag), apiResponse.getLastModified(), apiResponse.getPaging(), conditions, encoding);
+            }
+        }
+        return buildResponse(body, eTag, apiResponse.getLastModified(), apiResponse.getPaging(), conditions, ContentEncoding.IDENTITY);
+    }
+
+    /**
+     * Returns the future response for the requested resource from the cache.
+     * <p/>
+     * If the response isn't cached yet or if it has been modified since it has been cached, the resource will be
+     * resolved and the rendered response will be put into the cache.
+     *
+     * @param resourceIdentifier the resource identifier of the request
+     * @param timeToLive         the time to live of the response in nanoseconds
+     * @param conditions         the conditions of the request
+     * @param encoding           the content coding accepted by the client
+     * @param context            the context of the request
+     * @return the future response
+     */
+    private CompletableFuture<Response> getCachedResponse(final ResourceIdentifier resourceIdentifier, final long timeToLive, final ConditionalRequest conditions,
+                                                          final ContentEncoding encoding, final ResolutionContext context) {
+        final String key = resourceIdentifier.normalized();
+        final Optional<CachedResponse> cachedResponse = cache.get(key);
+        if (!cachedResponse.isPresent()) {
+            return getResponseForCache(resourceIdentifier, key, timeToLive, conditions, encoding, context);
+        }
+
+        final Optional<Revalidator> revalidator = cachedResponse.get().getRevalidator();
+        if (!cacheConfiguration.isRevalidate() || !revalidator.isPresent()) {
+            return CompletableFuture.completedFuture(buildResponse(cachedResponse.get(), conditions, encoding));
+        }
+
+        return revalidator.get().isModified().toCompletableFuture()
+                .exceptionally(throwable -> {
+                    log.warn("could not revalidate cached response of resource '{}'", key, throwable);
+                    return true;
+                })
+                .thenCompose(modified -> modified ? getResponseForCache(resourceIdentifier, key, timeToLive, conditions, encoding, context)
+                        : CompletableFuture.completedFuture(buildResponse(cachedResponse.get(), conditions, encoding)));
+    }
+
+    /**
+     * Resolves the resource and puts the rendered response into the cache.
+     * <p/>
+     * Compressible responses will be cached compressed as well, so they won't be compressed on every hit.
+     *
+     * @param resourceIdentifier the resource identifier of the request
+     * @param key                the key of the response
+     * @param timeToLive         the time to live of the response in nanoseconds
+     * @param conditions         the conditions of the request
+     * @param encoding           the content coding accepted by the client
+     * @param context            the context of the request
+     * @return the future response
+     */
+    private CompletableFuture<Response> getResponseForCache(final ResourceIdentifier resourceIdentifier, final String key, final long timeToLive, final ConditionalRequest conditions,
+                                                            final ContentEncoding encoding, final ResolutionContext context) {
+        return getSharedResponse(resourceIdentifier, context).thenApply(sharedResponse -> {
+            final ApiResponse apiResponse = sharedResponse.apiResponse;
+            if (apiResponse == null || apiResponse.getObject() == null) {
+                return Response.status(Response.Status.NOT_FOUND).build();
+            }
+
+            if (isStreamed(sharedResponse.elements)) {
+                // responses exceeding the maximum number of elements won't be held in memory
+                return buildResponse(encoding.encode(getStreamingOutput(apiResponse.getObject())), null, apiResponse.getLastModified(), apiResponse.getPaging(), conditions, encoding);
+            }
+            if (!sharedResponse.missingParts.isEmpty()) {
+                // partial responses won't be cached, the next request may get the complete response
+                return withMissingParts(buildResponse(sharedResponse, conditions, encoding), sharedResponse.missingParts);
+            }
+
+            final byte[] bytes = sharedResponse.body.get().getBytes(StandardCharsets.UTF_8);
+            final byte[] compressedBytes = compression != null && isCompressible(bytes) ? ContentEncoding.GZIP.encode(bytes) : null;
+            final CachedResponse cachedResponse = new CachedResponse(bytes, sharedResponse.eTag.get(), apiResponse.getLastModified(), apiResponse.getPaging(), apiResponse.getRevalidator(),
+                    compressedBytes);
+            cache.put(key, cachedResponse, timeToLive, TimeUnit.NANOSECONDS);
+            return buildResponse(cachedResponse, conditions, encoding);
+        });
+    }
+
+    /**
+     * Returns the specified response listing the missing parts of a partial response in the {@link #MISSING_PARTS_HEADER} header.
+     *
+     * @param response     the response
+     * @param missingParts the hierarchies of the missing parts
+     * @return the response with the header or the response itself if it is complete
+     */
+    private static Response withMissingParts(final Response response, final Set<String> missingParts) {
+        if (missingParts.isEmpty()) {
+            return response;
+        }
+        return Response.fromResponse(response).header(MISSING_PARTS_HEADER, String.join(", ", missingParts)).build();
+    }
+
+    /**
+     * Returns {@code true} if the specified body is large enough to be compressed.
+     *
+     * @param body the body
+     * @return {@code true} if compression is enabled and the body exceeds the minimum size
+     */
+    private boolean isCompressible(final byte[] body) {
+        return compression != null && body.length >= compression.getMinimumSize().toBytes();
+    }
+
+    /**
+     * Returns {@code true} if the response of the request will be streamed to the client.
+     * <p/>
+     * Responses will be streamed if streaming is enabled or if the resolvers returned more elements than the streaming
+     * threshold, e.g. unpaged groups without any limit.
+     *
+     * @param elements the number of elements resolved for the response
+     * @return {@code true} if the response will be streamed
+     */
+    private boolean isStreamed(final int elements) {
+        return streaming || (streamingThreshold > 0 && elements > streamingThreshold);
+    }
+
+    /**
+     * Returns the time to live of the response for the specified resource identifier.
+     * <p/>
+     * The time to live is the minimum time to live of all resolvers involved in the resolution, see {@link CacheConfiguration}.
+     *
+     * @param resourceIdentifier the resource identifier of the request
+     * @return the time to live in nanoseconds or {@code 0} if the response must not be cached
+     */
+    private long getTimeToLive(final ResourceIdentifier resourceIdentifier) {
+        long timeToLive = Long.MAX_VALUE;
+        ResolverIndex.Node node = resolverIndex.root();
+        for (int level = 0; level < resourceIdentifier.completeDepth(); level++) {
+            node = node.child(resourceIdentifier.hierarchySegment(level));
+            if (node == ResolverIndex.Node.EMPTY) {
+                return 0;
+            }
+            timeToLive = Math.min(timeToLive, getTimeToLive(node));
+        }
+
+        if (node.groupResolver().isPresent()) {
+            timeToLive = getTimeToLive(node, resourceIdentifier.extensions(), timeToLive);
+        }
+        return timeToLive;
+    }
+
+    /**
+     * Returns the minimum of the specified time to live and the time to live of all shown extensions and sub-groups.
+     *
+     * @param node       the index node of the group
+     * @param extensions the names of the shown extensions and sub-groups
+     * @param timeToLive the time to live so far in nanoseconds
+     * @return the time to live in nanoseconds
+     */
+    private long getTimeToLive(final ResolverIndex.Node node, final Collection<String> extensions, final long timeToLive) {
+        long minimumTimeToLive = timeToLive;
+        for (final String extension : extensions) {
+            final ResolverIndex.Node child = node.child(extension);
+            if (child == ResolverIndex.Node.EMPTY) {
+                continue;
+            }
+
+            minimumTimeToLive = Math.min(minimumTimeToLive, getTimeToLive(child));
+            if (child.groupResolver().isPresent()) {
+                // the same extensions and sub-groups will be shown for all elements of the sub-group
+                minimumTimeToLive = getTimeToLive(child, extensions, minimumTimeToLive);
+            }
+        }
+        return minimumTimeToLive;
+    }
+
+    private long getTimeToLive(final ResolverIndex.Node node) {
+        final Duration timeToLive = cacheConfiguration.getTimeToLive().get(node.path());
+        return (timeToLive != null ? timeToLive : cacheConfiguration.getDefaultTimeToLive()).toNanoseconds();
+    }
+
+    private Response buildResponse(final CachedResponse cachedResponse, final ConditionalRequest conditions, final ContentEncoding encoding) {
+        if (encoding == ContentEncoding.GZIP && cachedResponse.getCompressedBody() != null) {
+            return buildResponse(cachedResponse.getCompressedBody(), encoding.eTag(cachedResponse.getETag()), cachedResponse.getLastModified(), cachedResponse.getPaging(), conditions,
+                    encoding);
+        }
+        return buildResponse(cachedResponse.getBody(), cachedResponse.getETag(), cachedResponse.getLastModified(), cachedResponse.getPaging(), conditions, ContentEncoding.IDENTITY);
+    }
+
+    /**
+     * Builds the response for the specified entity.
+     *
+     * @param entity       the body
+     * @param eTag         the entity tag of the body or {@code null} if unknown
+     * @param lastModified the date of the last modification of the resource
+     * @param paging       the paging of the resource
+     * @param conditions   the conditions of the request
+     * @param encoding     the content coding of the body
+     * @return the response
+     */
+    private Response buildResponse(final Object entity, final String eTag, final ZonedDateTime lastModified, final Optional<ApiResourcePaging> paging,
+                                   final ConditionalRequest conditions, final ContentEncoding encoding) {
+        if (conditions.isNotModified(eTag, lastModified)) {
+            return buildNotModifiedResponse(eTag, lastModified);
+        }
+
+        final Response.ResponseBuilder responseBuilder = Response.ok(entity);
+        if (compression != null) {
+            responseBuilder.header("Vary", "Accept-Encoding");
+        }
+        if (encoding.coding() != null) {
+            responseBuilder.header("Content-Encoding", encoding.coding());
+        }
+        if (paging.isPresent()) {
+            responseBuilder.header("Accept-Ranges", paging.get().getAcceptRanges());
+            final String contentRange = paging.get().getContentRange();
+            if (contentRange != null) {
+                responseBuilder.header("Content-Range", contentRange);
+            }
+            final String estimatedTotal = paging.get().getEstimatedTotal();
+            if (estimatedTotal != null) {
+                responseBuilder.header(TOTAL_ESTIMATE_HEADER, estimatedTotal);
+            }
+        }
+        if (eTag != null) {
+            responseBuilder.header("ETag", eTag);
+        }
+        responseBuilder.header("Last-Modified", lastModified.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+        return responseBuilder.build();
+    }
+
+    private static Response buildNotModifiedResponse(final String eTag, final ZonedDateTime lastModified) {
+        final Response.ResponseBuilder responseBuilder = Response.notModified();
+        if (eTag != null) {
+            responseBuilder.header("ETag", eTag);
+        }
+        responseBuilder.header("Last-Modified", lastModified.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+        return responseBuilder.build();
+    }
+
+    /**
+     * Returns the entity writing the specified JSON structure directly to the response stream.
+     * <p/>
+     * The elements of groups are rendered not before they are written (see {@link LazyJsonArray}), so the
+     * complete response will never exist in memory, neither as JSON structure nor as string.
+     *
+     * @param jsonResponse the JSON structure to write
+     * @return the streaming entity
+     */
+    private static StreamingOutput getStreamingOutput(final JsonStructure jsonResponse) {
+        return outputStream -> {
+            // the writer is backed by a generator and writes every value as soon as it has been rendered
+            try (final JsonWriter writer = Json.createWriter(outputStream)) {
+                writer.write(jsonResponse);
+            }
+        };
+    }
+
+    /**
+     * Returns the date of the last modification of the resource without resolving it completely.
+     * <p/>
+     * The elements of the parent scopes will be resolved, the resource itself will only be checked by the freshness
+     * hooks of its resolver. If the date can't be determined, an empty optional will be returned, e.g. if the resolver
+     * doesn't implement the hook or if extensions or sub-groups are shown.
+     *
+     * @param resourceIdentifier the resource identifier of the request
+     * @param parent             the parent element or {@code null} at the root of the resource graph
+     * @param context            the context of the request
+     * @return the future optional date of the last modification
+     * @see GroupResolver#lastModified(Element, Filters)
+     * @see net.oneandone.concierge.api.resolver.ExtensionResolver#lastModified(Element)
+     */
+    private CompletableFuture<Optional<ZonedDateTime>> getLastModified(final ResourceIdentifier resourceIdentifier, final Element parent, final ResolutionContext context) {
+        final ResolverIndex.Node node = resolverIndex.find(resourceIdentifier);
+
+        if (node.groupResolver().isPresent()) {
+            final AsyncGroupResolver groupResolver = node.groupResolver().get();
+            final Filters filters = getFilters(resourceIdentifier, groupResolver);
+            if (!resourceIdentifier.hasNextScope() && !resourceIdentifier.extensions().isEmpty()) {
+                return CompletableFuture.completedFuture(Optional.empty());
+            }
+
+            if (!resourceIdentifier.hasNextScope() && !resourceIdentifier.hasElementIdentifier()) {
+                return context.lastModified(groupResolver, parent, filters);
+            }
+
+            return context.elements(groupResolver, parent, filters).thenCompose(group -> {
+                if (group == null || group.elements().isEmpty()) {
+                    return CompletableFuture.completedFuture(Optional.empty());
+                }
+
+                final Element element = group.elements().get(0);
+                if (resourceIdentifier.hasNextScope()) {
+                    return getLastModified(resourceIdentifier.next(), element, context);
+                }
+                return CompletableFuture.completedFuture(Optional.ofNullable(element.lastModified()));
+            });
+        }
+
+        final List<AsyncExtensionResolver> extensionResolvers = node.extensionResolvers();
+        if (parent != null && !extensionResolvers.isEmpty()) {
+            return context.lastModified(extensionResolvers.get(0), parent);
+        }
+        return CompletableFuture.completedFuture(Optional.empty());
+    }
+
+    /**
+     * Returns the filters of the current scope of the resource identifier for the specified group resolver.
+     * <p/>
+     * The requested page size of a paged group will be limited to the maximum page size of the resolver and to the
+     * configured maximum page size, invalid page sizes will be replaced by the default page size.
+     *
+     * @param resourceIdentifier the resource identifier
+     * @param groupResolver      the group resolver of the current scope
+     * @return the filters
+     */
+    private Filters getFilters(final ResourceIdentifier resourceIdentifier, final GroupResolver groupResolver) {
+        final Filters filters = resourceIdentifier.filters();
+        if (groupResolver.defaultPageSize() <= 0) {
+            return filters;
+        }
+
+        int maximumPageSize = groupResolver.maximumPageSize() > 0 ? groupResolver.maximumPageSize() : Integer.MAX_VALUE;
+        if (this.maximumPageSize > 0) {
+            maximumPageSize = Math.min(maximumPageSize, this.maximumPageSize);
+        }
+
+        final Optional<CursorFilter> cursorFilter = filters.get(CursorFilter.class);
+        final Optional<PageFilter> pageFilter = filters.get(PageFilter.class);
+        final OptionalInt requestedPerPage = cursorFilter.isPresent() ? cursorFilter.get().getPerPage() : pageFilter.map(PageFilter::getPerPage).orElse(OptionalInt.empty());
+        final int perPage = requestedPerPage.isPresent() && requestedPerPage.getAsInt() > 0 ? requestedPerPage.getAsInt() : groupResolver.defaultPageSize();
+        if (perPage <= maximumPageSize && perPage == requestedPerPage.orElse(groupResolver.defaultPageSize())) {
+            return filters;
+        }
+
+        final OptionalInt limitedPerPage = OptionalInt.of(Math.min(perPage, maximumPageSize));
+        if (cursorFilter.isPresent()) {
+            return filters.with(new CursorFilter(cursorFilter.get().getCursor(), limitedPerPage));
+        }
+        return filters.with(new PageFilter(pageFilter.map(PageFilter::getPage).orElse(1), limitedPerPage));
+    }
+
+    /**
+     * Resolves the resource or joins the resolution of an identical concurrent request.
+     * <p/>
+     * Requests are identical if their {@link ResourceIdentifier#normalized() normalized resource identifiers} are equal,
+     * the conditions and the encoding of a request are applied to the shared response afterwards. Traced requests will
+     * always be resolved on their own.
+     *
+     * @param resourceIdentifier the resource identifier of the request
+     * @param context            the context of the request
+     * @return the future shared response
+     */
+    private CompletableFuture<SharedResponse> getSharedResponse(final ResourceIdentifier resourceIdentifier, final ResolutionContext context) {
+        final Supplier<CompletableFuture<SharedResponse>> resolution = () -> getResponse(resourceIdentifier, context)
+                .thenApply(apiResponse -> new SharedResponse(apiResponse, context.elements(), context.missingParts()));
+        if (requests == null || context.trace().isPresent()) {
+            return resolution.get();
+        }
+        return requests.share(resourceIdentifier.normalized(), resolution);
     }
 
     /**
      * Creates a response for the specified resourceIdentifier.
      *
      * @param resourceIdentifier the URI
-     * @return the response or null
+     * @param context            the context of the request
+     * @return the future response or null
      */
-    private ApiResponse getResponse(final ResourceIdentifier resourceIdentifier) {
+    private CompletableFuture<ApiResponse> getResponse(final ResourceIdentifier resourceIdentifier, final ResolutionContext context) {
         // return root groups
         if (resourceIdentifier.empty()) {
-            final List<String> rootGroups = groupResolvers.stream().filter(r -> r.hierarchy().length == 1).map(GroupResolver::name).collect(Collectors.toList());
-            return ApiResponse.create(getLinks(resourceIdentifier, rootGroups, Collections.emptyList()), ZonedDateTime.now());
+            return CompletableFuture.completedFuture(ApiResponse.create(resolverIndex.root().links().render("", null), ZonedDateTime.now()));
         }
 
-        return getResponse(resourceIdentifier, null);
+        return getResponse(resourceIdentifier, null, context);
     }
 
     /**
      * Returns the JSON representation for the specified {@code addresses} wrapped in a {@link ApiResponse} or {@code null} if no resource could be found for the specified address.
      *
      * @param parent     the parent element or {@code null} at the root of the resource graph
-     * @return the response or {@code null}
+     * @param context    the context of the request
+     * @return the future response or {@code null}
      */
-    private ApiResponse getResponse(final ResourceIdentifier resourceIdentifier, final Element parent) {
-        final String[] resolverHierarchy = resourceIdentifier.hierarchy();
+    private CompletableFuture<ApiResponse> getResponse(final ResourceIdentifier resourceIdentifier, final Element parent, final ResolutionContext context) {
+        final ResolverIndex.Node node = resolverIndex.find(resourceIdentifier);
 
-        final Optional<GroupResolver> resolver = groupResolvers.stream().filter(r -> Arrays.equals(r.hierarchy(), resolverHierarchy)).findAny();
-
-        if (resolver.isPresent()) {
-            return getGroupResponse(resourceIdentifier, parent, resolver.get());
+        if (node.groupResolver().isPresent()) {
+            return getGroupResponse(resourceIdentifier, parent, node, context);
         } else {
-            final Optional<ExtensionResolver> extensionResolver = extensionResolvers.stream().filter(r -> Arrays.equals(r.hierarchy(), resolverHierarchy)).findAny();
-            if (parent != null && extensionResolver.isPresent()) {
-                final Optional<Extension> extension = extensionResolver.get().resolve(parent);
-                if (extension.isPresent()) {
-                    return ApiResponse.create(extension.get().content(), extension.get().lastModified());
-                }
-                return null;
+            final List<AsyncExtensionResolver> extensionResolvers = node.extensionResolvers();
+            if (parent != null && !extensionResolvers.isEmpty()) {
+                return context.extension(extensionResolvers.get(0), parent).thenApply(extension -> {
+                    if (extension.isPresent()) {
+                        return ApiResponse.create(extension.get().content(), extension.get().lastModified());
+                    }
+                    return null;
+                });
             } else {
-                return null;
+                return CompletableFuture.completedFuture(null);
             }
         }
     }
@@ -137,42 +934,184 @@ public class GenericApiResource {
      * Returns the response for a {@link Group} or {@link Element}.
      *
      * @param parent     the parent element or {@code null} at the root of the resource graph
-     * @param resolver   the resolver for the group with the specified {@code groupName}
-     * @return the response
+     * @param node       the index node of the group
+     * @param context    the context of the request
+     * @return the future response
      */
-    private ApiResponse getGroupResponse(final ResourceIdentifier resourceIdentifier, Element parent, GroupResolver resolver) {
-        final Filters filters = resourceIdentifier.filters();
-        final Group group = resolver.elements(parent, filters);
+    private CompletableFuture<ApiResponse> getGroupResponse(final ResourceIdentifier resourceIdentifier, final Element parent, final ResolverIndex.Node node, final ResolutionContext context) {
+        final AsyncGroupResolver groupResolver = node.groupResolver().get();
+        final Filters filters = getFilters(resourceIdentifier, groupResolver);
+        return context.elements(groupResolver, parent, filters)
+                .thenCompose(group -> getGroupResponse(resourceIdentifier, resourceIdentifier.path(), node, group, filters, context).thenApply(response -> {
+                    if (response == null || resourceIdentifier.hasNextScope()) {
+                        return response;
+                    }
+                    // the revalidator will be called by later requests and must not share the results of this one
+                    return response.withRevalidator(() -> groupResolver.lastModifiedAsync(parent, filters)
+                            .thenApply(lastModified -> lastModified.isPresent() && lastModified.get().isAfter(group.lastModified())));
+                }));
+    }
 
-        final Multimap<Element, Extension> extensionMultimap = HashMultimap.create();
-        for (final String extension : resourceIdentifier.extensions()) {
-            final String[] extendedResolverHierarchy = resourceIdentifier.extendedHierarchy(extension);
-            final List<ExtensionResolver> extensionResolvers = this.extensionResolvers.stream().filter(e -> Arrays.equals(e.hierarchy(), extendedResolverHierarchy)).collect(Collectors.toList());
-            for (final ExtensionResolver extensionResolver : extensionResolvers) {
-                final Map<Element, Extension> resolvedExtensions = extensionResolver.resolve(group);
-                for (final Map.Entry<Element, Extension> elementExtensionEntry : resolvedExtensions.entrySet()) {
-                    extensionMultimap.put(elementExtensionEntry.getKey(), elementExtensionEntry.getValue());
+    /**
+     * Returns the response for an already resolved {@link Group} or {@link Element}.
+     * <p/>
+     * If the resource identifier has another scope, the request will be forwarded to the first element of the group.
+     * Otherwise the extensions and sub-groups requested by the {@code show} query parameter will be resolved concurrently
+     * before the response will be rendered.
+     *
+     * @param path    the path of the group for the links of the response
+     * @param node    the index node of the group
+     * @param group   the resolved group
+     * @param filters the filters used to resolve the group
+     * @param context the context of the request
+     * @return the future response or {@code null}
+     */
+    private CompletableFuture<ApiResponse> getGroupResponse(final ResourceIdentifier resourceIdentifier, final String path, final ResolverIndex.Node node, final Group group,
+                                                            final Filters filters, final ResolutionContext context) {
+        if (group == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        if (resourceIdentifier.hasNextScope()) {
+            if (group.elements().isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            final Element element = group.elements().get(0);
+            return getResponse(resourceIdentifier.next(), element, context).thenApply(response -> {
+                final ApiResponse forwardedResponse = ApiResponse.create(response != null ? response.getObject() : null, element.lastModified());
+                if (response != null && response.getRevalidator().isPresent()) {
+                    return forwardedResponse.withRevalidator(response.getRevalidator().get());
                 }
+                return forwardedResponse;
+            });
+        }
+
+        final List<Element> elements = resourceIdentifier.hasElementIdentifier() && !group.elements().isEmpty() ? group.elements().subList(0, 1) : group.elements();
+
+        // extensions and sub-groups are independent of each other and will be resolved concurrently
+        final List<CompletableFuture<Map<Element, Extension>>> extensionFutures = new ArrayList<>();
+        for (final String extension : resourceIdentifier.extensions()) {
+            for (final AsyncExtensionResolver extensionResolver : node.child(extension).extensionResolvers()) {
+                extensionFutures.add(getExtensions(extensionResolver, group, context).exceptionally(throwable -> getMissingExtensions(throwable, node.child(extension), context)));
             }
         }
+        final List<PendingSubgroup> pendingSubgroups = resolveSubgroups(resourceIdentifier, node, elements, context);
+
+        final List<CompletableFuture<?>> futures = new ArrayList<>(extensionFutures);
+        pendingSubgroups.forEach(pendingSubgroup -> futures.add(pendingSubgroup.groups));
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]))
+                .thenCompose(ignored -> getSubgroups(resourceIdentifier, path, pendingSubgroups, elements, context))
+                .thenApply(subgroupTable -> {
+                    final Multimap<Element, Extension> extensionMultimap = HashMultimap.create();
+                    for (final CompletableFuture<Map<Element, Extension>> extensionFuture : extensionFutures) {
+                        for (final Map.Entry<Element, Extension> elementExtensionEntry : extensionFuture.join().entrySet()) {
+                            extensionMultimap.put(elementExtensionEntry.getKey(), elementExtensionEntry.getValue());
+                        }
+                    }
+                    return getGroupResponse(resourceIdentifier, path, node, group, filters, extensionMultimap, subgroupTable);
+                });
+    }
+
+    /**
+     * Returns the future extensions of all elements of the group.
+     * <p/>
+     * Groups larger than the {@link net.oneandone.concierge.api.resolver.ExtensionResolver#maximumBatchSize() maximum
+     * batch size} of the resolver will be split into batches, which will be resolved concurrently.
+     *
+     * @param resolver the extension resolver
+     * @param group    the group
+     * @param context  the context of the request
+     * @return the future extensions by their parent elements
+     */
+    private static CompletableFuture<Map<Element, Extension>> getExtensions(final AsyncExtensionResolver resolver, final Group group, final ResolutionContext context) {
+        final int batchSize = resolver.maximumBatchSize();
+        if (batchSize <= 0 || group.elements().size() <= batchSize) {
+            return context.extensions(resolver, group);
+        }
+
+        final List<CompletableFuture<Map<Element, Extension>>> batches = new ArrayList<>();
+        for (final List<Element> batch : Lists.partition(group.elements(), batchSize)) {
+            batches.add(context.extensions(resolver, Group.withElements(group.address(), batch, group.total(), group.lastModified())));
+        }
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[batches.size()])).thenApply(ignored -> {
+            final Map<Element, Extension> extensions = new HashMap<>(group.elements().size());
+            batches.forEach(batch -> extensions.putAll(batch.join()));
+            return extensions;
+        });
+    }
+
+    /**
+     * Returns no extensions if the resolver of optional extensions exceeded its limits, so the response will be returned
+     * without them, and records them as missing parts of the response.
+     *
+     * @param throwable the failure of the extension resolver
+     * @param node      the index node of the extensions
+     * @param context   the context of the request
+     * @return an empty map
+     * @throws CompletionException if the resolver failed for any other reason
+     */
+    private static Map<Element, Extension> getMissingExtensions(final Throwable throwable, final ResolverIndex.Node node, final ResolutionContext context) {
+        if (!ResolverLimits.isUnavailable(throwable)) {
+            throw throwable instanceof CompletionException ? (CompletionException) throwable : new CompletionException(throwable);
+        }
+        log.warn("extensions '{}' will be missing: {}", node.path(), throwable.getMessage());
+        context.missing(node.path());
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Renders the response for a {@link Group} or {@link Element} with all of its extensions and sub-groups resolved.
+     *
+     * @param path              the path of the group for the links of the response
+     * @param node              the index node of the group
+     * @param group             the resolved group
+     * @param filters           the filters used to resolve the group
+     * @param extensionMultimap the resolved extensions of the elements
+     * @param subgroupTable     the resolved sub-groups of the elements
+     * @return the response or {@code null}
+     */
+    private ApiResponse getGroupResponse(final ResourceIdentifier resourceIdentifier, final String path, final ResolverIndex.Node node, final Group group, final Filters filters,
+                                         final Multimap<Element, Extension> extensionMultimap, final Table<Element, String, JsonStructure> subgroupTable) {
+        final GroupResolver resolver = node.groupResolver().get();
+        final Set<String> fields = filters.get(FieldsFilter.class).map(FieldsFilter::getFields).orElse(null);
 
         if (resourceIdentifier.hasElementIdentifier()) {
-            if (group != null && !group.elements().isEmpty()) {
+            if (!group.elements().isEmpty()) {
                 final Element element = group.elements().get(0);
-                return ApiResponse.create(getExtendedJsonStructure(resourceIdentifier, element, extensionMultimap.get(element)), element.lastModified());
+                return ApiResponse.create(getExtendedJsonStructure(resourceIdentifier, path, node, element, extensionMultimap.get(element), subgroupTable.row(element), fields), element.lastModified());
             } else {
                 return null;
             }
         } else {
-            final JsonObjectBuilder objectBuilder = Json.createObjectBuilder();
+            final JsonObjectBuilder objectBuilder = JSON_BUILDERS.createObjectBuilder();
 
-            final JsonArrayBuilder arrayBuilder = Json.createArrayBuilder();
-            for (final Element element : group.elements()) {
-                arrayBuilder.add(getExtendedJsonStructure(resourceIdentifier, element, extensionMultimap.get(element)));
-            }
+            // the elements will be rendered not before the response is written
+            objectBuilder.add(node.name(), new LazyJsonArray<>(group.elements(),
+                    element -> getExtendedJsonStructure(resourceIdentifier, path, node, element, extensionMultimap.get(element), subgroupTable.row(element), fields)));
+            final Optional<CursorFilter> cursorFilter = filters.get(CursorFilter.class);
+            if (resolver.defaultPageSize() > 0 && (cursorFilter.isPresent() || group.nextCursor().isPresent())) {
+                // pages resolved by cursor have no known offset and can only be followed forward
+                final int perPage;
+                final Optional<PageFilter> pageFilter = filters.get(PageFilter.class);
+                if (cursorFilter.isPresent()) {
+                    perPage = cursorFilter.get().getPerPage().orElse(resolver.defaultPageSize());
+                } else if (pageFilter.isPresent()) {
+                    perPage = pageFilter.get().getPerPage().orElse(resolver.defaultPageSize());
+                } else {
+                    perPage = resolver.defaultPageSize();
+                }
+
+                final LinkTemplate.PageLinks pageLinks = new LinkTemplate.PageLinks(path);
+                final JsonObjectBuilder linksBuilder = JSON_BUILDERS.createObjectBuilder();
+                linksBuilder.add("first", pageLinks.first(perPage));
+                if (group.nextCursor().isPresent()) {
+                    linksBuilder.add("next", pageLinks.cursor(group.nextCursor().get(), perPage));
+                }
 
-            objectBuilder.add(resolver.name(), arrayBuilder.build());
-            if (resolver.defaultPageSize() > 0) {
+                objectBuilder.add("links", linksBuilder.build());
+                return ApiResponse.create(objectBuilder.build(), group.lastModified());
+            } else if (resolver.defaultPageSize() > 0) {
                 final int page;
                 final int perPage;
                 final Optional<PageFilter> pageFilter = filters.get(PageFilter.class);
@@ -184,21 +1123,27 @@ public class GenericApiResource {
                     perPage = resolver.defaultPageSize();
                 }
 
-                final ApiResourcePaging paging = ApiResourcePaging.builder().group(resourceIdentifier.groupIdentifier()).page(page).perPage(perPage).total(group.total()).build();
-                final JsonObjectBuilder linksBuilder = Json.createObjectBuilder();
+                final ApiResourcePaging paging = ApiResourcePaging.builder().group(resourceIdentifier.groupIdentifier()).page(page).perPage(perPage).total(group.total())
+                        .elements(group.elements().size()).estimated(group.isTotalEstimated()).build();
+                final JsonObjectBuilder linksBuilder = JSON_BUILDERS.createObjectBuilder();
 
-                String linkPattern = "/" + Arrays.stream(resourceIdentifier.get()).collect(Collectors.joining("/")) + "?page=%d&perPage=%d";
+                final LinkTemplate.PageLinks pageLinks = new LinkTemplate.PageLinks(path);
 
-                linksBuilder.add("first", String.format(linkPattern, 1, perPage));
+                linksBuilder.add("first", pageLinks.page(1, perPage));
                 if (page > 1) {
-                    linksBuilder.add("previous", String.format(linkPattern, page - 1, perPage));
+                    linksBuilder.add("previous", pageLinks.page(page - 1, perPage));
                 }
 
-                int lastPage = (group.total() / perPage) + 1;
-                if (page < lastPage) {
-                    linksBuilder.add("next", String.format(linkPattern, page + 1, perPage));
+                if (paging.isTotalKnown()) {
+                    int lastPage = (group.total() / perPage) + 1;
+                    if (page < lastPage) {
+                        linksBuilder.add("next", pageLinks.page(page + 1, perPage));
+                    }
+                    linksBuilder.add("last", pageLinks.page(lastPage, perPage));
+                } else if (group.elements().size() >= perPage) {
+                    // without an exact total a full page is assumed to have a successor
+                    linksBuilder.add("next", pageLinks.page(page + 1, perPage));
                 }
-                linksBuilder.add("last", String.format(linkPattern, lastPage, perPage));
 
                 objectBuilder.add("links", linksBuilder.build());
                 return ApiResponse.create(objectBuilder.build(), group.lastModified(), paging);
@@ -208,91 +1153,176 @@ public class GenericApiResource {
     }
 
     /**
-     * Returns the {@link JsonStructure} for the parent element if {@code restOfUri} is empty or else forwards the request to
-     * {@link #getResponse(ResourceIdentifier, Element)} with the current parent element and selects recursively the result of it.
+     * Returns the {@link JsonStructure} for the parent element with its resolved extensions and sub-groups.
      *
+     * @param path               the path of the group of the parent element or of the parent element itself
+     * @param node               the index node of the group of the parent element
      * @param parent             the parent element
      * @param resolvedExtensions a list of all resolved extensions so far
-     * @return the JSON representation for the parent element or the result of a forwarded request
+     * @param resolvedSubgroups  the resolved sub-groups of the parent element by their name
+     * @param fields             the names of the fields of the content of the parent element to render or {@code null} for all fields
+     * @return the JSON representation for the parent element
      */
-    private JsonStructure getExtendedJsonStructure(final ResourceIdentifier resourceIdentifier, final Element parent, final Collection<Extension> resolvedExtensions) {
-        if (resourceIdentifier.hasNextScope()) {
-            final ApiResponse response = getResponse(resourceIdentifier.next(), parent);
-            if (response != null) {
-                return response.getObject();
-            }
-            return null;
-        } else {
-            final ResourceIdentifier fullResourceIdentifier;
-            if (resourceIdentifier.hasElementIdentifier()) {
-                fullResourceIdentifier = resourceIdentifier;
-            } else {
-                fullResourceIdentifier = resourceIdentifier.extend(parent);
-            }
+    private JsonStructure getExtendedJsonStructure(final ResourceIdentifier resourceIdentifier, final String path, final ResolverIndex.Node node, final Element parent,
+                                                   final Collection<Extension> resolvedExtensions, final Map<String, JsonStructure> resolvedSubgroups,
+                                                   final Set<String> fields) {
+        // the content of the element will not be copied, the additional entries will be put on top of it
+        final Map<String, JsonValue> additionalEntries = new LinkedHashMap<>();
 
-            final JsonObjectBuilder objectBuilder = Json.createObjectBuilder();
+        // add resolved extensions to element
+        for (final Extension extension : resolvedExtensions) {
+            additionalEntries.put(extension.address(), extension.content());
+        }
 
-            // clone JSON element
-            final JsonObject jsonObject = parent.content();
-            for (final String key : jsonObject.keySet()) {
-                objectBuilder.add(key, jsonObject.get(key));
+        // add resolved sub-groups to element
+        for (final String extension : resourceIdentifier.extensions()) {
+            final JsonStructure subgroup = resolvedSubgroups.get(extension);
+            if (subgroup != null) {
+                additionalEntries.put(extension, subgroup);
             }
+        }
 
-            // add resolved extensions to cloned element
-            for (final Extension extension : resolvedExtensions) {
-                objectBuilder.add(extension.address(), extension.content());
-            }
+        final LinkTemplate links = node.links();
+        if (!links.isEmpty()) {
+            additionalEntries.put("links", links.render(path, resourceIdentifier.hasElementIdentifier() ? null : parent.address()));
+        }
 
-            // check for missing extensions and add them
-            for (final String extension : fullResourceIdentifier.extensions()) {
-                final ResourceIdentifier extendedIdentifier = fullResourceIdentifier.extend(extension);
+        if (additionalEntries.isEmpty() && fields == null) {
+            return parent.content();
+        }
+        return new OverlayJsonObject(parent.content(), additionalEntries, fields);
+    }
 
-                final Optional<GroupResolver> resolver = groupResolvers.stream().filter(r -> Arrays.equals(r.hierarchy(), extendedIdentifier.completeHierarchy())).findAny();
-                if (resolver.isPresent()) {
-                    final ApiResponse apiResponse = getResponse(extendedIdentifier);
-                    if (apiResponse != null && apiResponse.getObject() != null) {
-                        objectBuilder.add(extension, apiResponse.getObject());
-                    }
-                }
-            }
+    /**
+     * Starts the resolution of the sub-groups requested by the {@code show} query parameter for all specified elements at once.
+     * <p/>
+     * Every sub-group resolver will be called only once per group by {@link GroupResolver#groups(Collection, Filters)}
+     * instead of once per element.
+     *
+     * @param node     the index node of the group of the elements
+     * @param elements the elements of the current scope
+     * @param context  the context of the request
+     * @return the list of pending sub-groups
+     */
+    private List<PendingSubgroup> resolveSubgroups(final ResourceIdentifier resourceIdentifier, final ResolverIndex.Node node, final List<Element> elements, final ResolutionContext context) {
+        if (elements.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-            final List<String> availableSubgroups = getAvailableSubResolver(fullResourceIdentifier, groupResolvers);
-            final List<String> availableExtensions = getAvailableSubResolver(fullResourceIdentifier, extensionResolvers);
-            if (!availableSubgroups.isEmpty() || !availableExtensions.isEmpty()) {
-                objectBuilder.add("links", getLinks(fullResourceIdentifier, availableSubgroups, availableExtensions));
+        final List<PendingSubgroup> pendingSubgroups = new ArrayList<>();
+        for (final String extension : resourceIdentifier.extensions()) {
+            final ResolverIndex.Node subgroupNode = node.child(extension);
+            if (!subgroupNode.groupResolver().isPresent()) {
+                continue;
             }
 
-            return objectBuilder.build();
+            // the identifier and the filters of a sub-group don't depend on the address of the parent element
+            final ResourceIdentifier subgroupIdentifier = resourceIdentifier.subgroup(extension);
+            final AsyncGroupResolver groupResolver = subgroupNode.groupResolver().get();
+            final Filters filters = getFilters(subgroupIdentifier, groupResolver);
+            pendingSubgroups.add(new PendingSubgroup(extension, subgroupNode, subgroupIdentifier, filters, context.groups(groupResolver, elements, filters)));
         }
+        return pendingSubgroups;
     }
 
-    private static List<String> getAvailableSubResolver(final ResourceIdentifier resourceIdentifier, final List<? extends Resolver> resolvers) {
-        return resolvers.stream()
-                .filter(r -> r.hierarchy().length == resourceIdentifier.hierarchy().length + 1 && Arrays.equals(Arrays.copyOfRange(r.hierarchy(), 0, r.hierarchy().length - 1), resourceIdentifier.hierarchy()))
-                .map(r -> r.hierarchy()[r.hierarchy().length - 1])
-                .collect(Collectors.toList());
-    }
-
-    private static JsonObject getLinks(final ResourceIdentifier resourceIdentifier, final List<String> availableSubgroups, final List<String> availableExtensions) {
-        final JsonObjectBuilder linksBuilder = Json.createObjectBuilder();
+    /**
+     * Returns the future JSON representation of the resolved sub-groups.
+     *
+     * @param path             the path of the group of the elements or of the single element
+     * @param pendingSubgroups the completed sub-groups
+     * @param elements         the elements of the current scope
+     * @param context          the context of the request
+     * @return a future table of the elements and the names of their sub-groups to the JSON representation of the sub-groups
+     */
+    private CompletableFuture<Table<Element, String, JsonStructure>> getSubgroups(final ResourceIdentifier resourceIdentifier, final String path,
+                                                                                  final List<PendingSubgroup> pendingSubgroups, final List<Element> elements,
+                                                                                  final ResolutionContext context) {
+        if (pendingSubgroups.isEmpty()) {
+            return CompletableFuture.completedFuture(ImmutableTable.of());
+        }
 
-        if (!availableSubgroups.isEmpty()) {
-            final JsonObjectBuilder groupLinkBuilder = Json.createObjectBuilder();
-            for (final String availableSubgroup : availableSubgroups) {
-                groupLinkBuilder.add(availableSubgroup, "/" + Stream.concat(Arrays.stream(resourceIdentifier.get()), Stream.of(availableSubgroup)).collect(Collectors.joining("/")));
+        final Table<Element, String, CompletableFuture<ApiResponse>> responseTable = HashBasedTable.create();
+        for (final PendingSubgroup pendingSubgroup : pendingSubgroups) {
+            final Map<Element, Group> groups = pendingSubgroup.groups.join();
+            for (final Element element : elements) {
+                final Group group = groups.containsKey(element) ? groups.get(element) : Group.empty(pendingSubgroup.name);
+                final String subgroupPath = getElementPath(resourceIdentifier, path, element) + "/" + pendingSubgroup.name;
+                responseTable.put(element, pendingSubgroup.name, getGroupResponse(pendingSubgroup.identifier, subgroupPath, pendingSubgroup.node, group, pendingSubgroup.filters, context));
             }
-            linksBuilder.add("groups", groupLinkBuilder.build());
         }
 
-        if (!availableExtensions.isEmpty()) {
-            final JsonObjectBuilder extensionLinkBuilder = Json.createObjectBuilder();
-            for (final String availableExtension : availableExtensions) {
-                extensionLinkBuilder.add(availableExtension, "/" + Stream.concat(Arrays.stream(resourceIdentifier.get()), Stream.of(availableExtension)).collect(Collectors.joining("/")));
+        final Collection<CompletableFuture<ApiResponse>> responses = responseTable.values();
+        return CompletableFuture.allOf(responses.toArray(new CompletableFuture<?>[responses.size()])).thenApply(ignored -> {
+            final Table<Element, String, JsonStructure> subgroupTable = HashBasedTable.create();
+            for (final Table.Cell<Element, String, CompletableFuture<ApiResponse>> cell : responseTable.cellSet()) {
+                final ApiResponse apiResponse = cell.getValue().join();
+                if (apiResponse != null && apiResponse.getObject() != null) {
+                    subgroupTable.put(cell.getRowKey(), cell.getColumnKey(), apiResponse.getObject());
+                }
             }
-            linksBuilder.add("extensions", extensionLinkBuilder.build());
+            return subgroupTable;
+        });
+    }
+
+    /**
+     * Returns the path of the specified element of the current scope.
+     *
+     * @param resourceIdentifier the resource identifier of the current scope
+     * @param path               the path of the group of the element or of the element itself if the scope has an element identifier
+     * @param element            the element
+     * @return the path of the element
+     */
+    private static String getElementPath(final ResourceIdentifier resourceIdentifier, final String path, final Element element) {
+        return resourceIdentifier.hasElementIdentifier() ? path : path + "/" + element.address();
+    }
+
+    /** A resolved response which may be shared by concurrent identical requests, it will be rendered only once. */
+    private static class SharedResponse {
+
+        /** The response or {@code null} if the resource doesn't exist. */
+        private final ApiResponse apiResponse;
+
+        /** The number of elements resolved for the response. */
+        private final int elements;
+
+        /** The hierarchies of the optional parts missing in the response. */
+        private final Set<String> missingParts;
+
+        /** The rendered JSON representation of the response. */
+        private final Supplier<String> body;
+
+        /** The entity tag of the rendered JSON representation. */
+        private final Supplier<String> eTag;
+
+        private SharedResponse(final ApiResponse apiResponse, final int elements, final Set<String> missingParts) {
+            this.apiResponse = apiResponse;
+            this.elements = elements;
+            this.missingParts = missingParts;
+            this.body = Suppliers.memoize(() -> apiResponse.getObject().toString())::get;
+            this.eTag = Suppliers.memoize(() -> ConditionalRequest.eTag(body.get()))::get;
         }
 
-        return linksBuilder.build();
+    }
+
+    /** A sub-group of all elements of a group which is being resolved. */
+    @AllArgsConstructor
+    private static class PendingSubgroup {
+
+        /** The name of the sub-group. */
+        private final String name;
+
+        /** The index node of the sub-group. */
+        private final ResolverIndex.Node node;
+
+        /** The resource identifier of the sub-group shared by all parent elements, see {@link ResourceIdentifier#subgroup(String)}. */
+        private final ResourceIdentifier identifier;
+
+        /** The filters of the sub-group. */
+        private final Filters filters;
+
+        /** The future sub-groups per parent element. */
+        private final CompletableFuture<Map<Element, Group>> groups;
+
     }
 
 }
@@ -0,0 +1,75 @@
+package net.oneandone.concierge.resource;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Preconditions;
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Extension;
+import net.oneandone.concierge.api.Group;
+import net.oneandone.concierge.api.resolver.AsyncExtensionResolver;
+
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+/** Records the {@link ResolverMetrics metrics} of the calls of an {@link AsyncExtensionResolver}. */
+class InstrumentedExtensionResolver implements AsyncExtensionResolver {
+
+    /** The instrumented extension resolver. */
+    private final AsyncExtensionResolver extensionResolver;
+
+    private final ResolverMetrics metrics;
+    private final Timer resolveTimer;
+    private final Timer resolveGroupTimer;
+    private final Timer lastModifiedTimer;
+
+    /**
+     * Creates the instrumented view of the specified extension resolver.
+     *
+     * @param extensionResolver the extension resolver
+     * @param registry          the registry of the metrics
+     */
+    InstrumentedExtensionResolver(final AsyncExtensionResolver extensionResolver, final MetricRegistry registry) {
+        this.extensionResolver = Preconditions.checkNotNull(extensionResolver, "the extension resolver may not be null");
+        this.metrics = new ResolverMetrics(registry, "extension", extensionResolver.hierarchy());
+        this.resolveTimer = metrics.timer("resolve");
+        this.resolveGroupTimer = metrics.timer("resolveGroup");
+        this.lastModifiedTimer = metrics.timer("lastModified");
+    }
+
+    @Override
+    public String[] hierarchy() {
+        return extensionResolver.hierarchy();
+    }
+
+    @Override
+    public String name() {
+        return extensionResolver.name();
+    }
+
+    @Override
+    public int maximumBatchSize() {
+        return extensionResolver.maximumBatchSize();
+    }
+
+    @Override
+    public CompletionStage<Optional<Extension>> resolveAsync(final Element element) {
+        return metrics.record(resolveTimer, () -> extensionResolver.resolveAsync(element), extension -> extension.isPresent() ? 1 : 0);
+    }
+
+    @Override
+    public CompletionStage<Map<Element, Extension>> resolveAsync(final Group group) {
+        return metrics.record(resolveGroupTimer, () -> extensionResolver.resolveAsync(group), Map::size);
+    }
+
+    @Override
+    public CompletionStage<Optional<ZonedDateTime>> lastModifiedAsync(final Element element) {
+        return metrics.record(lastModifiedTimer, () -> extensionResolver.lastModifiedAsync(element), null);
+    }
+
+    @Override
+    public Optional<ZonedDateTime> lastModified(final Element element) {
+        return extensionResolver.lastModified(element);
+    }
+}
@@ -0,0 +1,93 @@
+package net.oneandone.concierge.resource;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Preconditions;
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Group;
+import net.oneandone.concierge.api.filter.Filter;
+import net.oneandone.concierge.api.filter.Filters;
+import net.oneandone.concierge.api.resolver.AsyncGroupResolver;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+/** Records the {@link ResolverMetrics metrics} of the calls of an {@link AsyncGroupResolver}. */
+class InstrumentedGroupResolver implements AsyncGroupResolver {
+
+    /** The instrumented group resolver. */
+    private final AsyncGroupResolver groupResolver;
+
+    private final ResolverMetrics metrics;
+    private final Timer elementsTimer;
+    private final Timer groupsTimer;
+    private final Timer lastModifiedTimer;
+
+    /**
+     * Creates the instrumented view of the specified group resolver.
+     *
+     * @param groupResolver the group resolver
+     * @param registry      the registry of the metrics
+     */
+    InstrumentedGroupResolver(final AsyncGroupResolver groupResolver, final MetricRegistry registry) {
+        this.groupResolver = Preconditions.checkNotNull(groupResolver, "the group resolver may not be null");
+        this.metrics = new ResolverMetrics(registry, "group", groupResolver.hierarchy());
+        this.elementsTimer = metrics.timer("elements");
+        this.groupsTimer = metrics.timer("groups");
+        this.lastModifiedTimer = metrics.timer("lastModified");
+    }
+
+    @Override
+    public String[] hierarchy() {
+        return groupResolver.hierarchy();
+    }
+
+    @Override
+    public String name() {
+        return groupResolver.name();
+    }
+
+    @Override
+    public int defaultPageSize() {
+        return groupResolver.defaultPageSize();
+    }
+
+    @Override
+    public int maximumPageSize() {
+        return groupResolver.maximumPageSize();
+    }
+
+    @Override
+    public boolean supports(final Class<? extends Filter> filterClass) {
+        return groupResolver.supports(filterClass);
+    }
+
+    @Override
+    public CompletionStage<Group> elementsAsync(final Element parent, final Filters filters) {
+        return metrics.record(elementsTimer, () -> groupResolver.elementsAsync(parent, filters), group -> group.elements().size());
+    }
+
+    @Override
+    public CompletionStage<Map<Element, Group>> groupsAsync(final Collection<Element> parents, final Filters filters) {
+        return metrics.record(groupsTimer, () -> groupResolver.groupsAsync(parents, filters), groups -> {
+            int elements = 0;
+            for (final Group group : groups.values()) {
+                elements += group.elements().size();
+            }
+            return elements;
+        });
+    }
+
+    @Override
+    public CompletionStage<Optional<ZonedDateTime>> lastModifiedAsync(final Element parent, final Filters filters) {
+        return metrics.record(lastModifiedTimer, () -> groupResolver.lastModifiedAsync(parent, filters), null);
+    }
+
+    @Override
+    public Optional<ZonedDateTime> lastModified(final Element parent, final Filters filters) {
+        return groupResolver.lastModified(parent, filters);
+    }
+}
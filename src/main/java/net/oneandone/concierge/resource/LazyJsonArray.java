@@ -0,0 +1,147 @@
+package net.oneandone.concierge.resource;
+
+import com.google.common.base.Preconditions;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import javax.json.JsonWriter;
+import java.io.StringWriter;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A {@link JsonArray} view of a list which renders the JSON value of an item not before it is accessed.
+ * <p/>
+ * Writing the array with a {@link javax.json.stream.JsonGenerator} will render, write and forget one item after another,
+ * so the JSON representation of the whole list will never exist in memory at once. The values will be rendered again on
+ * every access, the array should therefore be written only once.
+ *
+ * @param <T> the type of the items
+ */
+class LazyJsonArray<T> extends AbstractList<JsonValue> implements JsonArray {
+
+    /** The items of the array. */
+    private final List<T> items;
+
+    /** The function rendering the JSON value of an item. */
+    private final Function<? super T, ? extends JsonValue> renderer;
+
+    /**
+     * Creates the array for the specified items.
+     *
+     * @param items    the items
+     * @param renderer the function rendering the JSON value of an item
+     */
+    LazyJsonArray(final List<T> items, final Function<? super T, ? extends JsonValue> renderer) {
+        Preconditions.checkNotNull(items, "the items may not be null");
+        Preconditions.checkNotNull(renderer, "the renderer may not be null");
+
+        this.items = items;
+        this.renderer = renderer;
+    }
+
+    @Override
+    public JsonValue get(final int index) {
+        final JsonValue value = renderer.apply(items.get(index));
+        return value != null ? value : JsonValue.NULL;
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    @Override
+    public JsonObject getJsonObject(final int index) {
+        return (JsonObject) get(index);
+    }
+
+    @Override
+    public JsonArray getJsonArray(final int index) {
+        return (JsonArray) get(index);
+    }
+
+    @Override
+    public JsonNumber getJsonNumber(final int index) {
+        return (JsonNumber) get(index);
+    }
+
+    @Override
+    public JsonString getJsonString(final int index) {
+        return (JsonString) get(index);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <V extends JsonValue> List<V> getValuesAs(final Class<V> clazz) {
+        return (List<V>) this;
+    }
+
+    @Override
+    public String getString(final int index) {
+        return getJsonString(index).getString();
+    }
+
+    @Override
+    public String getString(final int index, final String defaultValue) {
+        final JsonValue value = get(index);
+        return value instanceof JsonString ? ((JsonString) value).getString() : defaultValue;
+    }
+
+    @Override
+    public int getInt(final int index) {
+        return getJsonNumber(index).intValue();
+    }
+
+    @Override
+    public int getInt(final int index, final int defaultValue) {
+        final JsonValue value = get(index);
+        return value instanceof JsonNumber ? ((JsonNumber) value).intValue() : defaultValue;
+    }
+
+    @Override
+    public boolean getBoolean(final int index) {
+        final JsonValue value = get(index);
+        if (value == JsonValue.TRUE) {
+            return true;
+        } else if (value == JsonValue.FALSE) {
+            return false;
+        }
+        throw new ClassCastException("value at index " + index + " is not a boolean");
+    }
+
+    @Override
+    public boolean getBoolean(final int index, final boolean defaultValue) {
+        final JsonValue value = get(index);
+        if (value == JsonValue.TRUE) {
+            return true;
+        } else if (value == JsonValue.FALSE) {
+            return false;
+        }
+        return defaultValue;
+    }
+
+    @Override
+    public boolean isNull(final int index) {
+        return get(index) == JsonValue.NULL;
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.ARRAY;
+    }
+
+    @Override
+    public String toString() {
+        final StringWriter stringWriter = new StringWriter();
+        try (final JsonWriter jsonWriter = Json.createWriter(stringWriter)) {
+            jsonWriter.writeArray(this);
+        }
+        return stringWriter.toString();
+    }
+}
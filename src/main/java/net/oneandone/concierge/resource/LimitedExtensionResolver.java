@@ -0,0 +1,68 @@
+package net.oneandone.concierge.resource;
+
+import com.google.common.base.Preconditions;
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Extension;
+import net.oneandone.concierge.api.Group;
+import net.oneandone.concierge.api.resolver.AsyncExtensionResolver;
+
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+/** Makes the calls of an {@link AsyncExtensionResolver} within its {@link ResolverLimits limits}. */
+class LimitedExtensionResolver implements AsyncExtensionResolver {
+
+    /** The limited extension resolver. */
+    private final AsyncExtensionResolver extensionResolver;
+
+    /** The limits of the calls. */
+    private final ResolverLimits limits;
+
+    /**
+     * Creates the limited view of the specified extension resolver.
+     *
+     * @param extensionResolver the extension resolver
+     * @param limits            the limits of the calls
+     */
+    LimitedExtensionResolver(final AsyncExtensionResolver extensionResolver, final ResolverLimits limits) {
+        this.extensionResolver = Preconditions.checkNotNull(extensionResolver, "the extension resolver may not be null");
+        this.limits = Preconditions.checkNotNull(limits, "the limits may not be null");
+    }
+
+    @Override
+    public String[] hierarchy() {
+        return extensionResolver.hierarchy();
+    }
+
+    @Override
+    public String name() {
+        return extensionResolver.name();
+    }
+
+    @Override
+    public int maximumBatchSize() {
+        return extensionResolver.maximumBatchSize();
+    }
+
+    @Override
+    public CompletionStage<Optional<Extension>> resolveAsync(final Element element) {
+        return limits.call(() -> extensionResolver.resolveAsync(element));
+    }
+
+    @Override
+    public CompletionStage<Map<Element, Extension>> resolveAsync(final Group group) {
+        return limits.call(() -> extensionResolver.resolveAsync(group));
+    }
+
+    @Override
+    public CompletionStage<Optional<ZonedDateTime>> lastModifiedAsync(final Element element) {
+        return limits.call(() -> extensionResolver.lastModifiedAsync(element));
+    }
+
+    @Override
+    public Optional<ZonedDateTime> lastModified(final Element element) {
+        return extensionResolver.lastModified(element);
+    }
+}
@@ -0,0 +1,80 @@
+package net.oneandone.concierge.resource;
+
+import com.google.common.base.Preconditions;
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Group;
+import net.oneandone.concierge.api.filter.Filter;
+import net.oneandone.concierge.api.filter.Filters;
+import net.oneandone.concierge.api.resolver.AsyncGroupResolver;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+/** Makes the calls of an {@link AsyncGroupResolver} within its {@link ResolverLimits limits}. */
+class LimitedGroupResolver implements AsyncGroupResolver {
+
+    /** The limited group resolver. */
+    private final AsyncGroupResolver groupResolver;
+
+    /** The limits of the calls. */
+    private final ResolverLimits limits;
+
+    /**
+     * Creates the limited view of the specified group resolver.
+     *
+     * @param groupResolver the group resolver
+     * @param limits        the limits of the calls
+     */
+    LimitedGroupResolver(final AsyncGroupResolver groupResolver, final ResolverLimits limits) {
+        this.groupResolver = Preconditions.checkNotNull(groupResolver, "the group resolver may not be null");
+        this.limits = Preconditions.checkNotNull(limits, "the limits may not be null");
+    }
+
+    @Override
+    public String[] hierarchy() {
+        return groupResolver.hierarchy();
+    }
+
+    @Override
+    public String name() {
+        return groupResolver.name();
+    }
+
+    @Override
+    public int defaultPageSize() {
+        return groupResolver.defaultPageSize();
+    }
+
+    @Override
+    public int maximumPageSize() {
+        return groupResolver.maximumPageSize();
+    }
+
+    @Override
+    public boolean supports(final Class<? extends Filter> filterClass) {
+        return groupResolver.supports(filterClass);
+    }
+
+    @Override
+    public CompletionStage<Group> elementsAsync(final Element parent, final Filters filters) {
+        return limits.call(() -> groupResolver.elementsAsync(parent, filters));
+    }
+
+    @Override
+    public CompletionStage<Map<Element, Group>> groupsAsync(final Collection<Element> parents, final Filters filters) {
+        return limits.call(() -> groupResolver.groupsAsync(parents, filters));
+    }
+
+    @Override
+    public CompletionStage<Optional<ZonedDateTime>> lastModifiedAsync(final Element parent, final Filters filters) {
+        return limits.call(() -> groupResolver.lastModifiedAsync(parent, filters));
+    }
+
+    @Override
+    public Optional<ZonedDateTime> lastModified(final Element parent, final Filters filters) {
+        return groupResolver.lastModified(parent, filters);
+    }
+}
@@ -0,0 +1,167 @@
+package net.oneandone.concierge.resource;
+
+import com.google.common.base.Preconditions;
+import com.google.common.net.UrlEscapers;
+
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The precompiled links of the elements of a hierarchy to their sub-groups and extensions.
+ * <p/>
+ * A template is compiled once per hierarchy when the {@link ResolverIndex} is built. Rendering the links of an element
+ * only copies the path of the element into a buffer once and appends the precompiled suffixes of the links to it, the
+ * buffer is reused for all links of the element.
+ */
+class LinkTemplate {
+
+    /** The template of hierarchies without any sub-groups or extensions. */
+    static final LinkTemplate EMPTY = new LinkTemplate(Collections.emptyList(), Collections.emptyList());
+
+    /** The names of the sub-groups. */
+    private final String[] subgroups;
+
+    /** The suffixes of the links to the sub-groups, e.g. {@code /posts}. */
+    private final String[] subgroupSuffixes;
+
+    /** The names of the extensions. */
+    private final String[] extensions;
+
+    /** The suffixes of the links to the extensions, e.g. {@code /profile}. */
+    private final String[] extensionSuffixes;
+
+    /** The length of the longest suffix. */
+    private final int maximumSuffixLength;
+
+    /**
+     * Compiles the template for the specified sub-groups and extensions.
+     *
+     * @param subgroups  the names of the sub-groups
+     * @param extensions the names of the extensions
+     */
+    LinkTemplate(final List<String> subgroups, final List<String> extensions) {
+        Preconditions.checkNotNull(subgroups, "the sub-groups may not be null");
+        Preconditions.checkNotNull(extensions, "the extensions may not be null");
+
+        this.subgroups = subgroups.toArray(new String[subgroups.size()]);
+        this.subgroupSuffixes = suffixes(this.subgroups);
+        this.extensions = extensions.toArray(new String[extensions.size()]);
+        this.extensionSuffixes = suffixes(this.extensions);
+
+        int maximumSuffixLength = 0;
+        for (final String suffix : subgroupSuffixes) {
+            maximumSuffixLength = Math.max(maximumSuffixLength, suffix.length());
+        }
+        for (final String suffix : extensionSuffixes) {
+            maximumSuffixLength = Math.max(maximumSuffixLength, suffix.length());
+        }
+        this.maximumSuffixLength = maximumSuffixLength;
+    }
+
+    private static String[] suffixes(final String[] names) {
+        final String[] suffixes = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            suffixes[i] = "/" + names[i];
+        }
+        return suffixes;
+    }
+
+    /**
+     * Returns {@code true} if the elements of the hierarchy have neither sub-groups nor extensions.
+     *
+     * @return {@code true} if there are no links to render
+     */
+    boolean isEmpty() {
+        return subgroups.length == 0 && extensions.length == 0;
+    }
+
+    /**
+     * Renders the links of an element.
+     *
+     * @param path    the path of the group of the element or the path of the element itself if {@code address} is {@code null}
+     * @param address the address of the element or {@code null} if the path already ends with it
+     * @return the links of the element
+     */
+    JsonObject render(final String path, final String address) {
+        final StringBuilder buffer = new StringBuilder(path.length() + (address != null ? address.length() + 1 : 0) + maximumSuffixLength).append(path);
+        if (address != null) {
+            buffer.append('/').append(address);
+        }
+
+        final int elementPathLength = buffer.length();
+        final JsonObjectBuilder linksBuilder = GenericApiResource.JSON_BUILDERS.createObjectBuilder();
+        if (subgroups.length > 0) {
+            linksBuilder.add("groups", render(buffer, elementPathLength, subgroups, subgroupSuffixes));
+        }
+        if (extensions.length > 0) {
+            linksBuilder.add("extensions", render(buffer, elementPathLength, extensions, extensionSuffixes));
+        }
+        return linksBuilder.build();
+    }
+
+    private static JsonObject render(final StringBuilder buffer, final int elementPathLength, final String[] names, final String[] suffixes) {
+        final JsonObjectBuilder linkBuilder = GenericApiResource.JSON_BUILDERS.createObjectBuilder();
+        for (int i = 0; i < names.length; i++) {
+            buffer.setLength(elementPathLength);
+            linkBuilder.add(names[i], buffer.append(suffixes[i]).toString());
+        }
+        return linkBuilder.build();
+    }
+
+    /** The links to the pages of a paged group sharing one buffer with the path of the group. */
+    static class PageLinks {
+
+        /** The buffer starting with the path of the group. */
+        private final StringBuilder buffer;
+
+        /** The length of the path of the group. */
+        private final int pathLength;
+
+        /**
+         * Creates the links of the group with the specified path.
+         *
+         * @param path the path of the group
+         */
+        PageLinks(final String path) {
+            this.buffer = new StringBuilder(path.length() + 32).append(path);
+            this.pathLength = path.length();
+        }
+
+        /**
+         * Returns the link to a page by its number.
+         *
+         * @param page    the number of the page starting with {@code 1}
+         * @param perPage the size of the page
+         * @return the link to the page
+         */
+        String page(final int page, final int perPage) {
+            buffer.setLength(pathLength);
+            return buffer.append("?page=").append(page).append("&per_page=").append(perPage).toString();
+        }
+
+        /**
+         * Returns the link to the first page of a group paged by cursor.
+         *
+         * @param perPage the size of the page
+         * @return the link to the first page
+         */
+        String first(final int perPage) {
+            buffer.setLength(pathLength);
+            return buffer.append("?per_page=").append(perPage).toString();
+        }
+
+        /**
+         * Returns the link to the page starting at the specified cursor.
+         *
+         * @param cursor  the opaque cursor
+         * @param perPage the size of the page
+         * @return the link to the page
+         */
+        String cursor(final String cursor, final int perPage) {
+            buffer.setLength(pathLength);
+            return buffer.append("?cursor=").append(UrlEscapers.urlFormParameterEscaper().escape(cursor)).append("&per_page=").append(perPage).toString();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package net.oneandone.concierge.resource;
+
+import com.google.common.base.Preconditions;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Gathers the keys loaded by concurrent callers over a short window and loads them by a single call.
+ * <p/>
+ * The first key of a batch starts the window, the batch is loaded as soon as the window is over or the maximum number of
+ * keys is reached, whichever comes first. Keys can only be loaded together if they share the same batch key, e.g. the
+ * filters of a group resolver call, a batch per batch key is gathered at the same time.
+ * <p/>
+ * Every caller receives its own dependent future, cancelling it won't affect the other callers of the batch. The value
+ * of a key missing in the result of the load will be {@code null}, a loader returning {@code null} misses all keys.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+@Slf4j
+class MicroBatcher<K, V> {
+
+    /** The scheduler of the ends of the windows. */
+    private final ScheduledExecutorService scheduler;
+
+    /** The duration of the window in nanoseconds. */
+    private final long window;
+
+    /** The maximum number of keys of a batch. */
+    private final int maximumSize;
+
+    /** The batches gathering keys by their batch keys. */
+    private final Map<Object, Batch> batches = new HashMap<>();
+
+    /**
+     * Creates a batcher with the specified window.
+     *
+     * @param scheduler   the scheduler of the ends of the windows
+     * @param window      the duration of the window in nanoseconds
+     * @param maximumSize the maximum number of keys of a batch
+     */
+    MicroBatcher(final ScheduledExecutorService scheduler, final long window, final int maximumSize) {
+        Preconditions.checkNotNull(scheduler, "the scheduler may not be null");
+        Preconditions.checkArgument(window > 0, "the window must be positive");
+        Preconditions.checkArgument(maximumSize > 0, "the maximum size must be positive");
+
+        this.scheduler = scheduler;
+        this.window = window;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns the future value of the specified key loaded along with the keys of concurrent callers.
+     * <p/>
+     * The loader of the caller starting a batch will load all keys of the batch, so all callers of the same batch key
+     * must specify equivalent loaders.
+     *
+     * @param batchKey the key of the batch, keys with different batch keys will never be loaded together
+     * @param key      the key to load
+     * @param loader   the loader of a batch of distinct keys
+     * @return the future value or {@code null} if the key is missing in the result of the loader
+     */
+    CompletableFuture<V> load(final Object batchKey, final K key, final Function<List<K>, CompletionStage<Map<K, V>>> loader) {
+        Preconditions.checkNotNull(batchKey, "the batch key may not be null");
+        Preconditions.checkNotNull(loader, "the loader may not be null");
+
+        final Batch fullBatch;
+        final CompletableFuture<V> value;
+        synchronized (batches) {
+            Batch batch = batches.get(batchKey);
+            if (batch == null) {
+                batch = new Batch(loader);
+                batches.put(batchKey, batch);
+                final Batch scheduledBatch = batch;
+                scheduler.schedule(() -> dispatch(batchKey, scheduledBatch), window, TimeUnit.NANOSECONDS);
+            }
+
+            value = batch.values.computeIfAbsent(key, ignored -> new CompletableFuture<>()).thenApply(Function.identity());
+            if (batch.values.size() >= maximumSize) {
+                batches.remove(batchKey);
+                fullBatch = batch;
+            } else {
+                fullBatch = null;
+            }
+        }
+
+        if (fullBatch != null) {
+            fullBatch.load();
+        }
+        return value;
+    }
+
+    private void dispatch(final Object batchKey, final Batch batch) {
+        synchronized (batches) {
+            // the batch may have been loaded already because it was full
+            if (!batches.remove(batchKey, batch)) {
+                return;
+            }
+        }
+        batch.load();
+    }
+
+    /**
+     * Returns the number of batches gathering keys.
+     *
+     * @return the number of open batches
+     */
+    int size() {
+        synchronized (batches) {
+            return batches.size();
+        }
+    }
+
+    /** The keys of a batch and the future values of its callers. */
+    private class Batch {
+
+        /** The loader of the keys. */
+        private final Function<List<K>, CompletionStage<Map<K, V>>> loader;
+
+        /** The future values by their keys in the order of their first request. */
+        private final Map<K, CompletableFuture<V>> values = new LinkedHashMap<>();
+
+        private Batch(final Function<List<K>, CompletionStage<Map<K, V>>> loader) {
+            this.loader = loader;
+        }
+
+        private void load() {
+            final CompletionStage<Map<K, V>> result;
+            try {
+                result = loader.apply(new ArrayList<>(values.keySet()));
+            } catch (final RuntimeException e) {
+                log.warn("loading batch of {} keys failed", values.size(), e);
+                values.values().forEach(value -> value.completeExceptionally(e));
+                return;
+            }
+
+            result.whenComplete((loadedValues, throwable) -> {
+                for (final Map.Entry<K, CompletableFuture<V>> value : values.entrySet()) {
+                    if (throwable != null) {
+                        value.getValue().completeExceptionally(throwable);
+                    } else {
+                        value.getValue().complete(loadedValues != null ? loadedValues.get(value.getKey()) : null);
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package net.oneandone.concierge.resource;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import javax.json.JsonWriter;
+import java.io.StringWriter;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link JsonObject} view of a base object with additional entries put on top of it.
+ * <p/>
+ * The entries of the base object will not be copied, they will be iterated in their original order followed by the
+ * additional entries. As with a {@link javax.json.JsonObjectBuilder} an additional entry replaces the entry of the base
+ * object with the same name at its original position.
+ * <p/>
+ * If the names of the visible fields are specified, all other entries of the base object will be hidden.
+ */
+class OverlayJsonObject extends AbstractMap<String, JsonValue> implements JsonObject {
+
+    /** The base object. */
+    private final JsonObject base;
+
+    /** The additional entries. */
+    private final Map<String, JsonValue> overlay;
+
+    /** The names of the visible entries of the base object or {@code null} if all entries are visible. */
+    private final Set<String> fields;
+
+    /** The entries of this object. */
+    private final Set<Map.Entry<String, JsonValue>> entrySet;
+
+    /**
+     * Creates the view of the specified base object with the additional entries.
+     * <p/>
+     * The map of additional entries must not be modified afterwards.
+     *
+     * @param base    the base object
+     * @param overlay the additional entries
+     */
+    OverlayJsonObject(final JsonObject base, final Map<String, JsonValue> overlay) {
+        this(base, overlay, null);
+    }
+
+    /**
+     * Creates the view of the specified base object with the additional entries and only the specified entries of the
+     * base object.
+     * <p/>
+     * The map of additional entries must not be modified afterwards, additional entries are always visible.
+     *
+     * @param base    the base object
+     * @param overlay the additional entries
+     * @param fields  the names of the visible entries of the base object or {@code null} if all entries are visible
+     */
+    OverlayJsonObject(final JsonObject base, final Map<String, JsonValue> overlay, final Set<String> fields) {
+        Preconditions.checkNotNull(base, "the base object may not be null");
+        Preconditions.checkNotNull(overlay, "the additional entries may not be null");
+
+        this.base = base;
+        this.overlay = overlay;
+        this.fields = fields;
+
+        int hiddenEntries = 0;
+        if (fields != null) {
+            for (final String name : base.keySet()) {
+                if (!isVisible(name)) {
+                    hiddenEntries++;
+                }
+            }
+        }
+
+        int replacedEntries = 0;
+        for (final String name : overlay.keySet()) {
+            if (base.containsKey(name)) {
+                replacedEntries++;
+            }
+        }
+        final int size = base.size() - hiddenEntries + overlay.size() - replacedEntries;
+
+        this.entrySet = new AbstractSet<Map.Entry<String, JsonValue>>() {
+            @Override
+            public Iterator<Map.Entry<String, JsonValue>> iterator() {
+                final Iterator<Map.Entry<String, JsonValue>> visibleEntries = fields != null ? Iterators.filter(base.entrySet().iterator(), entry -> isVisible(entry.getKey()))
+                        : base.entrySet().iterator();
+                final Iterator<Map.Entry<String, JsonValue>> baseEntries = Iterators.transform(visibleEntries, entry -> {
+                    final JsonValue replacement = overlay.get(entry.getKey());
+                    return replacement != null ? new SimpleImmutableEntry<>(entry.getKey(), replacement) : entry;
+                });
+                final Iterator<Map.Entry<String, JsonValue>> additionalEntries = Iterators.filter(overlay.entrySet().iterator(), entry -> !base.containsKey(entry.getKey()));
+                return Iterators.unmodifiableIterator(Iterators.concat(baseEntries, additionalEntries));
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<String, JsonValue>> entrySet() {
+        return entrySet;
+    }
+
+    @Override
+    public JsonValue get(final Object name) {
+        final JsonValue value = overlay.get(name);
+        return value != null || !isVisible(name) ? value : base.get(name);
+    }
+
+    @Override
+    public boolean containsKey(final Object name) {
+        return overlay.containsKey(name) || (isVisible(name) && base.containsKey(name));
+    }
+
+    private boolean isVisible(final Object name) {
+        return fields == null || fields.contains(name) || overlay.containsKey(name);
+    }
+
+    @Override
+    public JsonArray getJsonArray(final String name) {
+        return (JsonArray) get(name);
+    }
+
+    @Override
+    public JsonObject getJsonObject(final String name) {
+        return (JsonObject) get(name);
+    }
+
+    @Override
+    public JsonNumber getJsonNumber(final String name) {
+        return (JsonNumber) get(name);
+    }
+
+    @Override
+    public JsonString getJsonString(final String name) {
+        return (JsonString) get(name);
+    }
+
+    @Override
+    public String getString(final String name) {
+        return getJsonString(name).getString();
+    }
+
+    @Override
+    public String getString(final String name, final String defaultValue) {
+        final JsonValue value = get(name);
+        return value instanceof JsonString ? ((JsonString) value).getString() : defaultValue;
+    }
+
+    @Override
+    public int getInt(final String name) {
+        return getJsonNumber(name).intValue();
+    }
+
+    @Override
+    public int getInt(final String name, final int defaultValue) {
+        final JsonValue value = get(name);
+        return value instanceof JsonNumber ? ((JsonNumber) value).intValue() : defaultValue;
+    }
+
+    @Override
+    public boolean getBoolean(final String name) {
+        final JsonValue value = get(name);
+        if (value == null) {
+            throw new NullPointerException("no value for name '" + name + "'");
+        } else if (value == JsonValue.TRUE) {
+            return true;
+        } else if (value == JsonValue.FALSE) {
+            return false;
+        }
+        throw new ClassCastException("value for name '" + name + "' is not a boolean");
+    }
+
+    @Override
+    public boolean getBoolean(final String name, final boolean defaultValue) {
+        final JsonValue value = get(name);
+        if (value == JsonValue.TRUE) {
+            return true;
+        } else if (value == JsonValue.FALSE) {
+            return false;
+        }
+        return defaultValue;
+    }
+
+    @Override
+    public boolean isNull(final String name) {
+        final JsonValue value = get(name);
+        if (value == null) {
+            throw new NullPointerException("no value for name '" + name + "'");
+        }
+        return value == JsonValue.NULL;
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.OBJECT;
+    }
+
+    @Override
+    public String toString() {
+        final StringWriter stringWriter = new StringWriter();
+        try (final JsonWriter jsonWriter = Json.createWriter(stringWriter)) {
+            jsonWriter.writeObject(this);
+        }
+        return stringWriter.toString();
+    }
+}
@@ -0,0 +1,350 @@
+package net.oneandone.concierge.resource;
+
+import com.google.common.base.Throwables;
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Extension;
+import net.oneandone.concierge.api.Group;
+import net.oneandone.concierge.api.filter.Filters;
+import net.oneandone.concierge.api.resolver.AsyncExtensionResolver;
+import net.oneandone.concierge.api.resolver.AsyncGroupResolver;
+import net.oneandone.concierge.api.resolver.Resolver;
+import net.oneandone.concierge.resource.trace.ResolutionTrace;
+
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * The context of the resolution of a single request.
+ * <p/>
+ * The resolution itself is asynchronous, the context is used by callers which need to {@link #await(CompletableFuture) wait}
+ * for the response until the deadline of the request is reached.
+ * <p/>
+ * All resolver calls of a request should be made through the context. Each distinct call, identified by the resolver
+ * and its arguments, will be made at most once per request, later calls share the future result of the first one. If
+ * the request is traced, every call made will be recorded in the {@link ResolutionTrace trace}.
+ * <p/>
+ * Contexts of untraced requests may share a {@link SingleFlight single flight} of resolver calls, so identical calls of
+ * concurrent requests, e.g. overlapping sub-resolutions of different resources, will be made only once as well.
+ */
+class ResolutionContext {
+
+    /** The deadline of the request in nanoseconds, see {@link System#nanoTime()}. */
+    private final long deadline;
+
+    /** The future results of all resolver calls of the request by the resolver, the method and its arguments. */
+    private final ConcurrentMap<List<Object>, CompletableFuture<?>> results = new ConcurrentHashMap<>();
+
+    /** The number of resolver calls made for the request. */
+    private final AtomicInteger calls = new AtomicInteger();
+
+    /** The number of elements resolved by group resolvers for the request. */
+    private final AtomicInteger elements = new AtomicInteger();
+
+    /** The hierarchies of the extensions missing in the response because their resolvers exceeded their limits. */
+    private final Set<String> missingParts = ConcurrentHashMap.newKeySet();
+
+    /** The trace of the request or {@code null} if the request isn't traced. */
+    private final ResolutionTrace trace;
+
+    /** The resolver calls in flight shared with concurrent requests or {@code null} if calls won't be shared. */
+    private final SingleFlight flights;
+
+    /** The maximum number of elements scanned for a page filtered by the gateway or {@code 0} if unlimited, see {@link FilterFallback}. */
+    private final int maximumScannedElements;
+
+    /**
+     * Creates the context for a request starting now.
+     *
+     * @param timeout the maximum duration of the request in nanoseconds
+     */
+    ResolutionContext(final long timeout) {
+        this(timeout, (ResolutionTrace) null);
+    }
+
+    /**
+     * Creates the context for a traced request starting now.
+     *
+     * @param timeout the maximum duration of the request in nanoseconds
+     * @param trace   the trace of the request or {@code null} if the request isn't traced
+     */
+    ResolutionContext(final long timeout, final ResolutionTrace trace) {
+        this(timeout, trace, null, 0);
+    }
+
+    /**
+     * Creates the context for a request starting now, which shares its resolver calls with concurrent requests.
+     *
+     * @param timeout the maximum duration of the request in nanoseconds
+     * @param flights the resolver calls in flight shared by all contexts
+     */
+    ResolutionContext(final long timeout, final SingleFlight flights) {
+        this(timeout, null, flights, 0);
+    }
+
+    /**
+     * Creates the context for a request starting now.
+     * <p/>
+     * Traced requests shouldn't share their resolver calls, otherwise the trace would miss the shared calls.
+     *
+     * @param timeout                the maximum duration of the request in nanoseconds
+     * @param trace                  the trace of the request or {@code null} if the request isn't traced
+     * @param flights                the resolver calls in flight shared by all contexts or {@code null} if calls won't be shared
+     * @param maximumScannedElements the maximum number of elements scanned for a page filtered by the gateway or {@code 0} if unlimited
+     */
+    ResolutionContext(final long timeout, final ResolutionTrace trace, final SingleFlight flights, final int maximumScannedElements) {
+        this.deadline = System.nanoTime() + timeout;
+        this.trace = trace;
+        this.flights = flights;
+        this.maximumScannedElements = Math.max(0, maximumScannedElements);
+    }
+
+    /**
+     * Returns the optional trace of the request.
+     *
+     * @return the trace or an empty optional if the request isn't traced
+     */
+    Optional<ResolutionTrace> trace() {
+        return Optional.ofNullable(trace);
+    }
+
+    /**
+     * Waits for the specified future until the deadline of the request.
+     * <p/>
+     * Exceptions thrown by the resolvers will be rethrown unwrapped if possible.
+     *
+     * @param future the future
+     * @param <T>    the result type
+     * @return the result
+     * @throws ResolutionTimeoutException if the deadline of the request is exceeded
+     */
+    <T> T await(final CompletableFuture<T> future) {
+        try {
+            return future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (final TimeoutException e) {
+            future.cancel(true);
+            throw new ResolutionTimeoutException("the deadline of the request is exceeded", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for resolvers", e);
+        } catch (final ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the number of resolver calls made for the request so far.
+     * <p/>
+     * Calls answered by the result of an earlier call won't be counted.
+     *
+     * @return the number of resolver calls
+     */
+    int calls() {
+        return calls.get();
+    }
+
+    /**
+     * Returns the number of elements resolved by group resolvers for the request so far.
+     * <p/>
+     * Elements of calls answered by the result of an earlier call won't be counted.
+     *
+     * @return the number of resolved elements
+     */
+    int elements() {
+        return elements.get();
+    }
+
+    /**
+     * Records an optional part of the response, which will be missing because its resolver exceeded its limits.
+     *
+     * @param path the hierarchy of the resolver of the part joined by {@code /}
+     */
+    void missing(final String path) {
+        missingParts.add(path);
+    }
+
+    /**
+     * Returns the hierarchies of the optional parts missing in the response so far in alphabetical order.
+     *
+     * @return the hierarchies of the missing parts, empty if the response is complete
+     */
+    SortedSet<String> missingParts() {
+        return new TreeSet<>(missingParts);
+    }
+
+    /**
+     * Returns the future group of the specified parent, see {@link AsyncGroupResolver#elementsAsync(Element, Filters)}.
+     *
+     * @param resolver the group resolver
+     * @param parent   the parent element
+     * @param filters  the filters
+     * @return the future group
+     */
+    CompletableFuture<Group> elements(final AsyncGroupResolver resolver, final Element parent, final Filters filters) {
+        return memoize(() -> FilterFallback.elements(resolver, parent, filters, maximumScannedElements), group -> group.elements().size(), true, resolver, "elements", parent, filters);
+    }
+
+    /**
+     * Returns the future groups of the specified parents, see {@link AsyncGroupResolver#groupsAsync(Collection, Filters)}.
+     *
+     * @param resolver the group resolver
+     * @param parents  the parent elements
+     * @param filters  the filters
+     * @return the future groups by their parent elements
+     */
+    CompletableFuture<Map<Element, Group>> groups(final AsyncGroupResolver resolver, final Collection<Element> parents, final Filters filters) {
+        return memoize(() -> FilterFallback.groups(resolver, parents, filters, maximumScannedElements), ResolutionContext::countElements, true, resolver, "groups", parents, filters);
+    }
+
+    /**
+     * Returns the future date of the last modification of a group, see {@link AsyncGroupResolver#lastModifiedAsync(Element, Filters)}.
+     *
+     * @param resolver the group resolver
+     * @param parent   the parent element
+     * @param filters  the filters
+     * @return the future optional date of the last modification
+     */
+    CompletableFuture<Optional<ZonedDateTime>> lastModified(final AsyncGroupResolver resolver, final Element parent, final Filters filters) {
+        return memoize(() -> resolver.lastModifiedAsync(parent, filters).toCompletableFuture(), null, false, resolver, "lastModified", parent, filters);
+    }
+
+    /**
+     * Returns the future extension of the specified element, see {@link AsyncExtensionResolver#resolveAsync(Element)}.
+     *
+     * @param resolver the extension resolver
+     * @param element  the parent element
+     * @return the future optional extension
+     */
+    CompletableFuture<Optional<Extension>> extension(final AsyncExtensionResolver resolver, final Element element) {
+        return memoize(() -> resolver.resolveAsync(element).toCompletableFuture(), extension -> extension.isPresent() ? 1 : 0, false, resolver, "extension", element, null);
+    }
+
+    /**
+     * Returns the future extensions of all elements of the specified group, see {@link AsyncExtensionResolver#resolveAsync(Group)}.
+     *
+     * @param resolver the extension resolver
+     * @param group    the group
+     * @return the future extensions by their parent elements
+     */
+    CompletableFuture<Map<Element, Extension>> extensions(final AsyncExtensionResolver resolver, final Group group) {
+        return memoize(() -> resolver.resolveAsync(group).toCompletableFuture(), Map::size, false, resolver, "extensions", group, null);
+    }
+
+    /**
+     * Returns the future date of the last modification of an extension, see {@link AsyncExtensionResolver#lastModifiedAsync(Element)}.
+     *
+     * @param resolver the extension resolver
+     * @param element  the parent element
+     * @return the future optional date of the last modification
+     */
+    CompletableFuture<Optional<ZonedDateTime>> lastModified(final AsyncExtensionResolver resolver, final Element element) {
+        return memoize(() -> resolver.lastModifiedAsync(element).toCompletableFuture(), null, false, resolver, "lastModified", element, null);
+    }
+
+    /**
+     * Returns the future result of the call identified by the resolver, the method and the arguments, the call will be
+     * made only once.
+     * <p/>
+     * The future is registered before the call is made, so calls made by the call itself on the same thread, e.g. by
+     * resolvers running on a direct executor, won't modify the map while it's being updated. If the context shares its
+     * calls, the result of an identical call of a concurrent request will be used if that call is still in flight.
+     *
+     * @param call     the call
+     * @param count    the function returning the number of results for the trace or {@code null} if not applicable
+     * @param counted  whether the results are elements which will be counted as resolved elements of the request
+     * @param resolver the called resolver
+     * @param method   the called method
+     * @param parent   the parent element, elements or group of the call
+     * @param filters  the filters of the call or {@code null} if the method has no filters
+     * @param <T>      the result type
+     * @return the future result of the call
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> memoize(final Supplier<CompletableFuture<T>> call, final ToIntFunction<T> count, final boolean counted,
+                                             final Resolver resolver, final String method, final Object parent, final Filters filters) {
+        // groups don't implement equals, the batches of extensions of concurrent requests are identified by their elements
+        final List<Object> key = Arrays.asList(resolver, method, parent instanceof Group ? ((Group) parent).elements() : parent, filters);
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final CompletableFuture<?> existingResult = results.putIfAbsent(key, result);
+        if (existingResult != null) {
+            return (CompletableFuture<T>) existingResult;
+        }
+        calls.incrementAndGet();
+
+        final ResolutionTrace.Call tracedCall = trace != null ? trace.start(String.join("/", resolver.hierarchy()), method, describe(parent), filters != null ? filters.toString() : null) : null;
+        try {
+            (flights != null ? flights.share(key, call) : call.get()).whenComplete((value, throwable) -> {
+                if (throwable != null) {
+                    if (tracedCall != null) {
+                        tracedCall.failed(throwable);
+                    }
+                    result.completeExceptionally(throwable);
+                } else {
+                    if (tracedCall != null) {
+                        tracedCall.succeeded(count != null ? count.applyAsInt(value) : -1);
+                    }
+                    if (counted && value != null) {
+                        elements.addAndGet(count.applyAsInt(value));
+                    }
+                    result.complete(value);
+                }
+            });
+        } catch (final RuntimeException e) {
+            if (tracedCall != null) {
+                tracedCall.failed(e);
+            }
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private static int countElements(final Map<Element, Group> groups) {
+        int elements = 0;
+        for (final Group group : groups.values()) {
+            elements += group.elements().size();
+        }
+        return elements;
+    }
+
+    /**
+     * Returns the description of the parent of a resolver call for the trace.
+     *
+     * @param parent the parent element, elements or group
+     * @return the address of the parent element, the number of parent elements or the name and size of the group
+     */
+    private static String describe(final Object parent) {
+        if (parent instanceof Element) {
+            return ((Element) parent).address();
+        } else if (parent instanceof Group) {
+            return ((Group) parent).address() + " (" + ((Group) parent).elements().size() + " elements)";
+        } else if (parent instanceof Collection) {
+            return ((Collection<?>) parent).size() + " elements";
+        }
+        return null;
+    }
+
+    /** Thrown if the deadline of a request is exceeded. */
+    static class ResolutionTimeoutException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        ResolutionTimeoutException(final String message, final Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
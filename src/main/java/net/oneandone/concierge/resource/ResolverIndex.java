@@ -0,0 +1,330 @@
+package net.oneandone.concierge.resource;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Preconditions;
+import net.oneandone.concierge.api.resolver.AsyncExtensionResolver;
+import net.oneandone.concierge.api.resolver.AsyncGroupResolver;
+import net.oneandone.concierge.api.resolver.ExtensionResolver;
+import net.oneandone.concierge.api.resolver.GroupResolver;
+import net.oneandone.concierge.configuration.LimitsConfiguration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Routing index for {@link GroupResolver group resolvers} and {@link ExtensionResolver extension resolvers}.
+ * <p/>
+ * The index is a trie keyed by the segments of {@link net.oneandone.concierge.api.resolver.Resolver#hierarchy()} and is
+ * built once on startup. A lookup costs one map access per hierarchy level and does not allocate, the hierarchies of the
+ * resolvers will never be requested again after the index has been built.
+ * <p/>
+ * All resolvers are stored as {@link AsyncGroupResolver asynchronous views}, blocking resolvers will be called on the
+ * executor specified on creation. If a metric registry is specified, the calls of all resolvers will be recorded as
+ * {@link ResolverMetrics resolver metrics}. If a batch window is specified, the calls of concurrent requests will be
+ * gathered by {@link MicroBatcher micro batchers}, see {@link BatchingGroupResolver} and {@link BatchingExtensionResolver}.
+ * If limits are specified, every resolver gets its own {@link ResolverLimits limits} of its calls.
+ * <p/>
+ * The {@link LinkTemplate links} of the elements of every hierarchy are compiled along with the index.
+ */
+class ResolverIndex {
+
+    /** The root node of the index, representing the empty hierarchy. */
+    private final Node root = new Node(null, "");
+
+    /**
+     * Builds the index for the specified resolvers.
+     * <p/>
+     * If more than one group resolver is registered for the same hierarchy the first one wins.
+     *
+     * @param groupResolvers     the group resolvers
+     * @param extensionResolvers the extension resolvers
+     * @param executor           the executor for calls of blocking resolvers
+     */
+    ResolverIndex(final List<? extends GroupResolver> groupResolvers, final List<? extends ExtensionResolver> extensionResolvers, final Executor executor) {
+        this(groupResolvers, extensionResolvers, executor, null);
+    }
+
+    /**
+     * Builds the index for the specified resolvers and records their metrics.
+     * <p/>
+     * If more than one group resolver is registered for the same hierarchy the first one wins.
+     *
+     * @param groupResolvers     the group resolvers
+     * @param extensionResolvers the extension resolvers
+     * @param executor           the executor for calls of blocking resolvers
+     * @param metrics            the registry of the resolver metrics or {@code null} if the resolvers won't be instrumented
+     */
+    ResolverIndex(final List<? extends GroupResolver> groupResolvers, final List<? extends ExtensionResolver> extensionResolvers, final Executor executor,
+                  final MetricRegistry metrics) {
+        this(groupResolvers, extensionResolvers, executor, metrics, null, 0, 0, null);
+    }
+
+    /**
+     * Builds the index for the specified resolvers, records their metrics, limits their calls and batches the calls of
+     * concurrent requests.
+     * <p/>
+     * If more than one group resolver is registered for the same hierarchy the first one wins. The batches of extension
+     * resolvers declaring a {@link ExtensionResolver#maximumBatchSize() maximum batch size} are limited to it instead.
+     *
+     * @param groupResolvers     the group resolvers
+     * @param extensionResolvers the extension resolvers
+     * @param executor           the executor for calls of blocking resolvers
+     * @param metrics            the registry of the resolver metrics or {@code null} if the resolvers won't be instrumented
+     * @param scheduler          the scheduler of the batch windows or {@code null} if calls won't be batched
+     * @param batchWindow        the duration of the batch windows in nanoseconds or {@code 0} if calls won't be batched
+     * @param batchSize          the maximum number of parent elements per batch
+     * @param limits             the limits of the resolver calls or {@code null} if calls won't be limited, timeouts require the scheduler
+     */
+    ResolverIndex(final List<? extends GroupResolver> groupResolvers, final List<? extends ExtensionResolver> extensionResolvers, final Executor executor,
+                  final MetricRegistry metrics, final ScheduledExecutorService scheduler, final long batchWindow, final int batchSize,
+                  final LimitsConfiguration limits) {
+        Preconditions.checkNotNull(groupResolvers, "the group resolvers may not be null");
+        Preconditions.checkNotNull(extensionResolvers, "the extension resolvers may not be null");
+        Preconditions.checkNotNull(executor, "the executor may not be null");
+
+        final boolean batching = scheduler != null && batchWindow > 0;
+
+        for (final GroupResolver groupResolver : groupResolvers) {
+            final Node node = insert(groupResolver.hierarchy(), groupResolver.getClass().getCanonicalName());
+            if (!node.groupResolver.isPresent()) {
+                AsyncGroupResolver asyncGroupResolver = AsyncGroupResolver.of(groupResolver, executor);
+                if (limits != null) {
+                    asyncGroupResolver = new LimitedGroupResolver(asyncGroupResolver, getLimits(node, limits, scheduler));
+                }
+                if (metrics != null) {
+                    asyncGroupResolver = new InstrumentedGroupResolver(asyncGroupResolver, metrics);
+                }
+                if (batching) {
+                    asyncGroupResolver = new BatchingGroupResolver(asyncGroupResolver, new MicroBatcher<>(scheduler, batchWindow, batchSize));
+                }
+                node.groupResolver = Optional.of(asyncGroupResolver);
+                node.parent.subgroups.add(node.name);
+            }
+        }
+
+        for (final ExtensionResolver extensionResolver : extensionResolvers) {
+            final Node node = insert(extensionResolver.hierarchy(), extensionResolver.getClass().getCanonicalName());
+            if (node.extensionResolvers.isEmpty()) {
+                node.parent.extensions.add(node.name);
+            }
+            AsyncExtensionResolver asyncExtensionResolver = AsyncExtensionResolver.of(extensionResolver, executor);
+            if (limits != null) {
+                asyncExtensionResolver = new LimitedExtensionResolver(asyncExtensionResolver, getLimits(node, limits, scheduler));
+            }
+            if (metrics != null) {
+                asyncExtensionResolver = new InstrumentedExtensionResolver(asyncExtensionResolver, metrics);
+            }
+            if (batching) {
+                final int maximumBatchSize = extensionResolver.maximumBatchSize() > 0 ? extensionResolver.maximumBatchSize() : batchSize;
+                asyncExtensionResolver = new BatchingExtensionResolver(asyncExtensionResolver, new MicroBatcher<>(scheduler, batchWindow, maximumBatchSize));
+            }
+            node.extensionResolvers.add(asyncExtensionResolver);
+        }
+
+        compileLinks(root);
+    }
+
+    private static ResolverLimits getLimits(final Node node, final LimitsConfiguration limits, final ScheduledExecutorService scheduler) {
+        return new ResolverLimits(node.path, limits.getMaximumConcurrentCalls(node.path), limits.getTimeout(node.path).toNanoseconds(), scheduler);
+    }
+
+    private static void compileLinks(final Node node) {
+        if (!node.subgroups.isEmpty() || !node.extensions.isEmpty()) {
+            node.links = new LinkTemplate(node.subgroups, node.extensions);
+        }
+        node.children.values().forEach(ResolverIndex::compileLinks);
+    }
+
+    /**
+     * Returns the node for the empty hierarchy.
+     *
+     * @return the root node
+     */
+    Node root() {
+        return root;
+    }
+
+    /**
+     * Returns the node for the specified hierarchy or an empty node if no resolver is registered for it.
+     *
+     * @param hierarchy the hierarchy
+     * @return the node for the specified hierarchy
+     */
+    Node find(final String[] hierarchy) {
+        Node node = root;
+        for (int i = 0; i < hierarchy.length && node != Node.EMPTY; i++) {
+            node = node.child(hierarchy[i]);
+        }
+        return node;
+    }
+
+    /**
+     * Returns the node for the hierarchy of the current scope of the resource identifier.
+     *
+     * @param resourceIdentifier the resource identifier
+     * @return the node for the current scope
+     * @see ResourceIdentifier#hierarchy()
+     */
+    Node find(final ResourceIdentifier resourceIdentifier) {
+        return find(resourceIdentifier, resourceIdentifier.depth());
+    }
+
+    /**
+     * Returns the node for the complete hierarchy of the resource identifier.
+     *
+     * @param resourceIdentifier the resource identifier
+     * @return the node for the complete hierarchy
+     * @see ResourceIdentifier#completeHierarchy()
+     */
+    Node findComplete(final ResourceIdentifier resourceIdentifier) {
+        return find(resourceIdentifier, resourceIdentifier.completeDepth());
+    }
+
+    private Node find(final ResourceIdentifier resourceIdentifier, final int depth) {
+        Node node = root;
+        for (int level = 0; level < depth && node != Node.EMPTY; level++) {
+            node = node.child(resourceIdentifier.hierarchySegment(level));
+        }
+        return node;
+    }
+
+    private Node insert(final String[] hierarchy, final String resolverClassName) {
+        Preconditions.checkState(hierarchy != null && hierarchy.length > 0, "hierarchy for resolver '%s' must not be null or empty", resolverClassName);
+
+        Node node = root;
+        for (final String segment : hierarchy) {
+            Node child = node.children.get(segment);
+            if (child == null) {
+                child = new Node(segment, node == root ? segment : node.path + "/" + segment);
+                child.parent = node;
+                node.children.put(segment, child);
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    /** A node of the index representing a single hierarchy. */
+    static final class Node {
+
+        /** The node returned for hierarchies without any registered resolver. */
+        static final Node EMPTY = new Node(null, null);
+
+        /** The last segment of the hierarchy or {@code null} for the root node. */
+        private final String name;
+
+        /** The segments of the hierarchy joined by slashes, e.g. {@code users/posts}. */
+        private final String path;
+
+        /** The parent node. */
+        private Node parent;
+
+        /** The child nodes by their segment. */
+        private final Map<String, Node> children = new HashMap<>();
+
+        /** The group resolver for this hierarchy. */
+        private Optional<AsyncGroupResolver> groupResolver = Optional.empty();
+
+        /** The extension resolvers for this hierarchy. */
+        private final List<AsyncExtensionResolver> extensionResolvers = new ArrayList<>(1);
+
+        /** The names of the child hierarchies with a group resolver. */
+        private final List<String> subgroups = new ArrayList<>();
+
+        /** The names of the child hierarchies with extension resolvers. */
+        private final List<String> extensions = new ArrayList<>();
+
+        /** The links of the elements of this hierarchy to the sub-groups and extensions. */
+        private LinkTemplate links = LinkTemplate.EMPTY;
+
+        /** Unmodifiable views of the lists above, created once to keep lookups free of allocations. */
+        private final List<AsyncExtensionResolver> extensionResolversView = Collections.unmodifiableList(extensionResolvers);
+        private final List<String> subgroupsView = Collections.unmodifiableList(subgroups);
+        private final List<String> extensionsView = Collections.unmodifiableList(extensions);
+
+        private Node(final String name, final String path) {
+            this.name = name;
+            this.path = path;
+        }
+
+        /**
+         * Returns the last segment of the hierarchy.
+         *
+         * @return the last segment of the hierarchy or {@code null} for the root node
+         */
+        String name() {
+            return name;
+        }
+
+        /**
+         * Returns the segments of the hierarchy joined by slashes.
+         *
+         * @return the path of the hierarchy, empty for the root node and {@code null} for the empty node
+         */
+        String path() {
+            return path;
+        }
+
+        /**
+         * Returns the child node for the specified segment or an empty node.
+         *
+         * @param segment the segment
+         * @return the child node
+         */
+        Node child(final String segment) {
+            final Node child = children.get(segment);
+            return child == null ? EMPTY : child;
+        }
+
+        /**
+         * Returns the optional group resolver for this hierarchy.
+         *
+         * @return the optional group resolver
+         */
+        Optional<AsyncGroupResolver> groupResolver() {
+            return groupResolver;
+        }
+
+        /**
+         * Returns the extension resolvers for this hierarchy.
+         *
+         * @return the unmodifiable list of extension resolvers
+         */
+        List<AsyncExtensionResolver> extensionResolvers() {
+            return extensionResolversView;
+        }
+
+        /**
+         * Returns the names of all groups available below this hierarchy.
+         *
+         * @return the unmodifiable list of group names
+         */
+        List<String> subgroups() {
+            return subgroupsView;
+        }
+
+        /**
+         * Returns the names of all extensions available below this hierarchy.
+         *
+         * @return the unmodifiable list of extension names
+         */
+        List<String> extensions() {
+            return extensionsView;
+        }
+
+        /**
+         * Returns the links of the elements of this hierarchy to their sub-groups and extensions.
+         *
+         * @return the compiled link template
+         */
+        LinkTemplate links() {
+            return links;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package net.oneandone.concierge.resource;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The timeout and the maximum number of concurrent calls of a single resolver.
+ * <p/>
+ * A call exceeding the timeout fails with a {@link ResolverUnavailableException}, the permit of the call will be held
+ * until the resolver has actually finished, so a resolver blocking its threads can't start more calls than allowed. A
+ * call exceeding the maximum number of concurrent calls fails immediately without calling the resolver.
+ * <p/>
+ * The timeout is scheduled before the resolver is called, so a call of a blocking resolver on the direct executor, i.e.
+ * without resolver threads, fails once the timeout is exceeded as well. Such a call still blocks the request thread
+ * until the resolver returns, only the result is discarded.
+ */
+class ResolverLimits {
+
+    /** The hierarchy of the resolver joined by {@code /}. */
+    private final String path;
+
+    /** The permits of the concurrent calls or {@code null} if unlimited. */
+    private final Semaphore permits;
+
+    /** The maximum number of concurrent calls or {@code 0} if unlimited. */
+    private final int maximumConcurrentCalls;
+
+    /** The timeout of a call in nanoseconds or {@code 0} if calls won't time out. */
+    private final long timeout;
+
+    /** The scheduler of the timeouts or {@code null} if calls won't time out. */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Creates the limits of a resolver.
+     *
+     * @param path                   the hierarchy of the resolver joined by {@code /}
+     * @param maximumConcurrentCalls the maximum number of concurrent calls or {@code 0} if unlimited
+     * @param timeout                the timeout of a call in nanoseconds or {@code 0} if calls won't time out
+     * @param scheduler              the scheduler of the timeouts, may be {@code null} if calls won't time out
+     */
+    ResolverLimits(final String path, final int maximumConcurrentCalls, final long timeout, final ScheduledExecutorService scheduler) {
+        Preconditions.checkNotNull(path, "the path may not be null");
+        Preconditions.checkArgument(timeout <= 0 || scheduler != null, "the scheduler may not be null if calls time out");
+
+        this.path = path;
+        this.permits = maximumConcurrentCalls > 0 ? new Semaphore(maximumConcurrentCalls) : null;
+        this.maximumConcurrentCalls = Math.max(0, maximumConcurrentCalls);
+        this.timeout = Math.max(0L, timeout);
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Makes the specified call within the limits.
+     *
+     * @param call the call of the resolver
+     * @param <T>  the result type
+     * @return the future result, which fails with a {@link ResolverUnavailableException} if a limit is exceeded
+     */
+    <T> CompletionStage<T> call(final Supplier<CompletionStage<T>> call) {
+        if (permits != null && !permits.tryAcquire()) {
+            final CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new ResolverUnavailableException("resolver '" + path + "' exceeded the maximum of " + maximumConcurrentCalls + " concurrent calls"));
+            return rejected;
+        }
+
+        // the timeout is scheduled before the call, a resolver blocking the calling thread, e.g. on the direct executor,
+        // would finish its work before a timeout scheduled afterwards could fire
+        final CompletableFuture<T> limitedResult = new CompletableFuture<>();
+        final ScheduledFuture<?> timeoutFuture;
+        if (timeout > 0) {
+            final Runnable expiration = () -> limitedResult.completeExceptionally(
+                    new ResolverUnavailableException("resolver '" + path + "' exceeded the timeout of " + TimeUnit.NANOSECONDS.toMillis(timeout) + " ms"));
+            timeoutFuture = scheduler.schedule(expiration, timeout, TimeUnit.NANOSECONDS);
+        } else {
+            timeoutFuture = null;
+        }
+
+        final CompletionStage<T> result;
+        try {
+            result = call.get();
+        } catch (final RuntimeException e) {
+            if (timeoutFuture != null) {
+                timeoutFuture.cancel(false);
+            }
+            release();
+            throw e;
+        }
+        result.whenComplete((value, throwable) -> {
+            release();
+            if (timeoutFuture != null) {
+                timeoutFuture.cancel(false);
+            }
+            if (throwable != null) {
+                limitedResult.completeExceptionally(throwable);
+            } else {
+                limitedResult.complete(value);
+            }
+        });
+        return limitedResult;
+    }
+
+    private void release() {
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    /**
+     * Returns the number of calls which may be started right now.
+     *
+     * @return the number of available permits or {@link Integer#MAX_VALUE} if unlimited
+     */
+    int availableCalls() {
+        return permits != null ? permits.availablePermits() : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns {@code true} if the specified throwable, possibly wrapped by a {@link CompletionException}, is a
+     * {@link ResolverUnavailableException}.
+     *
+     * @param throwable the throwable
+     * @return {@code true} if a resolver exceeded its limits
+     */
+    static boolean isUnavailable(final Throwable throwable) {
+        final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        return cause instanceof ResolverUnavailableException;
+    }
+
+    /** Thrown if a resolver call exceeded the timeout or the maximum number of concurrent calls of the resolver. */
+    static class ResolverUnavailableException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        ResolverUnavailableException(final String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package net.oneandone.concierge.resource;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * The metrics of a single resolver.
+ * <p/>
+ * All metrics are named by the type and the hierarchy of the resolver, e.g. {@code concierge.resolvers.group.users.posts.elements}
+ * for the calls of {@code elements} of the group resolver for {@code users/posts}. For every resolver there is a timer
+ * for each method, a meter of the failed calls named {@code errors} and a histogram of the number of elements or
+ * extensions returned per call named {@code results}.
+ */
+class ResolverMetrics {
+
+    /** The prefix of all resolver metrics. */
+    static final String PREFIX = "concierge.resolvers";
+
+    private final MetricRegistry registry;
+    private final String name;
+    private final Meter errors;
+    private final Histogram results;
+
+    /**
+     * Creates the metrics of the resolver with the specified type and hierarchy.
+     *
+     * @param registry  the registry of the metrics
+     * @param type      the type of the resolver, {@code group} or {@code extension}
+     * @param hierarchy the hierarchy of the resolver
+     */
+    ResolverMetrics(final MetricRegistry registry, final String type, final String[] hierarchy) {
+        Preconditions.checkNotNull(registry, "the metric registry may not be null");
+        Preconditions.checkNotNull(type, "the type may not be null");
+        Preconditions.checkNotNull(hierarchy, "the hierarchy may not be null");
+
+        this.registry = registry;
+        this.name = MetricRegistry.name(PREFIX, type) + "." + String.join(".", hierarchy);
+        this.errors = registry.meter(MetricRegistry.name(name, "errors"));
+        this.results = registry.histogram(MetricRegistry.name(name, "results"));
+    }
+
+    /**
+     * Returns the timer of the specified method.
+     *
+     * @param method the name of the method
+     * @return the timer
+     */
+    Timer timer(final String method) {
+        return registry.timer(MetricRegistry.name(name, method));
+    }
+
+    /**
+     * Makes the specified call and records its duration, its failure or the number of its results.
+     *
+     * @param timer the timer of the called method
+     * @param call  the call
+     * @param count the function returning the number of results or {@code null} if the results won't be counted
+     * @param <T>   the result type
+     * @return the future result of the call
+     */
+    <T> CompletionStage<T> record(final Timer timer, final Supplier<CompletionStage<T>> call, final ToIntFunction<T> count) {
+        final Timer.Context time = timer.time();
+        final CompletionStage<T> result;
+        try {
+            result = call.get();
+        } catch (final RuntimeException e) {
+            time.stop();
+            errors.mark();
+            throw e;
+        }
+
+        result.whenComplete((value, throwable) -> {
+            time.stop();
+            if (throwable != null) {
+                errors.mark();
+            } else if (count != null) {
+                results.update(count.applyAsInt(value));
+            }
+        });
+        return result;
+    }
+}
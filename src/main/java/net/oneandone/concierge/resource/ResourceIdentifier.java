@@ -1,16 +1,40 @@
 package net.oneandone.concierge.resource;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Ordering;
+import com.google.common.escape.Escaper;
+import com.google.common.net.UrlEscapers;
 import net.oneandone.concierge.api.Element;
 import net.oneandone.concierge.api.filter.AddressFilter;
+import net.oneandone.concierge.api.filter.AttributeFilter;
+import net.oneandone.concierge.api.filter.CursorFilter;
+import net.oneandone.concierge.api.filter.FieldsFilter;
 import net.oneandone.concierge.api.filter.Filters;
 import net.oneandone.concierge.api.filter.PageFilter;
+import net.oneandone.concierge.api.filter.SortFilter;
 
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * This class implements our resource identifier pattern.
@@ -38,9 +62,25 @@ import java.util.OptionalInt;
  * <li>and {@code extension}</li>
  * </ol>
  * The resource identifier will be initialized with scope 1) and will return the scope on call of this method.
+ * <p/>
+ * The URI is parsed only once, the names of groups and extensions are interned. All scopes of an URI are views sharing
+ * the parsed segments, the parameters and the complete hierarchy, hierarchies and paths will be derived at most once
+ * per scope.
  */
 public class ResourceIdentifier {
 
+    /** The address standing for any element in the identifier of a sub-group, see {@link #subgroup(String)}. */
+    static final String ANY_ELEMENT = "*";
+
+    /** The interned names of groups and extensions, they are shared by the identifiers of all requests. */
+    private static final Interner<String> HIERARCHY_SEGMENTS = Interners.newWeakInterner();
+
+    /** The splitter of the comma separated values of the {@code fields} and {@code sort} parameters. */
+    private static final Splitter VALUE_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+
+    /** The splitter for the parameters of a query string. */
+    private static final Splitter QUERY_SPLITTER = Splitter.on('&').omitEmptyStrings();
+
     /** The complete URI. */
     private final String[] uri;
 
@@ -50,6 +90,15 @@ public class ResourceIdentifier {
     /** The request parameters. */
     private final Multimap<String, String> parameters;
 
+    /** The complete group and extension hierarchy shared by all scopes, see {@link #completeHierarchy()}. */
+    private final String[] completeHierarchy;
+
+    /** The hierarchy of the current scope, derived on first access. */
+    private String[] hierarchy;
+
+    /** The complete URI joined by slashes, derived on first access. */
+    private String path;
+
     /**
      * Parses the specified URI and returns the resource identifier.
      *
@@ -71,22 +120,98 @@ public class ResourceIdentifier {
         return new ResourceIdentifier(uri, parameters);
     }
 
+    /**
+     * Parses the specified URI including its optional query string and returns the resource identifier.
+     * <p/>
+     * A leading slash will be ignored, so the links of the responses may be used as they are. The names and values of
+     * the parameters must be URL encoded.
+     *
+     * @param uri the URI to parse, e.g. {@code /users?show=profile&page=2}
+     * @return the resource identifier for the specified URI
+     * @throws IllegalArgumentException if the query string isn't encoded properly
+     */
+    public static ResourceIdentifier parseWithQuery(final String uri) {
+        Preconditions.checkNotNull(uri, "the URI may not be null");
+
+        final int queryIndex = uri.indexOf('?');
+        final String path = queryIndex >= 0 ? uri.substring(0, queryIndex) : uri;
+        final Multimap<String, String> parameters = ArrayListMultimap.create();
+        if (queryIndex >= 0) {
+            for (final String parameter : QUERY_SPLITTER.split(uri.substring(queryIndex + 1))) {
+                final int valueIndex = parameter.indexOf('=');
+                if (valueIndex >= 0) {
+                    parameters.put(decode(parameter.substring(0, valueIndex)), decode(parameter.substring(valueIndex + 1)));
+                } else {
+                    parameters.put(decode(parameter), "");
+                }
+            }
+        }
+        return new ResourceIdentifier(path.startsWith("/") ? path.substring(1) : path, parameters);
+    }
+
+    private static String decode(final String value) {
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+        } catch (final UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 is not supported", e);
+        }
+    }
+
     private ResourceIdentifier(final String uri, final Multimap<String, String> parameters) {
         Preconditions.checkNotNull(uri, "the URI may not be null");
         Preconditions.checkArgument(!uri.startsWith("/"), "the URI may not start with slash");
-        if (uri.isEmpty()) {
-            this.uri = new String[0];
-        } else {
-            this.uri = uri.split("/");
-        }
+        this.uri = split(uri);
         this.parameters = ImmutableMultimap.copyOf(parameters);
         this.startIndex = 0;
+        this.completeHierarchy = completeHierarchy(this.uri);
     }
 
-    private ResourceIdentifier(final String[] uri, final Multimap<String, String> parameters, final int startIndex) {
+    private ResourceIdentifier(final String[] uri, final Multimap<String, String> parameters, final int startIndex, final String[] completeHierarchy) {
         this.uri = uri;
         this.parameters = parameters;
         this.startIndex = startIndex;
+        this.completeHierarchy = completeHierarchy;
+    }
+
+    /**
+     * Splits the URI into its segments like {@code uri.split("/")} and interns the names of groups and extensions.
+     *
+     * @param uri the URI
+     * @return the segments
+     */
+    private static String[] split(final String uri) {
+        int length = uri.length();
+        while (length > 0 && uri.charAt(length - 1) == '/') {
+            length--;
+        }
+        if (length == 0) {
+            return new String[0];
+        }
+
+        int segmentCount = 1;
+        for (int i = 0; i < length; i++) {
+            if (uri.charAt(i) == '/') {
+                segmentCount++;
+            }
+        }
+
+        final String[] segments = new String[segmentCount];
+        int start = 0;
+        for (int i = 0; i < segmentCount; i++) {
+            final int end = i < segmentCount - 1 ? uri.indexOf('/', start) : length;
+            final String segment = uri.substring(start, end);
+            segments[i] = i % 2 == 0 ? HIERARCHY_SEGMENTS.intern(segment) : segment;
+            start = end + 1;
+        }
+        return segments;
+    }
+
+    private static String[] completeHierarchy(final String[] uri) {
+        final String[] completeHierarchy = new String[(uri.length + 1) / 2];
+        for (int i = 0; i < uri.length; i += 2) {
+            completeHierarchy[i / 2] = uri[i];
+        }
+        return completeHierarchy;
     }
 
     /**
@@ -111,16 +236,16 @@ public class ResourceIdentifier {
      * Returns the hierarchy for the current scope.
      * <p/>
      * The scope is initially set to the root of the URI and will be iterated within the result of each call on {@link #next()}.
+     * The hierarchy is derived once per scope, the returned array is shared and must not be modified.
      *
      * @return the hierarchy for the current scope
      * @see #completeHierarchy()
      */
     public String[] hierarchy() {
-        final String[] resolverHierarchy = new String[(startIndex / 2) + 1];
-        for (int i = 0; i <= startIndex; i += 2) {
-            resolverHierarchy[i / 2] = uri[i];
+        if (hierarchy == null) {
+            hierarchy = depth() == completeHierarchy.length ? completeHierarchy : Arrays.copyOf(completeHierarchy, depth());
         }
-        return resolverHierarchy;
+        return hierarchy;
     }
 
     /**
@@ -139,18 +264,55 @@ public class ResourceIdentifier {
     }
 
     /**
-     * Returns a copy the complete group and extension hierarchy.
+     * Returns the complete group and extension hierarchy.
      * <p/>
-     * An URI of {@code group1/id1/group2/id2/extension} will return {@code group1/group2/extension}.
+     * An URI of {@code group1/id1/group2/id2/extension} will return {@code group1/group2/extension}. The hierarchy is
+     * shared by all scopes, the returned array must not be modified.
      *
      * @return the complete group and extension hierarchy
      */
     public String[] completeHierarchy() {
-        final String[] resolverHierarchy = uri.length % 2 == 0 ? new String[uri.length / 2] : new String[uri.length / 2 + 1];
-        for (int i = 0; i < uri.length; i += 2) {
-            resolverHierarchy[i / 2] = uri[i];
+        return completeHierarchy;
+    }
+
+    /**
+     * Returns the length of the {@link #hierarchy()} of the current scope without creating it.
+     *
+     * @return the length of the hierarchy for the current scope
+     */
+    int depth() {
+        return (startIndex / 2) + 1;
+    }
+
+    /**
+     * Returns the length of the {@link #completeHierarchy()} without creating it.
+     *
+     * @return the length of the complete hierarchy
+     */
+    int completeDepth() {
+        return (uri.length + 1) / 2;
+    }
+
+    /**
+     * Returns the segment of the complete hierarchy at the specified level without creating the hierarchy.
+     *
+     * @param level the level, starting with {@code 0}
+     * @return the group or extension name at the specified level
+     */
+    String hierarchySegment(final int level) {
+        return completeHierarchy[level];
+    }
+
+    /**
+     * Returns the complete URI joined by slashes with a leading slash, e.g. for the links of a response.
+     *
+     * @return the path of the complete URI, e.g. {@code /group1/id1/group2}
+     */
+    String path() {
+        if (path == null) {
+            path = "/" + String.join("/", uri);
         }
-        return resolverHierarchy;
+        return path;
     }
 
     /**
@@ -178,7 +340,7 @@ public class ResourceIdentifier {
      */
     public ResourceIdentifier next() {
         if (hasNextScope()) {
-            return new ResourceIdentifier(uri, parameters, startIndex + 2);
+            return new ResourceIdentifier(uri, parameters, startIndex + 2, completeHierarchy);
         }
         throw new IndexOutOfBoundsException("next resource identifier is not available");
     }
@@ -226,8 +388,8 @@ public class ResourceIdentifier {
     public ResourceIdentifier extend(final String extension) {
         if (hasElementIdentifier()) {
             final String[] newUri = Arrays.copyOfRange(uri, 0, startIndex + 3);
-            newUri[startIndex + 2] = extension;
-            return new ResourceIdentifier(newUri, parameters, startIndex);
+            newUri[startIndex + 2] = HIERARCHY_SEGMENTS.intern(extension);
+            return new ResourceIdentifier(newUri, parameters, startIndex, completeHierarchy(newUri));
         }
         throw new IllegalArgumentException("resource identifier is not extensible");
     }
@@ -246,11 +408,52 @@ public class ResourceIdentifier {
         if (!hasElementIdentifier()) {
             final String[] newUri = Arrays.copyOfRange(uri, 0, startIndex + 2);
             newUri[startIndex + 1] = element.address();
-            return new ResourceIdentifier(newUri, parameters, startIndex);
+            return new ResourceIdentifier(newUri, parameters, startIndex, completeHierarchy);
         }
         throw new IllegalArgumentException("current resource identifier " + Arrays.toString(uri) + " is not expendable by an element");
     }
 
+    /**
+     * Returns the resource identifier for the scope of the specified sub-group of the elements of the current scope.
+     * <p/>
+     * If the current scope has no element identifier, the address of the parent element will be left open as
+     * {@link #ANY_ELEMENT}, so a single identifier serves the sub-groups of all elements of a group. It equals the
+     * identifier of {@code extend(element).extend(name).next()} in everything but the address of the parent element.
+     * <p/>
+     * The parameters restricting the requested group, see {@link #isGroupParameter(String)}, won't apply to the sub-group.
+     *
+     * @param name the name of the sub-group
+     * @return the resource identifier of the sub-group
+     */
+    ResourceIdentifier subgroup(final String name) {
+        final String[] newUri = Arrays.copyOfRange(uri, 0, startIndex + 3);
+        if (!hasElementIdentifier()) {
+            newUri[startIndex + 1] = ANY_ELEMENT;
+        }
+        newUri[startIndex + 2] = HIERARCHY_SEGMENTS.intern(name);
+
+        final ImmutableMultimap.Builder<String, String> subgroupParameters = ImmutableMultimap.builder();
+        for (final Map.Entry<String, Collection<String>> parameter : parameters.asMap().entrySet()) {
+            if (!isGroupParameter(parameter.getKey())) {
+                subgroupParameters.putAll(parameter.getKey(), parameter.getValue());
+            }
+        }
+        return new ResourceIdentifier(newUri, subgroupParameters.build(), startIndex + 2, completeHierarchy(newUri));
+    }
+
+    /**
+     * Returns {@code true} if the parameter with the specified name only applies to the requested group and not to the
+     * sub-groups shown for its elements, i.e. the {@code fields} projection, the {@code filter[name]} attribute filters,
+     * the {@code sort} order and the {@code cursor} of the elements of the requested group. A cursor was issued by the
+     * resolver of the requested group and is meaningless to the resolvers of its sub-groups.
+     *
+     * @param name the name of the parameter
+     * @return {@code true} if the parameter won't be passed on to shown sub-groups
+     */
+    private static boolean isGroupParameter(final String name) {
+        return "fields".equals(name) || "sort".equals(name) || "cursor".equals(name) || (name.startsWith("filter[") && name.endsWith("]"));
+    }
+
     /**
      * Returns all extensions as specified by the {@code show} query parameter.
      *
@@ -260,10 +463,38 @@ public class ResourceIdentifier {
         return parameters.get("show");
     }
 
+    /**
+     * Returns the normalized form of the complete URI including all request parameters.
+     * <p/>
+     * The parameters are sorted by their names and values, so all requests for the same resource will return the same
+     * normalized form regardless of the order of their parameters.
+     *
+     * @return the normalized URI
+     */
+    String normalized() {
+        final StringBuilder builder = new StringBuilder(String.join("/", uri));
+        final Escaper escaper = UrlEscapers.urlFormParameterEscaper();
+
+        char separator = '?';
+        for (final Map.Entry<String, Collection<String>> parameter : new TreeMap<>(parameters.asMap()).entrySet()) {
+            final String name = escaper.escape(parameter.getKey());
+            for (final String value : Ordering.natural().sortedCopy(parameter.getValue())) {
+                builder.append(separator).append(name).append('=').append(escaper.escape(value));
+                separator = '&';
+            }
+        }
+        return builder.toString();
+    }
+
     /**
      * Returns the filters instance for the current scope of {@code this} resource identifier.
      * <p/>
-     * See {@link #next()} to learn more about the scope.
+     * See {@link #next()} to learn more about the scope. The last scope will be paged by {@link CursorFilter cursor}
+     * if a {@code cursor} parameter is present, otherwise by {@link PageFilter page} if a {@code page} or {@code per_page}
+     * parameter is present. The content of the elements of the last scope will be restricted to the {@link FieldsFilter
+     * fields} of the comma separated {@code fields} parameter. The elements of the last scope will be filtered by the
+     * {@link AttributeFilter attributes} of the {@code filter[name]} parameters and sorted by the {@link SortFilter fields}
+     * of the comma separated {@code sort} parameter, fields prefixed by {@code -} will be sorted in descending order.
      *
      * @return the filters
      */
@@ -273,7 +504,10 @@ public class ResourceIdentifier {
             builder.add(new AddressFilter(elementIdentifier()));
         }
 
-        if (!hasNextScope() && (parameters.containsKey("page") || parameters.containsKey("per_page"))) {
+        final Optional<String> cursor = parameters.get("cursor").stream().filter(value -> !value.isEmpty()).findFirst();
+        if (!hasNextScope() && cursor.isPresent()) {
+            builder.add(new CursorFilter(cursor.get(), perPage()));
+        } else if (!hasNextScope() && (parameters.containsKey("page") || parameters.containsKey("per_page"))) {
             final Collection<String> pageValues = parameters.get("page");
             final int page;
             if (pageValues.isEmpty()) {
@@ -282,16 +516,56 @@ public class ResourceIdentifier {
                 page = Integer.parseInt(pageValues.stream().findFirst().get());
             }
 
-            final Collection<String> perPageValues = parameters.get("per_page");
-            final OptionalInt perPage;
-            if (perPageValues.isEmpty()) {
-                perPage = OptionalInt.empty();
-            } else {
-                perPage = OptionalInt.of(Integer.parseInt(perPageValues.stream().findFirst().get()));
+            builder.add(new PageFilter(page, perPage()));
+        }
+
+        if (!hasNextScope() && parameters.containsKey("fields")) {
+            final Set<String> fields = new LinkedHashSet<>();
+            for (final String value : parameters.get("fields")) {
+                Iterables.addAll(fields, VALUE_SPLITTER.split(value));
+            }
+            if (!fields.isEmpty()) {
+                builder.add(new FieldsFilter(Collections.unmodifiableSet(fields)));
+            }
+        }
+
+        if (!hasNextScope()) {
+            final Map<String, Set<String>> attributes = new LinkedHashMap<>();
+            for (final Map.Entry<String, Collection<String>> parameter : parameters.asMap().entrySet()) {
+                final String name = parameter.getKey();
+                if (name.startsWith("filter[") && name.endsWith("]") && name.length() > "filter[]".length()) {
+                    attributes.put(name.substring("filter[".length(), name.length() - 1), Collections.unmodifiableSet(new LinkedHashSet<>(parameter.getValue())));
+                }
+            }
+            if (!attributes.isEmpty()) {
+                builder.add(new AttributeFilter(Collections.unmodifiableMap(attributes)));
+            }
+        }
+
+        if (!hasNextScope() && parameters.containsKey("sort")) {
+            final List<SortFilter.Order> orders = new ArrayList<>();
+            for (final String value : parameters.get("sort")) {
+                for (final String field : VALUE_SPLITTER.split(value)) {
+                    final boolean descending = field.startsWith("-");
+                    final String name = descending || field.startsWith("+") ? field.substring(1) : field;
+                    if (!name.isEmpty()) {
+                        orders.add(new SortFilter.Order(name, descending));
+                    }
+                }
+            }
+            if (!orders.isEmpty()) {
+                builder.add(new SortFilter(Collections.unmodifiableList(orders)));
             }
-            builder.add(new PageFilter(page, perPage));
         }
 
         return builder.build();
     }
+
+    private OptionalInt perPage() {
+        final Collection<String> perPageValues = parameters.get("per_page");
+        if (perPageValues.isEmpty()) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(Integer.parseInt(perPageValues.stream().findFirst().get()));
+    }
 }
@@ -0,0 +1,72 @@
+package net.oneandone.concierge.resource;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical computations, so only one of them is in flight at any time.
+ * <p/>
+ * The first caller of a key starts the computation, all callers of the same key joining while it is in flight share its
+ * future result. The computation is forgotten as soon as it is completed, callers after that will start a new one, so
+ * results are never reused beyond the lifetime of the computation.
+ * <p/>
+ * Every caller receives its own dependent future, cancelling it, e.g. after the deadline of a request is exceeded, won't
+ * affect the other callers.
+ */
+class SingleFlight {
+
+    /** The computations in flight by their keys. */
+    private final ConcurrentMap<Object, CompletableFuture<?>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the future result of the computation in flight for the specified key or starts the specified computation.
+     * <p/>
+     * The key must implement {@link Object#equals(Object)} and {@link Object#hashCode()} by value.
+     *
+     * @param key         the key identifying the computation
+     * @param computation the computation started if none is in flight for the key
+     * @param <T>         the result type
+     * @return the future result of the computation
+     */
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<T> share(final Object key, final Supplier<CompletableFuture<T>> computation) {
+        Preconditions.checkNotNull(key, "the key may not be null");
+        Preconditions.checkNotNull(computation, "the computation may not be null");
+
+        final CompletableFuture<T> flight = new CompletableFuture<>();
+        final CompletableFuture<?> existingFlight = flights.putIfAbsent(key, flight);
+        if (existingFlight != null) {
+            return ((CompletableFuture<T>) existingFlight).thenApply(Function.identity());
+        }
+
+        // the flight is removed before it is completed, so callers of a completed flight will start a new computation
+        try {
+            computation.get().whenComplete((value, throwable) -> {
+                flights.remove(key, flight);
+                if (throwable != null) {
+                    flight.completeExceptionally(throwable);
+                } else {
+                    flight.complete(value);
+                }
+            });
+        } catch (final RuntimeException e) {
+            flights.remove(key, flight);
+            flight.completeExceptionally(e);
+        }
+        return flight.thenApply(Function.identity());
+    }
+
+    /**
+     * Returns the number of computations in flight.
+     *
+     * @return the number of computations in flight
+     */
+    int size() {
+        return flights.size();
+    }
+}
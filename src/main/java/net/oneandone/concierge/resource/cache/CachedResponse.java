@@ -0,0 +1,46 @@
+package net.oneandone.concierge.resource.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.oneandone.concierge.resource.response.ApiResourcePaging;
+import net.oneandone.concierge.resource.response.Revalidator;
+
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+/** A rendered response with all information required to create the HTTP response again. */
+@AllArgsConstructor
+public class CachedResponse {
+
+    /** The UTF-8 encoded JSON body. */
+    @Getter private final byte[] body;
+
+    /** The strong entity tag of the body. */
+    @Getter private final String eTag;
+
+    /** The date of the last modification of the resource. */
+    @Getter private final ZonedDateTime lastModified;
+
+    /** The paging of the resource. */
+    @Getter private final Optional<ApiResourcePaging> paging;
+
+    /** The check whether the resource has been modified since the response has been rendered. */
+    @Getter private final Optional<Revalidator> revalidator;
+
+    /** The gzip compressed body or {@code null} if the body won't be compressed. */
+    @Getter private final byte[] compressedBody;
+
+    /**
+     * Creates the cached response without a compressed body.
+     *
+     * @param body         the UTF-8 encoded JSON body
+     * @param eTag         the strong entity tag of the body
+     * @param lastModified the date of the last modification of the resource
+     * @param paging       the paging of the resource
+     * @param revalidator  the check whether the resource has been modified since the response has been rendered
+     */
+    public CachedResponse(final byte[] body, final String eTag, final ZonedDateTime lastModified, final Optional<ApiResourcePaging> paging, final Optional<Revalidator> revalidator) {
+        this(body, eTag, lastModified, paging, revalidator, null);
+    }
+
+}
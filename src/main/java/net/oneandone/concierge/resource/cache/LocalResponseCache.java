@@ -0,0 +1,83 @@
+package net.oneandone.concierge.resource.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.AllArgsConstructor;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response cache within the heap of the server.
+ * <p/>
+ * The cache is bounded by the total size of the cached response bodies including their compressed bodies, the least
+ * recently used responses will be evicted first.
+ */
+public class LocalResponseCache implements ResponseCache {
+
+    /** The cached responses. */
+    private final Cache<String, Entry> cache;
+
+    /** The time source for the expiration of the responses. */
+    private final Ticker ticker;
+
+    /**
+     * Creates the cache with the specified maximum size.
+     *
+     * @param maximumSize the maximum total size of all cached response bodies in bytes
+     */
+    public LocalResponseCache(final long maximumSize) {
+        this(maximumSize, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    LocalResponseCache(final long maximumSize, final Ticker ticker) {
+        Preconditions.checkArgument(maximumSize >= 0, "the maximum size may not be negative");
+        Preconditions.checkNotNull(ticker, "the ticker may not be null");
+
+        this.ticker = ticker;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maximumSize)
+                .weigher((String key, Entry entry) -> key.length() + entry.response.getBody().length
+                        + (entry.response.getCompressedBody() != null ? entry.response.getCompressedBody().length : 0))
+                .build();
+    }
+
+    @Override
+    public Optional<CachedResponse> get(final String key) {
+        final Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+
+        if (ticker.read() - entry.expiration >= 0) {
+            cache.asMap().remove(key, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry.response);
+    }
+
+    @Override
+    public void put(final String key, final CachedResponse response, final long timeToLive, final TimeUnit unit) {
+        Preconditions.checkNotNull(key, "the key may not be null");
+        Preconditions.checkNotNull(response, "the response may not be null");
+
+        cache.put(key, new Entry(response, ticker.read() + unit.toNanos(timeToLive)));
+    }
+
+    /** A cached response with its expiration. */
+    @AllArgsConstructor
+    private static class Entry {
+
+        /** The cached response. */
+        private final CachedResponse response;
+
+        /** The value of the ticker when the response expires. */
+        private final long expiration;
+
+    }
+
+}
@@ -0,0 +1,34 @@
+package net.oneandone.concierge.resource.cache;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of rendered responses.
+ * <p/>
+ * The key of a response is the normalized URI of the request including all request parameters. Implementations may
+ * evict responses at any time, but must not return responses after their time to live has been exceeded.
+ *
+ * @see LocalResponseCache
+ */
+public interface ResponseCache {
+
+    /**
+     * Returns the cached response for the specified key.
+     *
+     * @param key the key of the response
+     * @return the optional cached response
+     */
+    Optional<CachedResponse> get(final String key);
+
+    /**
+     * Puts the response for the specified key into the cache.
+     *
+     * @param key        the key of the response
+     * @param response   the response
+     * @param timeToLive the time to live of the response
+     * @param unit       the unit of the time to live
+     */
+    void put(final String key, final CachedResponse response, final long timeToLive, final TimeUnit unit);
+
+}
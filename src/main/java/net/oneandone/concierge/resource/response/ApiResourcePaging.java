@@ -9,15 +9,32 @@ public class ApiResourcePaging {
     private final int page;
     private final int perPage;
     private final int total;
+    private final int elements;
+    private final boolean estimated;
 
     public String getAcceptRanges() {
         return group;
     }
 
+    public boolean isTotalKnown() {
+        return total >= 0 && !estimated;
+    }
+
+    public String getEstimatedTotal() {
+        return estimated && total >= 0 ? String.valueOf(total) : null;
+    }
+
     public String getContentRange() {
         int min = (page * perPage) - perPage;
-        int max = Math.min((page * perPage), total) - 1;
-        return getAcceptRanges() + " " + min + "-" + max + "/" + total;
+        if (isTotalKnown()) {
+            int max = Math.min((page * perPage), total) - 1;
+            return getAcceptRanges() + " " + min + "-" + max + "/" + total;
+        }
+
+        if (elements <= 0) {
+            return null;
+        }
+        return getAcceptRanges() + " " + min + "-" + (min + elements - 1) + "/*";
     }
 
 }
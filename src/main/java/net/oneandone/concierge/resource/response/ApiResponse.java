@@ -11,19 +11,31 @@ public class ApiResponse {
     @Getter private JsonStructure object;
     @Getter private ZonedDateTime lastModified;
     @Getter private Optional<ApiResourcePaging> paging;
+    @Getter private Optional<Revalidator> revalidator;
 
-    private ApiResponse(final JsonStructure object, final ZonedDateTime lastModified, final Optional<ApiResourcePaging> paging) {
+    private ApiResponse(final JsonStructure object, final ZonedDateTime lastModified, final Optional<ApiResourcePaging> paging, final Optional<Revalidator> revalidator) {
         this.object = object;
         this.lastModified = lastModified;
         this.paging = paging;
+        this.revalidator = revalidator;
     }
 
     public static ApiResponse create(final JsonStructure object, final ZonedDateTime lastModified) {
-        return new ApiResponse(object, lastModified, Optional.empty());
+        return new ApiResponse(object, lastModified, Optional.empty(), Optional.empty());
     }
 
     public static ApiResponse create(final JsonStructure object, final ZonedDateTime lastModified, final ApiResourcePaging paging) {
-        return new ApiResponse(object, lastModified, Optional.of(paging));
+        return new ApiResponse(object, lastModified, Optional.of(paging), Optional.empty());
+    }
+
+    /**
+     * Returns a copy of this response with the specified revalidator.
+     *
+     * @param revalidator the revalidator of the response
+     * @return the copy of this response
+     */
+    public ApiResponse withRevalidator(final Revalidator revalidator) {
+        return new ApiResponse(object, lastModified, paging, Optional.of(revalidator));
     }
 
 }
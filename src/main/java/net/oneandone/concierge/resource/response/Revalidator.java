@@ -0,0 +1,18 @@
+package net.oneandone.concierge.resource.response;
+
+import java.util.concurrent.CompletionStage;
+
+/** Checks whether a resolved resource has been modified since its resolution without resolving it again. */
+@FunctionalInterface
+public interface Revalidator {
+
+    /**
+     * Returns {@code true} if the resource has been modified since its resolution.
+     * <p/>
+     * If the modification can't be determined {@code false} will be returned.
+     *
+     * @return the future result of the check
+     */
+    CompletionStage<Boolean> isModified();
+
+}
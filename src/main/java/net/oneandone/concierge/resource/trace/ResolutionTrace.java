@@ -0,0 +1,208 @@
+package net.oneandone.concierge.resource.trace;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The trace of the resolution of a single request.
+ * <p/>
+ * The trace records every resolver call made for the request with the hierarchy of the resolver, the parent, the
+ * filters, the duration and the number of results. Calls answered by the result of an earlier call of the same request
+ * won't be recorded. Resolvers may complete on any thread, so the trace is thread safe.
+ */
+public class ResolutionTrace {
+
+    /** The unique id of the trace. */
+    @Getter private final String id = UUID.randomUUID().toString();
+
+    /** The URI of the traced request. */
+    @Getter private final String uri;
+
+    /** The date of the start of the request. */
+    private final ZonedDateTime started = ZonedDateTime.now();
+
+    /** The start of the request in nanoseconds, see {@link System#nanoTime()}. */
+    private final long start = System.nanoTime();
+
+    /** The resolver calls in the order they were made. */
+    private final Queue<Call> calls = new ConcurrentLinkedQueue<>();
+
+    /** The duration of the request in nanoseconds or {@code -1} while the request is in progress. */
+    private volatile long duration = -1;
+
+    /** The status of the response. */
+    private volatile int status;
+
+    /**
+     * Starts the trace of the request for the specified URI.
+     *
+     * @param uri the URI of the request
+     */
+    public ResolutionTrace(final String uri) {
+        this.uri = Preconditions.checkNotNull(uri, "the URI may not be null");
+    }
+
+    /**
+     * Records the start of a resolver call.
+     *
+     * @param resolver the hierarchy of the resolver, e.g. {@code users/posts}
+     * @param method   the called method
+     * @param parent   the description of the parent of the call or {@code null} if there is no parent
+     * @param filters  the description of the filters of the call or {@code null} if there are no filters
+     * @return the call which has to be completed by the caller
+     */
+    public Call start(final String resolver, final String method, final String parent, final String filters) {
+        final Call call = new Call(resolver, method, parent, filters, start);
+        calls.add(call);
+        return call;
+    }
+
+    /**
+     * Records the end of the request.
+     *
+     * @param status the status of the response
+     */
+    public void finish(final int status) {
+        this.status = status;
+        this.duration = System.nanoTime() - start;
+    }
+
+    /**
+     * Returns the value of the {@code Server-Timing} header for this trace.
+     * <p/>
+     * The calls are summarized by resolver and method, e.g. {@code users.posts.elements;dur=12.345;desc="3 calls"}. The
+     * first metric named {@code total} is the duration of the whole request.
+     *
+     * @return the value of the {@code Server-Timing} header
+     */
+    public String serverTiming() {
+        final Map<String, long[]> summary = new LinkedHashMap<>();
+        for (final Call call : calls) {
+            final long[] callsAndDuration = summary.computeIfAbsent(call.resolver.replace('/', '.') + "." + call.method, name -> new long[2]);
+            callsAndDuration[0]++;
+            callsAndDuration[1] += Math.max(0, call.duration);
+        }
+
+        final StringBuilder serverTiming = new StringBuilder("total;dur=").append(milliseconds(duration));
+        for (final Map.Entry<String, long[]> entry : summary.entrySet()) {
+            final long count = entry.getValue()[0];
+            serverTiming.append(", ").append(entry.getKey())
+                    .append(";dur=").append(milliseconds(entry.getValue()[1]))
+                    .append(";desc=\"").append(count).append(count == 1 ? " call\"" : " calls\"");
+        }
+        return serverTiming.toString();
+    }
+
+    /**
+     * Returns the JSON document of this trace, all durations and offsets are in milliseconds.
+     *
+     * @return the JSON document
+     */
+    public JsonObject toJson() {
+        final JsonArrayBuilder callsBuilder = Json.createArrayBuilder();
+        for (final Call call : calls) {
+            callsBuilder.add(call.toJson());
+        }
+
+        final JsonObjectBuilder traceBuilder = Json.createObjectBuilder()
+                .add("id", id)
+                .add("uri", uri)
+                .add("started", started.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+        if (duration >= 0) {
+            traceBuilder.add("status", status).add("duration", milliseconds(duration));
+        }
+        return traceBuilder.add("calls", callsBuilder).build();
+    }
+
+    private static BigDecimal milliseconds(final long nanoseconds) {
+        return BigDecimal.valueOf(Math.max(0, nanoseconds) / 1000, 3);
+    }
+
+    /** A single resolver call of a trace. */
+    public static class Call {
+
+        private final String resolver;
+        private final String method;
+        private final String parent;
+        private final String filters;
+
+        /** The start of the call in nanoseconds, see {@link System#nanoTime()}. */
+        private final long start = System.nanoTime();
+
+        /** The start of the call relative to the start of the request in nanoseconds. */
+        private final long offset;
+
+        /** The duration of the call in nanoseconds or {@code -1} while the call is in progress. */
+        private volatile long duration = -1;
+
+        /** The number of results or {@code -1} if not counted. */
+        private volatile int results = -1;
+
+        /** The message of the exception of a failed call. */
+        private volatile String error;
+
+        private Call(final String resolver, final String method, final String parent, final String filters, final long requestStart) {
+            this.resolver = resolver;
+            this.method = method;
+            this.parent = parent;
+            this.filters = filters;
+            this.offset = start - requestStart;
+        }
+
+        /**
+         * Records the successful completion of the call.
+         *
+         * @param results the number of returned elements or extensions or {@code -1} if not applicable
+         */
+        public void succeeded(final int results) {
+            this.results = results;
+            this.duration = System.nanoTime() - start;
+        }
+
+        /**
+         * Records the failure of the call.
+         *
+         * @param throwable the exception of the call
+         */
+        public void failed(final Throwable throwable) {
+            this.error = String.valueOf(throwable);
+            this.duration = System.nanoTime() - start;
+        }
+
+        private JsonObject toJson() {
+            final JsonObjectBuilder callBuilder = Json.createObjectBuilder()
+                    .add("resolver", resolver)
+                    .add("method", method);
+            if (parent != null) {
+                callBuilder.add("parent", parent);
+            }
+            if (filters != null) {
+                callBuilder.add("filters", filters);
+            }
+            callBuilder.add("offset", milliseconds(offset));
+            if (duration >= 0) {
+                callBuilder.add("duration", milliseconds(duration));
+            }
+            if (results >= 0) {
+                callBuilder.add("results", results);
+            }
+            if (error != null) {
+                callBuilder.add("error", error);
+            }
+            return callBuilder.build();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package net.oneandone.concierge.resource.trace;
+
+import com.google.common.base.Preconditions;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonStructure;
+import javax.json.JsonWriter;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Serves the retained {@link ResolutionTraces resolution traces} on the admin port.
+ * <p/>
+ * {@code GET /<id>} returns the JSON document of the trace with the specified id, the root lists the ids and URIs of
+ * all retained traces.
+ */
+public class ResolutionTraceServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The retained traces. */
+    private final transient ResolutionTraces traces;
+
+    /**
+     * Creates the servlet for the specified traces.
+     *
+     * @param traces the retained traces
+     */
+    public ResolutionTraceServlet(final ResolutionTraces traces) {
+        this.traces = Preconditions.checkNotNull(traces, "the traces may not be null");
+    }
+
+    @Override
+    protected void doGet(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        final String id = request.getPathInfo() == null ? "" : request.getPathInfo().replaceFirst("^/", "");
+
+        response.setContentType("application/json");
+        response.setHeader("Cache-Control", "must-revalidate,no-cache,no-store");
+        if (id.isEmpty()) {
+            final JsonArrayBuilder tracesBuilder = Json.createArrayBuilder();
+            for (final ResolutionTrace trace : traces.all()) {
+                tracesBuilder.add(Json.createObjectBuilder().add("id", trace.getId()).add("uri", trace.getUri()));
+            }
+            write(response, tracesBuilder.build());
+            return;
+        }
+
+        final Optional<ResolutionTrace> trace = traces.get(id);
+        if (!trace.isPresent()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        write(response, trace.get().toJson());
+    }
+
+    private static void write(final HttpServletResponse response, final JsonStructure json) throws IOException {
+        try (final JsonWriter writer = Json.createWriter(response.getOutputStream())) {
+            writer.write(json);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package net.oneandone.concierge.resource.trace;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The most recent resolution traces.
+ * <p/>
+ * The number of retained traces is bounded, the oldest traces will be dropped first.
+ */
+public class ResolutionTraces {
+
+    /** The traces by their id. */
+    private final Cache<String, ResolutionTrace> traces;
+
+    /**
+     * Creates the store for the specified number of traces.
+     *
+     * @param retained the maximum number of retained traces
+     */
+    public ResolutionTraces(final int retained) {
+        Preconditions.checkArgument(retained >= 0, "the number of retained traces may not be negative");
+
+        this.traces = CacheBuilder.newBuilder().maximumSize(retained).build();
+    }
+
+    /**
+     * Adds the specified trace.
+     *
+     * @param trace the trace
+     */
+    public void add(final ResolutionTrace trace) {
+        Preconditions.checkNotNull(trace, "the trace may not be null");
+
+        traces.put(trace.getId(), trace);
+    }
+
+    /**
+     * Returns the optional trace with the specified id.
+     *
+     * @param id the id of the trace
+     * @return the trace or an empty optional if there is no such trace (anymore)
+     */
+    public Optional<ResolutionTrace> get(final String id) {
+        return Optional.ofNullable(traces.getIfPresent(id));
+    }
+
+    /**
+     * Returns all retained traces.
+     *
+     * @return the retained traces in no particular order
+     */
+    public List<ResolutionTrace> all() {
+        return new ArrayList<>(traces.asMap().values());
+    }
+}
@@ -3,6 +3,7 @@ package net.oneandone.concierge.api.filter;
 import org.testng.annotations.Test;
 
 import java.util.Optional;
+import java.util.OptionalInt;
 
 import static org.testng.Assert.*;
 
@@ -51,5 +52,35 @@ public class FiltersTest {
         assertEquals(addressFilter.get(), filter, "the address filter must be the same as addded");
     }
 
+    @Test
+    public void testEquality() {
+        final Filters filters = Filters.Builder.initialize().add(new AddressFilter("id")).add(new PageFilter(2, OptionalInt.of(10))).build();
+        final Filters equalFilters = Filters.Builder.initialize().add(new PageFilter(2, OptionalInt.of(10))).add(new AddressFilter("id")).build();
+
+        assertEquals(equalFilters, filters, "filters with equal filters must be equal regardless of their order");
+        assertEquals(equalFilters.hashCode(), filters.hashCode(), "equal filters must have the same hash code");
+        assertNotEquals(Filters.Builder.initialize().add(new AddressFilter("id")).build(), filters, "filters with different filters may not be equal");
+        assertNotEquals(Filters.Builder.initialize().add(new AddressFilter("id")).add(new PageFilter(3, OptionalInt.of(10))).build(), filters, "filters with different pages may not be equal");
+    }
+
+    @Test
+    public void testWith() {
+        final Filters filters = Filters.Builder.initialize().add(new AddressFilter("id")).add(new PageFilter(2, OptionalInt.of(10))).build();
+
+        final Filters replacedFilters = filters.with(new PageFilter(2, OptionalInt.of(5)));
+        assertEquals(replacedFilters.size(), 2, "the page filter must be replaced");
+        assertEquals(replacedFilters.get(PageFilter.class).get().getPerPage(), OptionalInt.of(5), "the page filter must be replaced");
+        assertEquals(filters.get(PageFilter.class).get().getPerPage(), OptionalInt.of(10), "the filters may not be modified");
+        assertEquals(filters.with(new CursorFilter("next", OptionalInt.empty())).size(), 3, "the cursor filter must be added");
+    }
+
+    @Test
+    public void testWithout() {
+        final Filters filters = Filters.Builder.initialize().add(new AddressFilter("id")).add(new PageFilter(2, OptionalInt.of(10))).build();
+
+        assertEquals(filters.without(PageFilter.class), Filters.Builder.initialize().add(new AddressFilter("id")).build(), "the page filter must be removed");
+        assertEquals(filters.without(CursorFilter.class), filters, "filters without the removed filter must be unchanged");
+        assertEquals(filters.size(), 2, "the filters may not be modified");
+    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package net.oneandone.concierge.api.resolver;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Extension;
+import net.oneandone.concierge.api.Group;
+import net.oneandone.concierge.demo.model.DemoData;
+import net.oneandone.concierge.demo.resolver.UserProfileExtensionResolver;
+import org.testng.annotations.Test;
+
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+public class AsyncExtensionResolverTest {
+
+    private static final Group USERS = Group.withElements("users", Arrays.asList(DemoData.USER1, DemoData.USER4), 2, ZonedDateTime.now());
+
+    @Test
+    public void testAsyncResolverIsNotAdapted() {
+        final AsyncExtensionResolver asyncResolver = new AsyncExtensionResolver() {
+            @Override
+            public CompletionStage<Optional<Extension>> resolveAsync(final Element element) {
+                return CompletableFuture.completedFuture(Optional.empty());
+            }
+
+            @Override
+            public String[] hierarchy() {
+                return new String[]{"users", "profile"};
+            }
+        };
+
+        assertSame(AsyncExtensionResolver.of(asyncResolver, MoreExecutors.directExecutor()), asyncResolver);
+        assertTrue(asyncResolver.resolve(USERS).isEmpty());
+    }
+
+    @Test
+    public void testBlockingResolverIsCalledOnExecutor() {
+        final AtomicInteger executions = new AtomicInteger();
+        final Executor countingExecutor = command -> {
+            executions.incrementAndGet();
+            command.run();
+        };
+
+        final AsyncExtensionResolver resolver = AsyncExtensionResolver.of(new UserProfileExtensionResolver(), countingExecutor);
+        assertEquals(resolver.hierarchy(), new String[]{"users", "profile"});
+
+        final Map<Element, Extension> extensions = resolver.resolveAsync(USERS).toCompletableFuture().join();
+        assertEquals(extensions.size(), 1);
+        assertEquals(extensions.get(DemoData.USER4), DemoData.USER_PROFILES.get(DemoData.USER4));
+
+        // the demo resolver doesn't resolve groups by itself, so every element is resolved on its own
+        assertEquals(executions.get(), 2);
+    }
+
+}
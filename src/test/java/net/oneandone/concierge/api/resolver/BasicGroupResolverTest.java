@@ -1,8 +1,10 @@
 package net.oneandone.concierge.api.resolver;
 
+import net.oneandone.concierge.api.CursorPage;
 import net.oneandone.concierge.api.Element;
 import net.oneandone.concierge.api.Group;
 import net.oneandone.concierge.api.filter.AddressFilter;
+import net.oneandone.concierge.api.filter.CursorFilter;
 import net.oneandone.concierge.api.filter.Filters;
 import net.oneandone.concierge.api.filter.PageFilter;
 import net.oneandone.concierge.demo.model.DemoData;
@@ -12,9 +14,13 @@ import org.testng.annotations.Test;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.testng.Assert.*;
 
@@ -106,5 +112,181 @@ public class BasicGroupResolverTest {
         assertEquals(4, group.elements().size());
     }
 
+    @Test
+    public void testGetGroupsForParents() {
+        final Map<Element, Group> groups = groupResolver.groups(Arrays.asList(DemoData.USER1, DemoData.USER2), Filters.Builder.initialize().build());
+        assertNotNull(groups);
+        assertEquals(2, groups.size());
+        assertEquals(4, groups.get(DemoData.USER1).total());
+        assertEquals(4, groups.get(DemoData.USER2).elements().size());
+    }
+
+    @Test
+    public void testGetListOfElementsByCursor() {
+        final BasicGroupResolver cursorResolver = new BasicGroupResolver() {
+            @Override
+            public String[] hierarchy() {
+                return new String[]{"tests"};
+            }
+
+            @Override
+            public int defaultPageSize() {
+                return 2;
+            }
+
+            @Override
+            public int maximumPageSize() {
+                return 10;
+            }
+
+            @Override
+            public Optional<Element> element(Element parent, String address) {
+                return Optional.empty();
+            }
+
+            @Override
+            public int total(Element parent, Filters filters) {
+                return 4;
+            }
+
+            @Override
+            public ZonedDateTime lastUpdate(Element parent, Filters filters) {
+                return ZonedDateTime.of(2016, 4, 16, 10, 49, 0, 0, ZoneId.systemDefault());
+            }
+
+            @Override
+            public List<Element> elements(Element parent, int page, int perPage, Filters filters) {
+                return Arrays.asList(DemoData.USER3, DemoData.USER4);
+            }
+
+            @Override
+            public Optional<CursorPage> elements(Element parent, String cursor, int perPage, Filters filters) {
+                if (cursor == null) {
+                    return Optional.of(CursorPage.of(Arrays.asList(DemoData.USER1, DemoData.USER2), "2"));
+                }
+                assertEquals(cursor, "2");
+                assertEquals(perPage, 3);
+                return Optional.of(CursorPage.of(Arrays.asList(DemoData.USER3, DemoData.USER4), null));
+            }
+        };
+
+        final Group firstPage = cursorResolver.elements(null, Filters.Builder.initialize().build());
+        assertEquals(firstPage.elements(), Arrays.asList(DemoData.USER1, DemoData.USER2));
+        assertEquals(firstPage.total(), 4);
+        assertEquals(firstPage.nextCursor().get(), "2");
+
+        final Group nextPage = cursorResolver.elements(null, Filters.Builder.initialize().add(new CursorFilter("2", OptionalInt.of(3))).build());
+        assertEquals(nextPage.elements(), Arrays.asList(DemoData.USER3, DemoData.USER4));
+        assertFalse(nextPage.nextCursor().isPresent());
+
+        // pages requested by number will be resolved by offset
+        final Group secondPage = cursorResolver.elements(null, Filters.Builder.initialize().add(new PageFilter(2, OptionalInt.empty())).build());
+        assertEquals(secondPage.elements(), Arrays.asList(DemoData.USER3, DemoData.USER4));
+        assertFalse(secondPage.nextCursor().isPresent());
+
+        // resolvers without cursors return the first page
+        assertFalse(groupResolver.elements(null, Filters.Builder.initialize().add(new CursorFilter("2", OptionalInt.empty())).build()).nextCursor().isPresent());
+    }
+
+    @Test
+    public void testTotalModes() {
+        final AtomicInteger counts = new AtomicInteger();
+        final Filters firstPage = Filters.Builder.initialize().add(new PageFilter(1, OptionalInt.empty())).build();
+
+        assertEquals(totalModeResolver(TotalMode.EXACT, Runnable::run, counts).elements(null, firstPage).total(), 4);
+        assertEquals(counts.get(), 1);
+
+        final Group estimated = totalModeResolver(TotalMode.ESTIMATED, Runnable::run, counts).elements(null, firstPage);
+        assertEquals(estimated.total(), 5);
+        assertTrue(estimated.isTotalEstimated());
+
+        final Group skipped = totalModeResolver(TotalMode.SKIPPED, Runnable::run, counts).elements(null, firstPage);
+        assertEquals(skipped.total(), Group.UNKNOWN_TOTAL);
+        assertFalse(skipped.isTotalEstimated());
+        assertEquals(skipped.elements().size(), 4);
+        assertEquals(counts.get(), 1);
+    }
+
+    @Test
+    public void testDeferredTotal() {
+        final AtomicInteger counts = new AtomicInteger();
+        final List<Runnable> pendingCounts = new ArrayList<>();
+        final GroupResolver deferredResolver = totalModeResolver(TotalMode.DEFERRED, pendingCounts::add, counts);
+
+        // the total is unknown until the count is done
+        assertEquals(deferredResolver.elements(null, Filters.Builder.initialize().build()).total(), Group.UNKNOWN_TOTAL);
+        assertEquals(deferredResolver.elements(null, Filters.Builder.initialize().add(new PageFilter(2, OptionalInt.empty())).build()).total(), Group.UNKNOWN_TOTAL);
+        assertEquals(pendingCounts.size(), 1, "the total must be counted once for all pages");
+
+        pendingCounts.get(0).run();
+        assertEquals(counts.get(), 1);
+        assertEquals(deferredResolver.elements(null, Filters.Builder.initialize().add(new PageFilter(3, OptionalInt.empty())).build()).total(), 4);
+        assertEquals(pendingCounts.size(), 1, "the cached total must be used");
+
+        // other filters will be counted separately
+        assertEquals(deferredResolver.elements(null, Filters.Builder.initialize().add(new AddressFilter("missing")).build()).total(), 0);
+        assertEquals(pendingCounts.size(), 1, "the address filter must not be counted");
+    }
+
+    private static GroupResolver totalModeResolver(final TotalMode totalMode, final Executor executor, final AtomicInteger counts) {
+        return new BasicGroupResolver() {
+            @Override
+            public String[] hierarchy() {
+                return new String[]{"tests"};
+            }
+
+            @Override
+            public int defaultPageSize() {
+                return 1;
+            }
+
+            @Override
+            public int maximumPageSize() {
+                return 10;
+            }
+
+            @Override
+            public Optional<Element> element(Element parent, String address) {
+                return Optional.empty();
+            }
+
+            @Override
+            public int total(Element parent, Filters filters) {
+                counts.incrementAndGet();
+                return 4;
+            }
+
+            @Override
+            public TotalMode totalMode() {
+                return totalMode;
+            }
+
+            @Override
+            public int estimatedTotal(Element parent, Filters filters) {
+                return 5;
+            }
+
+            @Override
+            protected Executor deferredTotalExecutor() {
+                return executor;
+            }
+
+            @Override
+            public ZonedDateTime lastUpdate(Element parent, Filters filters) {
+                return ZonedDateTime.of(2016, 4, 16, 10, 49, 0, 0, ZoneId.systemDefault());
+            }
+
+            @Override
+            public List<Element> elements(Element parent, int page, int perPage, Filters filters) {
+                return new ArrayList<>(DemoData.USER_POSTS.keySet());
+            }
+        };
+    }
+
+    @Test
+    public void testLastModified() {
+        assertEquals(ZonedDateTime.of(2016, 4, 16, 10, 49, 0, 0, ZoneId.systemDefault()), groupResolver.lastModified(null, Filters.Builder.initialize().build()).get());
+        assertFalse(groupResolver.lastModified(null, Filters.Builder.initialize().add(new AddressFilter("exists")).build()).isPresent());
+    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,97 @@
+package net.oneandone.concierge.api.resolver;
+
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Extension;
+import net.oneandone.concierge.api.Group;
+import net.oneandone.concierge.demo.model.DemoData;
+import net.oneandone.concierge.demo.model.ProfileExtension;
+import org.testng.annotations.Test;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+public class BatchExtensionResolverTest {
+
+    private static final List<Element> POSTS = new ArrayList<>(DemoData.USER_POSTS.values());
+
+    private static class RecordingResolver extends BatchExtensionResolver {
+
+        private final List<List<Long>> calls = new ArrayList<>();
+
+        private final int maximumBatchSize;
+
+        private RecordingResolver(final int maximumBatchSize) {
+            this.maximumBatchSize = maximumBatchSize;
+        }
+
+        @Override
+        public Map<Long, Extension> extensions(final Collection<Long> ids) {
+            calls.add(new ArrayList<>(ids));
+            final Map<Long, Extension> extensions = new HashMap<>();
+            for (final Long id : ids) {
+                if (id % 2 == 1) {
+                    extensions.put(id, ProfileExtension.create(id.intValue(), ProfileExtension.Gender.MALE));
+                }
+            }
+            return extensions;
+        }
+
+        @Override
+        public int maximumBatchSize() {
+            return maximumBatchSize;
+        }
+
+        @Override
+        public String[] hierarchy() {
+            return new String[]{"users", "posts", "profile"};
+        }
+    }
+
+    @Test
+    public void testBatches() {
+        final RecordingResolver resolver = new RecordingResolver(2);
+        final Map<Element, Extension> extensions = resolver.resolve(Group.withElements("posts", POSTS, POSTS.size(), ZonedDateTime.now()));
+
+        assertEquals(resolver.calls, Arrays.asList(Arrays.asList(1L, 2L), Arrays.asList(3L, 4L), Collections.singletonList(5L)));
+        assertEquals(extensions.size(), 3);
+        for (final Element post : POSTS) {
+            assertEquals(extensions.containsKey(post), post.id() % 2 == 1);
+        }
+    }
+
+    @Test
+    public void testUnlimitedBatchSize() {
+        final RecordingResolver resolver = new RecordingResolver(0);
+        resolver.resolve(Group.withElements("posts", POSTS, POSTS.size(), ZonedDateTime.now()));
+        assertEquals(resolver.calls.size(), 1);
+
+        resolver.resolve(Group.empty("posts"));
+        assertEquals(resolver.calls.size(), 1);
+    }
+
+    @Test
+    public void testSingleElement() {
+        final RecordingResolver resolver = new RecordingResolver(2);
+        assertTrue(resolver.resolve(POSTS.get(0)).isPresent());
+        assertFalse(resolver.resolve(POSTS.get(1)).isPresent());
+        assertEquals(resolver.calls, Arrays.asList(Collections.singletonList(1L), Collections.singletonList(2L)));
+    }
+
+    @Test
+    public void testAdapterResolvesGroupsAtOnce() {
+        final RecordingResolver resolver = new RecordingResolver(10);
+        final AsyncExtensionResolver asyncResolver = AsyncExtensionResolver.of(resolver, Runnable::run);
+        assertEquals(asyncResolver.maximumBatchSize(), 10);
+        assertEquals(asyncResolver.resolveAsync(Group.withElements("posts", POSTS, POSTS.size(), ZonedDateTime.now())).toCompletableFuture().join().size(), 3);
+        assertEquals(resolver.calls.size(), 1);
+    }
+
+}
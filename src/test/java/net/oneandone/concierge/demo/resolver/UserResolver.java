@@ -3,6 +3,7 @@ package net.oneandone.concierge.demo.resolver;
 import net.oneandone.concierge.api.Element;
 import net.oneandone.concierge.api.Group;
 import net.oneandone.concierge.api.filter.AddressFilter;
+import net.oneandone.concierge.api.filter.CursorFilter;
 import net.oneandone.concierge.api.filter.Filters;
 import net.oneandone.concierge.api.filter.PageFilter;
 import net.oneandone.concierge.api.resolver.GroupResolver;
@@ -43,6 +44,17 @@ public class UserResolver implements GroupResolver {
             return Group.empty(name());
         }
 
+        // the cursor is the address of the last user of the previous page
+        final Optional<CursorFilter> cursorFilter = filters.get(CursorFilter.class);
+        if (cursorFilter.isPresent()) {
+            final List<Element> users = DemoData.USER_POSTS.keySet().stream().collect(Collectors.toList());
+            final int from = users.stream().map(Element::address).collect(Collectors.toList()).indexOf(cursorFilter.get().getCursor()) + 1;
+            final int to = Math.min(from + cursorFilter.get().getPerPage().orElse(defaultPageSize()), users.size());
+            final List<Element> elements = users.subList(from, to);
+            final String nextCursor = to < users.size() ? users.get(to - 1).address() : null;
+            return Group.withElements(name(), elements, users.size(), ZonedDateTime.of(LocalDateTime.ofEpochSecond(elements.hashCode(), 0, ZoneOffset.UTC), ZoneOffset.UTC), nextCursor);
+        }
+
         final Optional<PageFilter> pageFilter = filters.get(PageFilter.class);
 
         final int page;
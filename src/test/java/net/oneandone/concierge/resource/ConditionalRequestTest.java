@@ -0,0 +1,65 @@
+package net.oneandone.concierge.resource;
+
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class ConditionalRequestTest {
+
+    @Test
+    public void testUnconditionalRequest() {
+        final ConditionalRequest conditions = ConditionalRequest.of(request(null, null));
+        assertSame(conditions, ConditionalRequest.NONE);
+        assertFalse(conditions.isDateConditional());
+        assertFalse(conditions.isNotModified("\"etag\"", ZonedDateTime.parse("1961-06-02T05:12:12Z")));
+    }
+
+    @Test
+    public void testIfModifiedSince() {
+        final ConditionalRequest isoConditions = ConditionalRequest.of(request("1961-06-02T05:12:12Z", null));
+        assertTrue(isoConditions.isDateConditional());
+        assertTrue(isoConditions.isNotModified(ZonedDateTime.parse("1961-06-02T05:12:12.500Z")));
+        assertFalse(isoConditions.isNotModified(ZonedDateTime.parse("1961-06-02T05:12:13Z")));
+
+        final ConditionalRequest httpDateConditions = ConditionalRequest.of(request("Fri, 2 Jun 1961 05:12:12 GMT", null));
+        assertTrue(httpDateConditions.isNotModified(ZonedDateTime.parse("1961-06-02T05:12:12Z")));
+        assertFalse(httpDateConditions.isNotModified(ZonedDateTime.parse("1961-06-03T05:12:12Z")));
+
+        assertFalse(ConditionalRequest.of(request("yesterday", null)).isDateConditional());
+    }
+
+    @Test
+    public void testIfNoneMatch() {
+        final ConditionalRequest conditions = ConditionalRequest.of(request("1961-06-02T05:12:12Z", "\"first\", W/\"second\""));
+        assertFalse(conditions.isDateConditional());
+        assertTrue(conditions.isNotModified("\"first\"", ZonedDateTime.parse("2016-01-01T00:00:00Z")));
+        assertTrue(conditions.isNotModified("\"second\"", ZonedDateTime.parse("2016-01-01T00:00:00Z")));
+        assertFalse(conditions.isNotModified("\"third\"", ZonedDateTime.parse("1960-01-01T00:00:00Z")));
+        assertFalse(conditions.isNotModified(null, ZonedDateTime.parse("1960-01-01T00:00:00Z")));
+
+        assertTrue(ConditionalRequest.of(request(null, "*")).isNotModified("\"any\"", ZonedDateTime.now()));
+    }
+
+    @Test
+    public void testEntityTag() {
+        final String body = "{\"name\":\"Jörg\"}";
+        assertEquals(ConditionalRequest.eTag(body), ConditionalRequest.eTag(body.getBytes(StandardCharsets.UTF_8)));
+        assertTrue(ConditionalRequest.eTag(body).startsWith("\""));
+        assertFalse(ConditionalRequest.eTag(body).equals(ConditionalRequest.eTag("{}")));
+    }
+
+    private static HttpServletRequest request(final String ifModifiedSince, final String ifNoneMatch) {
+        final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getHeader("If-Modified-Since")).thenReturn(ifModifiedSince);
+        Mockito.when(request.getHeader("If-None-Match")).thenReturn(ifNoneMatch);
+        return request;
+    }
+}
@@ -0,0 +1,58 @@
+package net.oneandone.concierge.resource;
+
+import com.google.common.io.ByteStreams;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class ContentEncodingTest {
+
+    private static final byte[] BODY = "{\"users\":[]}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testNegotiation() {
+        assertSame(ContentEncoding.negotiate(null), ContentEncoding.IDENTITY);
+        assertSame(ContentEncoding.negotiate(""), ContentEncoding.IDENTITY);
+        assertSame(ContentEncoding.negotiate("gzip, deflate, br"), ContentEncoding.GZIP);
+        assertSame(ContentEncoding.negotiate("br;q=1.0, GZIP;q=0.5"), ContentEncoding.GZIP);
+        assertSame(ContentEncoding.negotiate("x-gzip"), ContentEncoding.GZIP);
+        assertSame(ContentEncoding.negotiate("*"), ContentEncoding.GZIP);
+        assertSame(ContentEncoding.negotiate("gzip;q=0, *"), ContentEncoding.IDENTITY);
+        assertSame(ContentEncoding.negotiate("*;q=0"), ContentEncoding.IDENTITY);
+        assertSame(ContentEncoding.negotiate("gzip;q=invalid"), ContentEncoding.IDENTITY);
+        assertSame(ContentEncoding.negotiate("deflate"), ContentEncoding.IDENTITY);
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        assertEquals(gunzip(ContentEncoding.GZIP.encode(BODY)), BODY);
+
+        final StreamingOutput output = outputStream -> outputStream.write(BODY);
+        final ByteArrayOutputStream encodedBody = new ByteArrayOutputStream();
+        ContentEncoding.GZIP.encode(output).write(encodedBody);
+        assertEquals(gunzip(encodedBody.toByteArray()), BODY);
+
+        assertEquals(ContentEncoding.GZIP.eTag("\"abc\""), "\"abc-gzip\"");
+        assertEquals(ContentEncoding.GZIP.coding(), "gzip");
+    }
+
+    @Test
+    public void testIdentity() {
+        assertSame(ContentEncoding.IDENTITY.encode(BODY), BODY);
+        assertEquals(ContentEncoding.IDENTITY.eTag("\"abc\""), "\"abc\"");
+        assertEquals(ContentEncoding.IDENTITY.coding(), null);
+    }
+
+    static byte[] gunzip(final byte[] body) throws Exception {
+        try (final GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return ByteStreams.toByteArray(inputStream);
+        }
+    }
+}
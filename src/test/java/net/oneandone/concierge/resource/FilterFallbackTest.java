@@ -0,0 +1,207 @@
+package net.oneandone.concierge.resource;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Group;
+import net.oneandone.concierge.api.filter.AttributeFilter;
+import net.oneandone.concierge.api.filter.Filter;
+import net.oneandone.concierge.api.filter.Filters;
+import net.oneandone.concierge.api.filter.PageFilter;
+import net.oneandone.concierge.api.filter.SortFilter;
+import net.oneandone.concierge.api.resolver.AsyncGroupResolver;
+import net.oneandone.concierge.api.resolver.BasicGroupResolver;
+import net.oneandone.concierge.api.resolver.GroupResolver;
+import net.oneandone.concierge.demo.model.DemoData;
+import net.oneandone.concierge.demo.resolver.PostResolver;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.BadRequestException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.*;
+
+public class FilterFallbackTest {
+
+    private static final AttributeFilter NOT_TOBIAS = new AttributeFilter(ImmutableMap.of("name", ImmutableSet.of("Andreas Piranha87", "Johann Bitionaire", "Daniel Germandrummer92")));
+
+    private static final SortFilter BY_NAME = new SortFilter(Collections.singletonList(new SortFilter.Order("name", false)));
+
+    @Test
+    public void testFilteredPages() {
+        final List<Filters> calls = new ArrayList<>();
+        final AsyncGroupResolver resolver = AsyncGroupResolver.of(new PagedUserResolver(calls, false), MoreExecutors.directExecutor());
+
+        final Group firstPage = FilterFallback.elements(resolver, null, Filters.Builder.initialize().add(NOT_TOBIAS).build(), 0).join();
+        assertEquals(firstPage.elements(), Collections.singletonList(DemoData.USER1));
+        assertEquals(firstPage.total(), Group.UNKNOWN_TOTAL, "the total is unknown until all pages have been filtered");
+        assertEquals(calls.size(), 1);
+        assertEquals(calls.get(0), Filters.Builder.initialize().add(new PageFilter(1, OptionalInt.of(2))).build(), "the resolver must be called with its maximum page size");
+
+        final Group lastPage = FilterFallback.elements(resolver, null, Filters.Builder.initialize().add(NOT_TOBIAS).add(new PageFilter(3, OptionalInt.empty())).build(), 0).join();
+        assertEquals(lastPage.elements(), Collections.singletonList(DemoData.USER3));
+        assertEquals(lastPage.total(), 3);
+        assertEquals(calls.size(), 3, "the scan must stop at the total of the resolver");
+    }
+
+    @Test
+    public void testSortedPages() {
+        final AsyncGroupResolver resolver = AsyncGroupResolver.of(new PagedUserResolver(new ArrayList<>(), false), MoreExecutors.directExecutor());
+
+        final Filters filters = Filters.Builder.initialize().add(NOT_TOBIAS).add(BY_NAME).add(new PageFilter(1, OptionalInt.of(2))).build();
+        final Group group = FilterFallback.elements(resolver, null, filters, 0).join();
+        assertEquals(group.elements(), Arrays.asList(DemoData.USER1, DemoData.USER3));
+        assertEquals(group.total(), 3);
+
+        final Filters descending = Filters.Builder.initialize().add(new SortFilter(Collections.singletonList(new SortFilter.Order("name", true)))).build();
+        assertEquals(FilterFallback.elements(resolver, null, descending, 0).join().elements(), Collections.singletonList(DemoData.USER2));
+    }
+
+    @Test
+    public void testSupportedFilters() {
+        final List<Filters> calls = new ArrayList<>();
+        final AsyncGroupResolver resolver = AsyncGroupResolver.of(new PagedUserResolver(calls, true), MoreExecutors.directExecutor());
+
+        final Filters filters = Filters.Builder.initialize().add(NOT_TOBIAS).build();
+        assertEquals(FilterFallback.elements(resolver, null, filters, 0).join().elements(), Collections.singletonList(DemoData.USER1));
+        assertEquals(calls, Collections.singletonList(filters), "supported filters must be passed to the resolver");
+
+        final Filters sortedFilters = Filters.Builder.initialize().add(NOT_TOBIAS).add(BY_NAME).build();
+        assertEquals(FilterFallback.elements(resolver, null, sortedFilters, 0).join().elements(), Collections.singletonList(DemoData.USER1));
+        assertTrue(calls.get(1).get(AttributeFilter.class).isPresent(), "supported filters must be passed to the resolver");
+        assertFalse(calls.get(1).get(SortFilter.class).isPresent(), "unsupported filters must be applied by the gateway");
+    }
+
+    @Test
+    public void testUnpagedGroups() {
+        final AsyncGroupResolver resolver = AsyncGroupResolver.of(new PostResolver(), MoreExecutors.directExecutor());
+        final Filters filters = Filters.Builder.initialize().add(new AttributeFilter(ImmutableMap.of("title", ImmutableSet.of("Darkwing Duck")))).build();
+
+        final Map<Element, Group> groups = FilterFallback.groups(resolver, Arrays.asList(DemoData.USER1, DemoData.USER4), filters, 0).join();
+        assertEquals(groups.get(DemoData.USER4).elements().size(), 1);
+        assertEquals(groups.get(DemoData.USER4).elements().get(0).content().getString("title"), "Darkwing Duck");
+        assertEquals(groups.get(DemoData.USER4).total(), 1);
+        assertTrue(groups.get(DemoData.USER1).elements().isEmpty());
+    }
+
+    @Test(timeOut = 5000)
+    public void testMaximumScannedElements() {
+        final List<Filters> calls = new ArrayList<>();
+        final AsyncGroupResolver resolver = AsyncGroupResolver.of(new UnpagingUserResolver(calls), MoreExecutors.directExecutor());
+        final Filters filters = Filters.Builder.initialize().add(new AttributeFilter(ImmutableMap.of("name", ImmutableSet.of("Nobody")))).build();
+
+        final Group group = FilterFallback.elements(resolver, null, filters, 10).join();
+        assertTrue(group.elements().isEmpty());
+        assertEquals(group.total(), Group.UNKNOWN_TOTAL, "the total is unknown if the scan was stopped");
+        assertEquals(calls.size(), 5, "the scan must stop at the maximum number of scanned elements");
+
+        // a sorted group can't be returned without all of its elements
+        final CompletableFuture<Group> sortedGroup = FilterFallback.elements(resolver, null, Filters.Builder.initialize().add(BY_NAME).build(), 10);
+        try {
+            sortedGroup.join();
+            fail("the sorted group must be rejected");
+        } catch (final CompletionException e) {
+            assertTrue(e.getCause() instanceof BadRequestException);
+        }
+    }
+
+    /** Ignores the requested pages and resolves the same page of two demo users with an unknown total forever. */
+    private static class UnpagingUserResolver implements GroupResolver {
+
+        private final List<Filters> calls;
+
+        private UnpagingUserResolver(final List<Filters> calls) {
+            this.calls = calls;
+        }
+
+        @Override
+        public String[] hierarchy() {
+            return new String[]{"users"};
+        }
+
+        @Override
+        public int defaultPageSize() {
+            return 2;
+        }
+
+        @Override
+        public int maximumPageSize() {
+            return 2;
+        }
+
+        @Override
+        public Group elements(final Element parent, final Filters filters) {
+            calls.add(filters);
+            return Group.withElements(name(), Arrays.asList(DemoData.USER1, DemoData.USER2), Group.UNKNOWN_TOTAL, ZonedDateTime.now());
+        }
+    }
+
+    /** Resolves the demo users with pages of at most two users and records the filters of all calls. */
+    private static class PagedUserResolver extends BasicGroupResolver {
+
+        private final List<Filters> calls;
+        private final boolean supportsAttributes;
+
+        private PagedUserResolver(final List<Filters> calls, final boolean supportsAttributes) {
+            this.calls = calls;
+            this.supportsAttributes = supportsAttributes;
+        }
+
+        @Override
+        public String[] hierarchy() {
+            return new String[]{"users"};
+        }
+
+        @Override
+        public int defaultPageSize() {
+            return 1;
+        }
+
+        @Override
+        public int maximumPageSize() {
+            return 2;
+        }
+
+        @Override
+        public boolean supports(final Class<? extends Filter> filterClass) {
+            return supportsAttributes && filterClass == AttributeFilter.class;
+        }
+
+        @Override
+        public Optional<Element> element(final Element parent, final String address) {
+            return Optional.empty();
+        }
+
+        @Override
+        public int total(final Element parent, final Filters filters) {
+            return users(filters).size();
+        }
+
+        @Override
+        public ZonedDateTime lastUpdate(final Element parent, final Filters filters) {
+            return ZonedDateTime.now();
+        }
+
+        @Override
+        public List<Element> elements(final Element parent, final int page, final int perPage, final Filters filters) {
+            calls.add(filters);
+            return users(filters).stream().skip((page - 1) * perPage).limit(perPage).collect(Collectors.toList());
+        }
+
+        private static List<Element> users(final Filters filters) {
+            final Optional<AttributeFilter> attributeFilter = filters.get(AttributeFilter.class);
+            return DemoData.USER_POSTS.keySet().stream().filter(user -> !attributeFilter.isPresent() || attributeFilter.get().test(user)).collect(Collectors.toList());
+        }
+    }
+}
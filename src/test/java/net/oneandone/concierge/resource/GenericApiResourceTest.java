@@ -1,10 +1,29 @@
 package net.oneandone.concierge.resource;
 
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.util.Duration;
 import net.oneandone.concierge.JsonHelper;
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Extension;
+import net.oneandone.concierge.api.Group;
+import net.oneandone.concierge.api.filter.CursorFilter;
+import net.oneandone.concierge.api.filter.Filters;
+import net.oneandone.concierge.api.resolver.AsyncExtensionResolver;
+import net.oneandone.concierge.api.resolver.BatchExtensionResolver;
+import net.oneandone.concierge.configuration.CacheConfiguration;
+import net.oneandone.concierge.configuration.CompressionConfiguration;
+import net.oneandone.concierge.configuration.LimitsConfiguration;
 import net.oneandone.concierge.configuration.Resolvers;
 import net.oneandone.concierge.demo.resolver.PostResolver;
 import net.oneandone.concierge.demo.resolver.UserProfileExtensionResolver;
 import net.oneandone.concierge.demo.resolver.UserResolver;
+import net.oneandone.concierge.resource.cache.CachedResponse;
+import net.oneandone.concierge.resource.cache.LocalResponseCache;
+import net.oneandone.concierge.resource.cache.ResponseCache;
+import net.oneandone.concierge.resource.trace.ResolutionTrace;
+import net.oneandone.concierge.resource.trace.ResolutionTraces;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -13,15 +32,38 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.TimeoutHandler;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class GenericApiResourceTest {
 
+    private static Resolvers resolvers;
     private static GenericApiResource apiResource;
 
     @Mock private HttpServletRequest request;
@@ -36,7 +78,8 @@ public class GenericApiResourceTest {
 
         extensionResolvers.add(UserProfileExtensionResolver.class.getCanonicalName());
 
-        apiResource = new GenericApiResource(new Resolvers(groupResolvers, extensionResolvers));
+        resolvers = new Resolvers(groupResolvers, extensionResolvers);
+        apiResource = new GenericApiResource(resolvers);
     }
 
     @BeforeMethod(alwaysRun=true)
@@ -148,6 +191,531 @@ public class GenericApiResourceTest {
         assertEquals(response.getHeaderString("Last-Modified"), "1992-07-19T03:04:12Z");
     }
 
+    @Test
+    public void testConcurrentResolution() throws Exception {
+        final Map<String, String[]> queryParameters = new HashMap<>(3);
+        queryParameters.put("show", new String[] { "profile", "posts" });
+        queryParameters.put("page", new String[] { "1" });
+        queryParameters.put("per_page", new String[] { "10" });
+        Mockito.when(request.getParameterMap()).thenReturn(queryParameters);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final GenericApiResource concurrentApiResource = GenericApiResource.builder().resolvers(resolvers).executor(executor).timeout(Duration.seconds(10)).build();
+            final Response response = concurrentApiResource.getResource(request, "users");
+
+            assertEquals(response.getStatus(), 200);
+            assertEquals(response.getEntity(), JsonHelper.getJsonStringFor(GenericApiResourceTest.class, "testGroupResponseWithExtensionsAndSubgroups"));
+            assertEquals(response.getHeaderString("Content-Range"), "users 0-3/4");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testStreamingResponse() throws Exception {
+        final Map<String, String[]> queryParameters = new HashMap<>(3);
+        queryParameters.put("show", new String[] { "profile", "posts" });
+        queryParameters.put("page", new String[] { "1" });
+        queryParameters.put("per_page", new String[] { "10" });
+        Mockito.when(request.getParameterMap()).thenReturn(queryParameters);
+
+        final GenericApiResource streamingApiResource = GenericApiResource.builder().resolvers(resolvers).streaming(true).build();
+        final Response response = streamingApiResource.getResource(request, "users");
+
+        assertEquals(response.getStatus(), 200);
+        assertTrue(response.getEntity() instanceof StreamingOutput);
+        assertEquals(response.getHeaderString("Content-Range"), "users 0-3/4");
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(outputStream);
+        assertEquals(outputStream.toString(StandardCharsets.UTF_8.name()), JsonHelper.getJsonStringFor(GenericApiResourceTest.class, "testGroupResponseWithExtensionsAndSubgroups"));
+    }
+
+    @Test
+    public void testCachedResponse() throws Exception {
+        Mockito.when(request.getParameterMap()).thenReturn(Collections.emptyMap());
+
+        final ResponseCache cache = new LocalResponseCache(1024 * 1024);
+        final GenericApiResource cachingApiResource = GenericApiResource.builder()
+                .resolvers(resolvers)
+                .cache(cache)
+                .cacheConfiguration(cacheConfiguration("{\"timeToLive\": {\"users\": \"1m\"}}"))
+                .build();
+
+        final Response response = cachingApiResource.getResource(request, "users");
+        assertEquals(response.getStatus(), 200);
+        assertEquals(new String((byte[]) response.getEntity(), StandardCharsets.UTF_8), JsonHelper.getJsonStringFor(GenericApiResourceTest.class, "testGroupResponse"));
+        assertTrue(cache.get("users").isPresent());
+
+        // the cached body will be served without resolving the group
+        final CachedResponse cachedResponse = new CachedResponse("{}".getBytes(StandardCharsets.UTF_8), "\"etag\"", cache.get("users").get().getLastModified(), cache.get("users").get().getPaging(), Optional.empty());
+        cache.put("users", cachedResponse, 1, TimeUnit.MINUTES);
+
+        final Response secondResponse = cachingApiResource.getResource(request, "users");
+        assertEquals(secondResponse.getStatus(), 200);
+        assertEquals(new String((byte[]) secondResponse.getEntity(), StandardCharsets.UTF_8), "{}");
+        assertEquals(secondResponse.getHeaderString("Content-Range"), "users 0-2/4");
+        assertEquals(secondResponse.getHeaderString("Last-Modified"), "1934-10-30T07:13:50Z");
+    }
+
+    @Test
+    public void testCompressedResponse() throws Exception {
+        Mockito.when(request.getParameterMap()).thenReturn(Collections.emptyMap());
+        Mockito.when(request.getHeader("Accept-Encoding")).thenReturn("gzip, deflate");
+
+        final GenericApiResource compressingApiResource = GenericApiResource.builder()
+                .resolvers(resolvers)
+                .compression(Jackson.newObjectMapper().readValue("{\"minimumSize\": \"100 bytes\"}", CompressionConfiguration.class))
+                .build();
+
+        final Response response = compressingApiResource.getResource(request, "users");
+        assertEquals(response.getStatus(), 200);
+        assertEquals(response.getHeaderString("Content-Encoding"), "gzip");
+        assertEquals(response.getHeaderString("Vary"), "Accept-Encoding");
+        final String body = JsonHelper.getJsonStringFor(GenericApiResourceTest.class, "testGroupResponse");
+        assertEquals(new String(ContentEncodingTest.gunzip((byte[]) response.getEntity()), StandardCharsets.UTF_8), body);
+        assertEquals(response.getHeaderString("ETag"), ContentEncoding.GZIP.eTag(ConditionalRequest.eTag(body)));
+
+        // bodies below the minimum size won't be compressed
+        final Response extensionResponse = compressingApiResource.getResource(request, "users/johann.bitionaire/profile");
+        assertEquals(extensionResponse.getStatus(), 200);
+        assertNull(extensionResponse.getHeaderString("Content-Encoding"));
+        assertEquals(extensionResponse.getHeaderString("Vary"), "Accept-Encoding");
+
+        // clients not accepting gzip get the identity
+        Mockito.when(request.getHeader("Accept-Encoding")).thenReturn(null);
+        final Response identityResponse = compressingApiResource.getResource(request, "users");
+        assertNull(identityResponse.getHeaderString("Content-Encoding"));
+        assertEquals(identityResponse.getEntity(), body);
+    }
+
+    @Test
+    public void testCompressedCachedResponse() throws Exception {
+        Mockito.when(request.getParameterMap()).thenReturn(Collections.emptyMap());
+        Mockito.when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+
+        final ResponseCache cache = new LocalResponseCache(1024 * 1024);
+        final GenericApiResource cachingApiResource = GenericApiResource.builder()
+                .resolvers(resolvers)
+                .compression(Jackson.newObjectMapper().readValue("{\"minimumSize\": \"100 bytes\"}", CompressionConfiguration.class))
+                .cache(cache)
+                .cacheConfiguration(cacheConfiguration("{\"timeToLive\": {\"users\": \"1m\"}}"))
+                .build();
+
+        final Response response = cachingApiResource.getResource(request, "users");
+        assertEquals(response.getHeaderString("Content-Encoding"), "gzip");
+        assertSame(response.getEntity(), cache.get("users").get().getCompressedBody());
+
+        // the compressed body will be served from the cache
+        final Response secondResponse = cachingApiResource.getResource(request, "users");
+        assertSame(secondResponse.getEntity(), cache.get("users").get().getCompressedBody());
+        assertEquals(secondResponse.getHeaderString("ETag"), ContentEncoding.GZIP.eTag(cache.get("users").get().getETag()));
+
+        Mockito.when(request.getHeader("Accept-Encoding")).thenReturn("identity");
+        final Response identityResponse = cachingApiResource.getResource(request, "users");
+        assertNull(identityResponse.getHeaderString("Content-Encoding"));
+        assertSame(identityResponse.getEntity(), cache.get("users").get().getBody());
+    }
+
+    @Test
+    public void testRevalidatedCachedResponse() throws Exception {
+        Mockito.when(request.getParameterMap()).thenReturn(Collections.emptyMap());
+
+        final ResponseCache cache = new LocalResponseCache(1024 * 1024);
+        final GenericApiResource cachingApiResource = GenericApiResource.builder()
+                .resolvers(resolvers)
+                .cache(cache)
+                .cacheConfiguration(cacheConfiguration("{\"defaultTimeToLive\": \"1m\"}"))
+                .build();
+
+        final ZonedDateTime lastModified = ZonedDateTime.now();
+        cache.put("users", new CachedResponse("{}".getBytes(StandardCharsets.UTF_8), "\"etag\"", lastModified, Optional.empty(), Optional.of(() -> CompletableFuture.completedFuture(false))), 1, TimeUnit.MINUTES);
+        assertEquals(cachingApiResource.getResource(request, "users").getEntity(), "{}".getBytes(StandardCharsets.UTF_8));
+
+        cache.put("users", new CachedResponse("{}".getBytes(StandardCharsets.UTF_8), "\"etag\"", lastModified, Optional.empty(), Optional.of(() -> CompletableFuture.completedFuture(true))), 1, TimeUnit.MINUTES);
+        final Response response = cachingApiResource.getResource(request, "users");
+        assertEquals(new String((byte[]) response.getEntity(), StandardCharsets.UTF_8), JsonHelper.getJsonStringFor(GenericApiResourceTest.class, "testGroupResponse"));
+        assertEquals(response.getHeaderString("Last-Modified"), "1934-10-30T07:13:50Z");
+    }
+
+    @Test
+    public void testUncachedResponse() throws Exception {
+        final Map<String, String[]> queryParameters = new HashMap<>(1);
+        queryParameters.put("show", new String[] { "profile" });
+        Mockito.when(request.getParameterMap()).thenReturn(queryParameters);
+
+        // the profile extension has no time to live, so the response must not be cached
+        final ResponseCache cache = new LocalResponseCache(1024 * 1024);
+        final GenericApiResource cachingApiResource = GenericApiResource.builder()
+                .resolvers(resolvers)
+                .cache(cache)
+                .cacheConfiguration(cacheConfiguration("{\"timeToLive\": {\"users\": \"1m\"}}"))
+                .build();
+
+        final Response response = cachingApiResource.getResource(request, "users");
+        assertEquals(response.getEntity(), JsonHelper.getJsonStringFor(GenericApiResourceTest.class, "testGroupResponseWithExtensions"));
+        assertFalse(cache.get("users?show=profile").isPresent());
+    }
+
+    @Test
+    public void testConditionalRequestWithEntityTag() throws Exception {
+        Mockito.when(request.getParameterMap()).thenReturn(Collections.emptyMap());
+        final Response response = apiResource.getResource(request, "users");
+        assertEquals(response.getStatus(), 200);
+        assertNotNull(response.getHeaderString("ETag"));
+
+        Mockito.when(request.getHeader("If-None-Match")).thenReturn(response.getHeaderString("ETag"));
+        final Response conditionalResponse = apiResource.getResource(request, "users");
+        assertEquals(conditionalResponse.getStatus(), 304);
+        assertEquals(conditionalResponse.getHeaderString("ETag"), response.getHeaderString("ETag"));
+        assertNull(conditionalResponse.getEntity());
+
+        Mockito.when(request.getHeader("If-None-Match")).thenReturn("\"outdated\"");
+        assertEquals(apiResource.getResource(request, "users").getStatus(), 200);
+    }
+
+    @Test
+    public void testConditionalRequestWithDate() throws Exception {
+        Mockito.when(request.getParameterMap()).thenReturn(Collections.emptyMap());
+
+        // the element will be checked without being rendered, so there is no entity tag
+        Mockito.when(request.getHeader("If-Modified-Since")).thenReturn("1961-06-02T05:12:12Z");
+        final Response conditionalResponse = apiResource.getResource(request, "users/johann.bitionaire");
+        assertEquals(conditionalResponse.getStatus(), 304);
+        assertNull(conditionalResponse.getHeaderString("ETag"));
+        assertEquals(conditionalResponse.getHeaderString("Last-Modified"), "1961-06-02T05:12:12Z");
+
+        Mockito.when(request.getHeader("If-Modified-Since")).thenReturn("1961-06-01T05:12:12Z");
+        final Response response = apiResource.getResource(request, "users/johann.bitionaire");
+        assertEquals(response.getStatus(), 200);
+        assertNotNull(response.getEntity());
+        assertNotNull(response.getHeaderString("ETag"));
+    }
+
+    @Test
+    public void testAsyncResponse() throws Exception {
+        Mockito.when(request.getParameterMap()).thenReturn(Collections.emptyMap());
+        final AsyncResponse asyncResponse = Mockito.mock(AsyncResponse.class);
+
+        apiResource.getResource(asyncResponse, request, "users");
+
+        final ArgumentCaptor<Response> responseCaptor = ArgumentCaptor.forClass(Response.class);
+        Mockito.verify(asyncResponse).resume(responseCaptor.capture());
+        assertEquals(responseCaptor.getValue().getStatus(), 200);
+        assertEquals(responseCaptor.getValue().getEntity(), JsonHelper.getJsonStringFor(GenericApiResourceTest.class, "testGroupResponse"));
+    }
+
+    @Test
+    public void testTracedAsyncTimeout() throws Exception {
+        Mockito.when(request.getParameterMap()).thenReturn(Collections.emptyMap());
+        Mockito.when(request.getParameter("trace")).thenReturn("");
+        final AsyncResponse asyncResponse = Mockito.mock(AsyncResponse.class);
+
+        final Resolvers slowResolvers = new Resolvers(Collections.singletonList(UserResolver.class.getName()), Collections.singletonList(SlowExtensionResolver.class.getName()));
+        final ResolutionTraces traces = new ResolutionTraces(10);
+        final MetricRegistry metrics = new MetricRegistry();
+        final GenericApiResource tracingApiResource = GenericApiResource.builder().resolvers(slowResolvers).traces(traces).metrics(metrics).build();
+        tracingApiResource.getResource(asyncResponse, request, "users/johann.bitionaire/slow");
+
+        final ArgumentCaptor<TimeoutHandler> timeoutHandler = ArgumentCaptor.forClass(TimeoutHandler.class);
+        Mockito.verify(asyncResponse).setTimeoutHandler(timeoutHandler.capture());
+        Mockito.verify(asyncResponse, Mockito.never()).resume(Mockito.any(Response.class));
+        timeoutHandler.getValue().handleTimeout(asyncResponse);
+
+        // the timed out request is finished like any other request
+        final ArgumentCaptor<Response> responseCaptor = ArgumentCaptor.forClass(Response.class);
+        Mockito.verify(asyncResponse).resume(responseCaptor.capture());
+        assertEquals(responseCaptor.getValue().getStatus(), 504);
+        assertNotNull(responseCaptor.getValue().getHeaderString(GenericApiResource.TRACE_ID_HEADER));
+        assertEquals(traces.all().size(), 1);
+        assertEquals(traces.all().get(0).toJson().getInt("status"), 504);
+        assertEquals(metrics.histogram("concierge.requests.resolver-calls").getCount(), 1);
+
+        // the timeout handler is called at most once
+        timeoutHandler.getValue().handleTimeout(asyncResponse);
+        assertEquals(traces.all().size(), 1);
+    }
+
+    @Test
+    public void testTracedAsyncInvalidRequest() throws Exception {
+        Mockito.when(request.getParameterMap()).thenReturn(Collections.singletonMap("page", new String[] { "abc" }));
+        Mockito.when(request.getParameter("trace")).thenReturn("");
+        final AsyncResponse asyncResponse = Mockito.mock(AsyncResponse.class);
+
+        final ResolutionTraces traces = new ResolutionTraces(10);
+        final MetricRegistry metrics = new MetricRegistry();
+        final GenericApiResource tracingApiResource = GenericApiResource.builder().resolvers(resolvers).traces(traces).metrics(metrics).build();
+        tracingApiResource.getResource(asyncResponse, request, "users");
+
+        // the request failing before its resolution started is finished like any other request
+        Mockito.verify(asyncResponse).resume(Mockito.any(NumberFormatException.class));
+        assertEquals(traces.all().size(), 1);
+        assertEquals(metrics.histogram("concierge.requests.resolver-calls").getCount(), 1);
+    }
+
+    @Test
+    public void testCoalescedRequests() throws Exception {
+        Mockito.when(request.getParameterMap()).thenReturn(Collections.emptyMap());
+        final HttpServletRequest extendedRequest = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(extendedRequest.getParameterMap()).thenReturn(Collections.singletonMap("show", new String[] { "profile" }));
+
+        // the resolvers won't be called before the pending tasks are run
+        final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        final MetricRegistry metrics = new MetricRegistry();
+        final GenericApiResource coalescingApiResource = GenericApiResource.builder().resolvers(resolvers).executor(tasks::add).coalescing(true).metrics(metrics).build();
+
+        final AsyncResponse firstResponse = Mockito.mock(AsyncResponse.class);
+        final AsyncResponse secondResponse = Mockito.mock(AsyncResponse.class);
+        final AsyncResponse extendedResponse = Mockito.mock(AsyncResponse.class);
+        coalescingApiResource.getResource(firstResponse, request, "users");
+        coalescingApiResource.getResource(secondResponse, request, "users");
+        coalescingApiResource.getResource(extendedResponse, extendedRequest, "users");
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+
+        final ArgumentCaptor<Response> responseCaptor = ArgumentCaptor.forClass(Response.class);
+        Mockito.verify(firstResponse).resume(responseCaptor.capture());
+        Mockito.verify(secondResponse).resume(responseCaptor.capture());
+        Mockito.verify(extendedResponse).resume(responseCaptor.capture());
+        assertEquals(responseCaptor.getAllValues().get(0).getEntity(), JsonHelper.getJsonStringFor(GenericApiResourceTest.class, "testGroupResponse"));
+        assertEquals(responseCaptor.getAllValues().get(1).getEntity(), responseCaptor.getAllValues().get(0).getEntity());
+        assertEquals(responseCaptor.getAllValues().get(2).getStatus(), 200);
+
+        // the identical requests share one resolution, the different request shares the resolver call for the users
+        assertEquals(metrics.timer("concierge.resolvers.group.users.elements").getCount(), 1);
+        assertEquals(metrics.timer("concierge.resolvers.extension.users.profile.resolveGroup").getCount(), 1);
+        assertEquals(metrics.histogram("concierge.requests.resolver-calls").getSnapshot().getValues(), new long[] { 0, 1, 2 });
+
+        // completed resolutions won't be shared
+        coalescingApiResource.getResource(Mockito.mock(AsyncResponse.class), request, "users");
+        tasks.poll().run();
+        assertEquals(metrics.timer("concierge.resolvers.group.users.elements").getCount(), 2);
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        Mockito.when(request.getParameterMap()).thenReturn(Collections.emptyMap());
+
+        final MetricRegistry metrics = new MetricRegistry();
+        final GenericApiResource batchApiResource = GenericApiResource.builder().resolvers(resolvers).metrics(metrics).build();
+        final Response response = batchApiResource.getBatch(request, Arrays.asList("users", "/users?show=profile", "users/johann.bitionaire/posts", "instruments", "users?page=%zz"));
+        assertEquals(response.getStatus(), 200);
+
+        final JsonArray parts = Json.createReader(new StringReader((String) response.getEntity())).readObject().getJsonArray("responses");
+        assertEquals(parts.size(), 5);
+        assertEquals(parts.getJsonObject(0).getString("uri"), "users");
+        assertEquals(parts.getJsonObject(0).getInt("status"), 200);
+        assertEquals(parts.getJsonObject(0).getString("contentRange"), "users 0-2/4");
+        assertEquals(parts.getJsonObject(0).getJsonObject("body").toString(), JsonHelper.getJsonStringFor(GenericApiResourceTest.class, "testGroupResponse"));
+        assertEquals(parts.getJsonObject(1).getInt("status"), 200);
+        assertEquals(parts.getJsonObject(2).getJsonObject("body").getJsonArray("posts").size(), 2);
+        assertEquals(parts.getJsonObject(3).getInt("status"), 404);
+        assertFalse(parts.getJsonObject(3).containsKey("body"));
+        assertEquals(parts.getJsonObject(4).getInt("status"), 400);
+
+        // the users are resolved once for the whole batch
+        assertEquals(metrics.timer("concierge.resolvers.group.users.elements").getCount(), 2);
+        assertEquals(metrics.histogram("concierge.requests.resolver-calls").getCount(), 1);
+    }
+
+    @Test
+    public void testBatchLimits() throws Exception {
+        final GenericApiResource batchApiResource = GenericApiResource.builder().resolvers(resolvers).maximumBatchSize(2).build();
+        assertEquals(batchApiResource.getBatch(request, Collections.emptyList()).getStatus(), 400);
+        assertEquals(batchApiResource.getBatch(request, Arrays.asList("users", "users/johann.bitionaire", "users/johann.bitionaire/posts")).getStatus(), 413);
+        assertEquals(batchApiResource.getBatch(request, Arrays.asList("users", "users/johann.bitionaire")).getStatus(), 200);
+    }
+
+    @Test
+    public void testResolutionTimeout() throws Exception {
+        final Map<String, String[]> queryParameters = new HashMap<>(1);
+        queryParameters.put("show", new String[] { "profile" });
+        Mockito.when(request.getParameterMap()).thenReturn(queryParameters);
+
+        final Executor neverExecutingExecutor = command -> { };
+        final GenericApiResource timingOutApiResource = GenericApiResource.builder().resolvers(resolvers).executor(neverExecutingExecutor).timeout(Duration.milliseconds(10)).build();
+        final Response response = timingOutApiResource.getResource(request, "users");
+
+        assertEquals(response.getStatus(), 504);
+    }
+
+    @Test
+    public void testResolverMetrics() throws Exception {
+        final Map<String, String[]> queryParameters = new HashMap<>(1);
+        queryParameters.put("show", new String[] { "profile" });
+        Mockito.when(request.getParameterMap()).thenReturn(queryParameters);
+
+        final MetricRegistry metrics = new MetricRegistry();
+        final GenericApiResource instrumentedApiResource = GenericApiResource.builder().resolvers(resolvers).metrics(metrics).build();
+        assertEquals(instrumentedApiResource.getResource(request, "users").getStatus(), 200);
+
+        assertEquals(metrics.timer("concierge.resolvers.group.users.elements").getCount(), 1);
+        assertEquals(metrics.timer("concierge.resolvers.extension.users.profile.resolveGroup").getCount(), 1);
+        assertEquals(metrics.histogram("concierge.resolvers.extension.users.profile.results").getSnapshot().getMax(), 1);
+        assertEquals(metrics.histogram("concierge.requests.resolver-calls").getCount(), 1);
+        assertEquals(metrics.histogram("concierge.requests.resolver-calls").getSnapshot().getMax(), 2);
+    }
+
+    @Test
+    public void testBatchedExtensions() throws Exception {
+        final Map<String, String[]> queryParameters = new HashMap<>(1);
+        queryParameters.put("show", new String[] { "length" });
+        Mockito.when(request.getParameterMap()).thenReturn(queryParameters);
+
+        final Resolvers batchResolvers = new Resolvers(
+                Arrays.asList(UserResolver.class.getName(), PostResolver.class.getName()),
+                Collections.singletonList(PostLengthExtensionResolver.class.getName()));
+        final MetricRegistry metrics = new MetricRegistry();
+        final GenericApiResource batchingApiResource = GenericApiResource.builder().resolvers(batchResolvers).metrics(metrics).build();
+        final Response response = batchingApiResource.getResource(request, "users/johann.bitionaire/posts");
+        assertEquals(response.getStatus(), 200);
+
+        // the group of two posts is resolved in two batches of a single post
+        assertEquals(metrics.timer("concierge.resolvers.extension.users.posts.length.resolveGroup").getCount(), 2);
+        final JsonArray posts = Json.createReader(new StringReader((String) response.getEntity())).readObject().getJsonArray("posts");
+        assertEquals(posts.size(), 2);
+        for (int i = 0; i < posts.size(); i++) {
+            assertTrue(posts.getJsonObject(i).containsKey("length"));
+        }
+    }
+
+    @Test
+    public void testBatchedResolverCalls() throws Exception {
+        Mockito.when(request.getParameterMap()).thenReturn(Collections.emptyMap());
+
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        final ExecutorService requestExecutor = Executors.newFixedThreadPool(2);
+        try {
+            final MetricRegistry metrics = new MetricRegistry();
+            final GenericApiResource batchingApiResource = GenericApiResource.builder().resolvers(resolvers).metrics(metrics)
+                    .scheduler(scheduler).batchWindow(Duration.milliseconds(500)).build();
+
+            final CompletableFuture<Response> johann = CompletableFuture.supplyAsync(() -> batchingApiResource.getResource(request, "users/johann.bitionaire/posts"), requestExecutor);
+            final CompletableFuture<Response> andreas = CompletableFuture.supplyAsync(() -> batchingApiResource.getResource(request, "users/andreas.piranha87/posts"), requestExecutor);
+
+            assertEquals(johann.get(5, TimeUnit.SECONDS).getStatus(), 200);
+            assertEquals(johann.get().getEntity(), JsonHelper.getJsonStringFor(GenericApiResourceTest.class, "testNestedGroupResponse"));
+            assertEquals(andreas.get(5, TimeUnit.SECONDS).getStatus(), 200);
+
+            // the posts of both users are resolved by one call of the resolver
+            assertEquals(metrics.timer("concierge.resolvers.group.users.posts.groups").getCount(), 1);
+            assertEquals(metrics.timer("concierge.resolvers.group.users.posts.elements").getCount(), 0);
+        } finally {
+            requestExecutor.shutdownNow();
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPartialResponse() throws Exception {
+        final Map<String, String[]> queryParameters = new HashMap<>(1);
+        queryParameters.put("show", new String[] { "profile", "slow" });
+        Mockito.when(request.getParameterMap()).thenReturn(queryParameters);
+
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            final Resolvers slowResolvers = new Resolvers(
+                    Arrays.asList(UserResolver.class.getName(), PostResolver.class.getName()),
+                    Arrays.asList(UserProfileExtensionResolver.class.getName(), SlowExtensionResolver.class.getName()));
+            final GenericApiResource limitedApiResource = GenericApiResource.builder().resolvers(slowResolvers).scheduler(scheduler)
+                    .limits(limitsConfiguration("{\"timeout\": {\"users/slow\": \"50ms\"}}")).build();
+
+            // the response is returned without the timed out extension
+            final Response response = limitedApiResource.getResource(request, "users");
+            assertEquals(response.getStatus(), 200);
+            assertEquals(response.getHeaderString(GenericApiResource.MISSING_PARTS_HEADER), "users/slow");
+            final JsonArray users = Json.createReader(new StringReader((String) response.getEntity())).readObject().getJsonArray("users");
+            assertTrue(users.getJsonObject(1).containsKey("profile"));
+            assertFalse(users.getJsonObject(1).containsKey("slow"));
+
+            // the extension itself is unavailable
+            Mockito.when(request.getParameterMap()).thenReturn(Collections.emptyMap());
+            assertEquals(limitedApiResource.getResource(request, "users/johann.bitionaire/slow").getStatus(), 503);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMaximumConcurrentCalls() throws Exception {
+        Mockito.when(request.getParameterMap()).thenReturn(Collections.emptyMap());
+
+        final Resolvers slowResolvers = new Resolvers(Collections.singletonList(UserResolver.class.getName()), Collections.singletonList(SlowExtensionResolver.class.getName()));
+        final GenericApiResource limitedApiResource = GenericApiResource.builder().resolvers(slowResolvers).timeout(Duration.milliseconds(100))
+                .limits(limitsConfiguration("{\"maximumConcurrentCalls\": {\"users/slow\": 1}}")).build();
+
+        // the first call never finishes and holds the only permit of the resolver
+        assertEquals(limitedApiResource.getResource(request, "users/johann.bitionaire/slow").getStatus(), 504);
+        assertEquals(limitedApiResource.getResource(request, "users/johann.bitionaire/slow").getStatus(), 503);
+        assertEquals(limitedApiResource.getResource(request, "users").getStatus(), 200);
+    }
+
+    @Test
+    public void testTracedRequest() throws Exception {
+        final Map<String, String[]> queryParameters = new HashMap<>(2);
+        queryParameters.put("show", new String[] { "profile" });
+        queryParameters.put("trace", new String[] { "" });
+        Mockito.when(request.getParameterMap()).thenReturn(queryParameters);
+        Mockito.when(request.getParameter("trace")).thenReturn("");
+        Mockito.when(request.getQueryString()).thenReturn("show=profile&trace");
+
+        final ResolutionTraces traces = new ResolutionTraces(10);
+        final GenericApiResource tracingApiResource = GenericApiResource.builder().resolvers(resolvers).traces(traces).build();
+        final Response response = tracingApiResource.getResource(request, "users");
+
+        // the trace parameter must not change the response
+        assertEquals(response.getStatus(), 200);
+        assertEquals(response.getEntity(), JsonHelper.getJsonStringFor(GenericApiResourceTest.class, "testGroupResponseWithExtensions"));
+        assertTrue(response.getHeaderString("Server-Timing").startsWith("total;dur="));
+        assertTrue(response.getHeaderString("Server-Timing").contains(", users.elements;dur="));
+        assertTrue(response.getHeaderString("Server-Timing").contains(", users.profile.extensions;dur="));
+
+        final ResolutionTrace trace = traces.get(response.getHeaderString("X-Concierge-Trace-Id")).get();
+        assertEquals(trace.getUri(), "users?show=profile&trace");
+        assertEquals(trace.toJson().getJsonArray("calls").size(), 2);
+        assertEquals(trace.toJson().getJsonArray("calls").getJsonObject(1).getString("parent"), "users (3 elements)");
+
+        // requests won't be traced unless allowed
+        assertNull(apiResource.getResource(request, "users").getHeaderString("Server-Timing"));
+    }
+
+    @Test
+    public void testCursorPagination() throws Exception {
+        final Map<String, String[]> queryParameters = new HashMap<>(2);
+        queryParameters.put("cursor", new String[] { "andreas.piranha87" });
+        queryParameters.put("per_page", new String[] { "2" });
+        Mockito.when(request.getParameterMap()).thenReturn(queryParameters);
+
+        final Response response = apiResource.getResource(request, "users");
+        assertEquals(response.getStatus(), 200);
+        assertEquals(response.getEntity(), JsonHelper.getJsonStringFor(GenericApiResourceTest.class, "testCursorPagination"));
+        assertNull(response.getHeaderString("Content-Range"));
+
+        // the last page has no next link
+        queryParameters.put("cursor", new String[] { "tobias.netdevfighter" });
+        final Response lastResponse = apiResource.getResource(request, "users");
+        assertEquals(lastResponse.getStatus(), 200);
+        assertTrue(((String) lastResponse.getEntity()).contains("\"links\":{\"first\":\"/users?per_page=2\"}"));
+    }
+
+    @Test
+    public void testCursorPaginationWithSubgroups() throws Exception {
+        final Map<String, String[]> queryParameters = new HashMap<>(3);
+        queryParameters.put("cursor", new String[] { "andreas.piranha87" });
+        queryParameters.put("per_page", new String[] { "2" });
+        queryParameters.put("show", new String[] { "posts" });
+        Mockito.when(request.getParameterMap()).thenReturn(queryParameters);
+
+        // the cursor of the users won't be applied to their posts
+        final Resolvers cursorResolvers = new Resolvers(Arrays.asList(UserResolver.class.getName(), CursorPostResolver.class.getName()), Collections.emptyList());
+        final Response response = new GenericApiResource(cursorResolvers).getResource(request, "users");
+        assertEquals(response.getStatus(), 200);
+        assertEquals(response.getEntity(), JsonHelper.getJsonStringFor(GenericApiResourceTest.class, "testCursorPaginationWithSubgroups"));
+    }
+
     @Test
     public void testElementResponseWithExtensions() throws Exception {
         final Map<String, String[]> queryParameters = new HashMap<>(1);
@@ -162,6 +730,20 @@ public class GenericApiResourceTest {
         assertEquals(response.getHeaderString("Last-Modified"), "1961-06-02T05:12:12Z");
     }
 
+    @Test
+    public void testElementResponseWithSubgroups() throws Exception {
+        final Map<String, String[]> queryParameters = new HashMap<>(1);
+        queryParameters.put("show", new String[] { "posts" });
+        Mockito.when(request.getParameterMap()).thenReturn(queryParameters);
+
+        final Response response = apiResource.getResource(request, "users/johann.bitionaire");
+
+        assertEquals(response.getStatus(), 200);
+        assertNotNull(response.getEntity());
+        assertEquals(response.getEntity(), JsonHelper.getJsonStringFor(GenericApiResourceTest.class, "testElementResponseWithSubgroups"));
+        assertEquals(response.getHeaderString("Last-Modified"), "1961-06-02T05:12:12Z");
+    }
+
     @Test
     public void testPageCount() throws Exception {
         final Map<String, String[]> queryParameters = new HashMap<>(2);
@@ -180,6 +762,137 @@ public class GenericApiResourceTest {
         assertEquals(response.getHeaderString("Last-Modified"), "1994-02-04T15:09:45Z");
     }
 
+    @Test
+    public void testFollowingPageLinks() throws Exception {
+        final Map<String, String[]> queryParameters = new HashMap<>(2);
+        queryParameters.put("per_page", new String[] { "2" });
+        Mockito.when(request.getParameterMap()).thenReturn(queryParameters);
+
+        final Response response = apiResource.getResource(request, "users");
+        final String next = Json.createReader(new StringReader((String) response.getEntity())).readObject().getJsonObject("links").getString("next");
+        assertEquals(next, "/users?page=2&per_page=2");
+
+        // the link keeps the page size of the request
+        queryParameters.clear();
+        for (final String parameter : next.substring(next.indexOf('?') + 1).split("&")) {
+            queryParameters.put(parameter.substring(0, parameter.indexOf('=')), new String[] { parameter.substring(parameter.indexOf('=') + 1) });
+        }
+        assertEquals(apiResource.getResource(request, "users").getHeaderString("Content-Range"), "users 2-3/4");
+    }
+
+    @Test
+    public void testSparseFieldsets() throws Exception {
+        final Map<String, String[]> queryParameters = new HashMap<>(1);
+        queryParameters.put("fields", new String[] { "title,unknown" });
+        Mockito.when(request.getParameterMap()).thenReturn(queryParameters);
+
+        final Response response = apiResource.getResource(request, "users/johann.bitionaire/posts");
+        assertEquals(response.getStatus(), 200);
+        assertEquals(response.getEntity(), JsonHelper.getJsonStringFor(GenericApiResourceTest.class, "testSparseFieldsets"));
+
+        // links, extensions and sub-groups will be rendered regardless of the fields
+        queryParameters.put("fields", new String[] { "unknown" });
+        queryParameters.put("show", new String[] { "profile" });
+        final Response userResponse = apiResource.getResource(request, "users/johann.bitionaire");
+        assertEquals(userResponse.getStatus(), 200);
+        assertFalse(userResponse.getEntity().toString().contains("\"name\""));
+        assertTrue(userResponse.getEntity().toString().contains("\"profile\":{"));
+        assertTrue(userResponse.getEntity().toString().contains("\"links\":{"));
+    }
+
+    @Test
+    public void testSparseFieldsetsWithSubgroups() throws Exception {
+        final Map<String, String[]> queryParameters = new HashMap<>(2);
+        queryParameters.put("fields", new String[] { "name" });
+        queryParameters.put("show", new String[] { "posts" });
+        Mockito.when(request.getParameterMap()).thenReturn(queryParameters);
+
+        // the fields restrict the requested element only, not the elements of its shown sub-groups
+        final Response response = apiResource.getResource(request, "users/johann.bitionaire");
+        assertEquals(response.getStatus(), 200);
+        final JsonObject user = Json.createReader(new StringReader((String) response.getEntity())).readObject();
+        assertEquals(user.getString("name"), "Johann Bitionaire");
+        final JsonArray posts = user.getJsonObject("posts").getJsonArray("posts");
+        assertEquals(posts.size(), 2);
+        for (int i = 0; i < posts.size(); i++) {
+            assertTrue(posts.getJsonObject(i).containsKey("title"));
+        }
+    }
+
+    @Test
+    public void testFilteredAndSortedGroup() throws Exception {
+        final Map<String, String[]> queryParameters = new HashMap<>(2);
+        queryParameters.put("filter[name]", new String[] { "Johann Bitionaire", "Tobias Netdevfighter", "Daniel Germandrummer92" });
+        queryParameters.put("sort", new String[] { "-name" });
+        Mockito.when(request.getParameterMap()).thenReturn(queryParameters);
+
+        final Response response = apiResource.getResource(request, "users");
+        assertEquals(response.getStatus(), 200);
+
+        final String entity = response.getEntity().toString();
+        assertTrue(entity.indexOf("Tobias Netdevfighter") < entity.indexOf("Johann Bitionaire"));
+        assertTrue(entity.indexOf("Johann Bitionaire") < entity.indexOf("Daniel Germandrummer92"));
+        assertFalse(entity.contains("Andreas Piranha87"));
+        assertEquals(response.getHeaderString("Content-Range"), "users 0-2/3");
+    }
+
+    @Test
+    public void testFilteredAndSortedGroupWithSubgroups() throws Exception {
+        final Map<String, String[]> queryParameters = new HashMap<>(3);
+        queryParameters.put("filter[name]", new String[] { "Johann Bitionaire" });
+        queryParameters.put("show", new String[] { "posts" });
+        Mockito.when(request.getParameterMap()).thenReturn(queryParameters);
+
+        // the attributes of the users won't be applied to their posts
+        final Response response = apiResource.getResource(request, "users/johann.bitionaire");
+        assertEquals(response.getStatus(), 200);
+        final JsonArray posts = Json.createReader(new StringReader((String) response.getEntity())).readObject().getJsonObject("posts").getJsonArray("posts");
+        assertEquals(posts.size(), 2);
+
+        // neither will the order of the users
+        queryParameters.remove("filter[name]");
+        final String unsortedEntity = (String) apiResource.getResource(request, "users/johann.bitionaire").getEntity();
+        queryParameters.put("sort", new String[] { "-title" });
+        assertEquals(apiResource.getResource(request, "users/johann.bitionaire").getEntity(), unsortedEntity);
+        queryParameters.put("sort", new String[] { "title" });
+        assertEquals(apiResource.getResource(request, "users/johann.bitionaire").getEntity(), unsortedEntity);
+    }
+
+    @Test
+    public void testPageSizeLimits() throws Exception {
+        final Map<String, String[]> queryParameters = new HashMap<>(1);
+        queryParameters.put("per_page", new String[] { "1000000" });
+        Mockito.when(request.getParameterMap()).thenReturn(queryParameters);
+
+        final Response response = apiResource.getResource(request, "users");
+        assertEquals(response.getStatus(), 200);
+        assertTrue(response.getEntity().toString().contains("\"first\":\"/users?page=1&per_page=10\""), "the page size must be limited to the maximum of the resolver");
+
+        final GenericApiResource limitedApiResource = GenericApiResource.builder().resolvers(resolvers).maximumPageSize(2).build();
+        final Response limitedResponse = limitedApiResource.getResource(request, "users");
+        assertEquals(limitedResponse.getHeaderString("Content-Range"), "users 0-1/4");
+
+        // the default page size of the resolver exceeds the maximum page size as well
+        Mockito.when(request.getParameterMap()).thenReturn(Collections.emptyMap());
+        assertEquals(limitedApiResource.getResource(request, "users").getHeaderString("Content-Range"), "users 0-1/4");
+    }
+
+    @Test
+    public void testUnpagedGroupExceedingStreamingThreshold() throws Exception {
+        Mockito.when(request.getParameterMap()).thenReturn(Collections.emptyMap());
+
+        final GenericApiResource limitedApiResource = GenericApiResource.builder().resolvers(resolvers).streamingThreshold(1).build();
+        final Response response = limitedApiResource.getResource(request, "users/johann.bitionaire/posts");
+
+        assertEquals(response.getStatus(), 200);
+        assertTrue(response.getEntity() instanceof StreamingOutput, "unpaged groups exceeding the streaming threshold must be streamed");
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(outputStream);
+        assertEquals(outputStream.toString(StandardCharsets.UTF_8.name()), JsonHelper.getJsonStringFor(GenericApiResourceTest.class, "testNestedGroupResponse"));
+
+        assertFalse(limitedApiResource.getResource(request, "users/johann.bitionaire").getEntity() instanceof StreamingOutput);
+    }
+
     @Test
     public void testResponseOfNonExistingResource() {
         Mockito.when(request.getParameterMap()).thenReturn(Collections.emptyMap());
@@ -234,4 +947,74 @@ public class GenericApiResourceTest {
 
         assertEquals(response.getStatus(), 404);
     }
-}
\ No newline at end of file
+
+    private static CacheConfiguration cacheConfiguration(final String json) throws Exception {
+        return Jackson.newObjectMapper().readValue(json, CacheConfiguration.class);
+    }
+
+    private static LimitsConfiguration limitsConfiguration(final String json) throws Exception {
+        return Jackson.newObjectMapper().readValue(json, LimitsConfiguration.class);
+    }
+
+    public static class SlowExtensionResolver implements AsyncExtensionResolver {
+
+        @Override
+        public CompletionStage<Optional<Extension>> resolveAsync(final Element element) {
+            return new CompletableFuture<>();
+        }
+
+        @Override
+        public String[] hierarchy() {
+            return new String[] { "users", "slow" };
+        }
+    }
+
+    public static class CursorPostResolver extends PostResolver {
+
+        @Override
+        public Group elements(final Element parent, final Filters filters) {
+            // the posts are never paged, so any cursor must have been issued by another resolver
+            if (filters.get(CursorFilter.class).isPresent()) {
+                throw new IllegalArgumentException("unknown cursor " + filters.get(CursorFilter.class).get().getCursor());
+            }
+            return super.elements(parent, filters);
+        }
+    }
+
+    public static class PostLengthExtensionResolver extends BatchExtensionResolver {
+
+        @Override
+        public Map<Long, Extension> extensions(final Collection<Long> ids) {
+            final Map<Long, Extension> extensions = new HashMap<>();
+            for (final Long id : ids) {
+                extensions.put(id, new Extension() {
+                    @Override
+                    public String address() {
+                        return "length";
+                    }
+
+                    @Override
+                    public ZonedDateTime lastModified() {
+                        return null;
+                    }
+
+                    @Override
+                    public JsonObject content() {
+                        return Json.createObjectBuilder().add("id", id).build();
+                    }
+                });
+            }
+            return extensions;
+        }
+
+        @Override
+        public int maximumBatchSize() {
+            return 1;
+        }
+
+        @Override
+        public String[] hierarchy() {
+            return new String[] { "users", "posts", "length" };
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package net.oneandone.concierge.resource;
+
+import org.testng.annotations.Test;
+
+import javax.json.Json;
+import javax.json.JsonValue;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class LazyJsonArrayTest {
+
+    @Test
+    public void testRenderingOnAccess() {
+        final AtomicInteger renderings = new AtomicInteger();
+        final LazyJsonArray<String> array = new LazyJsonArray<>(Arrays.asList("a", "b", "c"), item -> {
+            renderings.incrementAndGet();
+            return Json.createObjectBuilder().add("name", item).build();
+        });
+
+        assertEquals(array.size(), 3);
+        assertEquals(renderings.get(), 0);
+
+        assertEquals(array.getJsonObject(1).getString("name"), "b");
+        assertEquals(renderings.get(), 1);
+    }
+
+    @Test
+    public void testSerialization() {
+        final LazyJsonArray<Integer> array = new LazyJsonArray<>(Arrays.asList(1, 2, 3), item -> Json.createArrayBuilder().add(item).build().get(0));
+
+        assertEquals(array.getValueType(), JsonValue.ValueType.ARRAY);
+        assertEquals(array.getInt(2), 3);
+        assertEquals(array.toString(), "[1,2,3]");
+        assertEquals(Json.createObjectBuilder().add("numbers", array).build().toString(), "{\"numbers\":[1,2,3]}");
+    }
+
+    @Test
+    public void testNullValues() {
+        final LazyJsonArray<String> array = new LazyJsonArray<>(Arrays.asList("a", "b"), item -> null);
+
+        assertTrue(array.isNull(0));
+        assertEquals(array.getString(1, "default"), "default");
+        assertEquals(array.toString(), "[null,null]");
+    }
+}
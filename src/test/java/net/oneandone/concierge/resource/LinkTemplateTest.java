@@ -0,0 +1,44 @@
+package net.oneandone.concierge.resource;
+
+import org.testng.annotations.Test;
+
+import javax.json.JsonObject;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.testng.Assert.*;
+
+public class LinkTemplateTest {
+
+    @Test
+    public void testElementLinks() {
+        final LinkTemplate template = new LinkTemplate(Arrays.asList("posts", "friends"), Collections.singletonList("profile"));
+        assertFalse(template.isEmpty());
+
+        final JsonObject links = template.render("/users", "johann.bitionaire");
+        assertEquals(links.getJsonObject("groups").getString("posts"), "/users/johann.bitionaire/posts");
+        assertEquals(links.getJsonObject("groups").getString("friends"), "/users/johann.bitionaire/friends");
+        assertEquals(links.getJsonObject("extensions").getString("profile"), "/users/johann.bitionaire/profile");
+        assertEquals(template.render("/users/johann.bitionaire", null), links);
+    }
+
+    @Test
+    public void testEmptyTemplate() {
+        assertTrue(LinkTemplate.EMPTY.isEmpty());
+        assertTrue(new LinkTemplate(Collections.emptyList(), Collections.emptyList()).render("/users", "johann.bitionaire").isEmpty());
+
+        final JsonObject rootLinks = new LinkTemplate(Collections.singletonList("users"), Collections.emptyList()).render("", null);
+        assertEquals(rootLinks.getJsonObject("groups").getString("users"), "/users");
+        assertFalse(rootLinks.containsKey("extensions"));
+    }
+
+    @Test
+    public void testPageLinks() {
+        final LinkTemplate.PageLinks pageLinks = new LinkTemplate.PageLinks("/users/johann.bitionaire/posts");
+        assertEquals(pageLinks.page(2, 10), "/users/johann.bitionaire/posts?page=2&per_page=10");
+        assertEquals(pageLinks.first(10), "/users/johann.bitionaire/posts?per_page=10");
+        assertEquals(pageLinks.cursor("a b=", 5), "/users/johann.bitionaire/posts?cursor=a+b%3D&per_page=5");
+        assertEquals(pageLinks.page(1, 10), "/users/johann.bitionaire/posts?page=1&per_page=10");
+    }
+
+}
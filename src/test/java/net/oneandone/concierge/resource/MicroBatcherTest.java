@@ -0,0 +1,128 @@
+package net.oneandone.concierge.resource;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.testng.Assert.*;
+
+public class MicroBatcherTest {
+
+    private ScheduledExecutorService scheduler;
+    private List<List<String>> loads;
+    private Function<List<String>, CompletionStage<Map<String, Integer>>> loader;
+
+    @BeforeMethod
+    public void setUp() {
+        scheduler = Mockito.mock(ScheduledExecutorService.class);
+        loads = new ArrayList<>();
+        loader = keys -> {
+            loads.add(keys);
+            final Map<String, Integer> values = new HashMap<>();
+            keys.stream().filter(key -> !key.isEmpty()).forEach(key -> values.put(key, key.length()));
+            return CompletableFuture.completedFuture(values);
+        };
+    }
+
+    @Test
+    public void testWindow() {
+        final MicroBatcher<String, Integer> batcher = new MicroBatcher<>(scheduler, 1000, 10);
+        final CompletableFuture<Integer> first = batcher.load("users", "andreas", loader);
+        final CompletableFuture<Integer> second = batcher.load("users", "johann", loader);
+        final CompletableFuture<Integer> duplicate = batcher.load("users", "johann", loader);
+        assertFalse(first.isDone());
+        assertEquals(batcher.size(), 1);
+
+        final ArgumentCaptor<Runnable> dispatch = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(scheduler).schedule(dispatch.capture(), Mockito.eq(1000L), Mockito.eq(TimeUnit.NANOSECONDS));
+        dispatch.getValue().run();
+
+        assertEquals(loads, Collections.singletonList(Arrays.asList("andreas", "johann")));
+        assertEquals(first.join(), Integer.valueOf(7));
+        assertEquals(second.join(), Integer.valueOf(6));
+        assertEquals(duplicate.join(), Integer.valueOf(6));
+        assertEquals(batcher.size(), 0);
+    }
+
+    @Test
+    public void testFullBatch() {
+        final MicroBatcher<String, Integer> batcher = new MicroBatcher<>(scheduler, 1000, 2);
+        final CompletableFuture<Integer> first = batcher.load("users", "andreas", loader);
+        final CompletableFuture<Integer> second = batcher.load("users", "johann", loader);
+        final CompletableFuture<Integer> third = batcher.load("users", "lisa", loader);
+
+        // the full batch is loaded immediately, the third key starts a new batch
+        assertEquals(first.join(), Integer.valueOf(7));
+        assertEquals(second.join(), Integer.valueOf(6));
+        assertFalse(third.isDone());
+
+        final ArgumentCaptor<Runnable> dispatch = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(scheduler, Mockito.times(2)).schedule(dispatch.capture(), Mockito.anyLong(), Mockito.any());
+        dispatch.getAllValues().forEach(Runnable::run);
+
+        assertEquals(third.join(), Integer.valueOf(4));
+        assertEquals(loads, Arrays.asList(Arrays.asList("andreas", "johann"), Collections.singletonList("lisa")));
+    }
+
+    @Test
+    public void testBatchKeys() {
+        final MicroBatcher<String, Integer> batcher = new MicroBatcher<>(scheduler, 1000, 10);
+        batcher.load("users", "andreas", loader);
+        batcher.load("posts", "hello", loader);
+        batcher.load("posts", "", loader);
+        assertEquals(batcher.size(), 2);
+
+        final ArgumentCaptor<Runnable> dispatch = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(scheduler, Mockito.times(2)).schedule(dispatch.capture(), Mockito.anyLong(), Mockito.any());
+        dispatch.getAllValues().forEach(Runnable::run);
+
+        assertEquals(loads, Arrays.asList(Collections.singletonList("andreas"), Arrays.asList("hello", "")));
+    }
+
+    @Test
+    public void testMissingValue() {
+        final MicroBatcher<String, Integer> batcher = new MicroBatcher<>(scheduler, 1000, 1);
+        assertNull(batcher.load("users", "", loader).join());
+    }
+
+    @Test
+    public void testMissingValues() {
+        final MicroBatcher<String, Integer> batcher = new MicroBatcher<>(scheduler, 1000, 2);
+        final CompletableFuture<Integer> first = batcher.load("users", "andreas", keys -> CompletableFuture.completedFuture(null));
+        final CompletableFuture<Integer> second = batcher.load("users", "johann", loader);
+
+        assertTrue(first.isDone() && second.isDone(), "a missing result must complete all callers");
+        assertNull(first.join());
+        assertNull(second.join());
+    }
+
+    @Test
+    public void testFailedLoad() {
+        final MicroBatcher<String, Integer> batcher = new MicroBatcher<>(scheduler, 1000, 2);
+        batcher.load("users", "andreas", keys -> {
+            throw new IllegalStateException("resolver failed");
+        });
+        final CompletableFuture<Integer> failed = batcher.load("users", "johann", loader);
+        assertTrue(failed.isCompletedExceptionally());
+
+        final CompletableFuture<Map<String, Integer>> result = new CompletableFuture<>();
+        final CompletableFuture<Integer> failedLater = batcher.load("posts", "hello", keys -> result);
+        batcher.load("posts", "world", loader);
+        result.completeExceptionally(new IllegalStateException("resolver failed"));
+        assertTrue(failedLater.isCompletedExceptionally());
+    }
+
+}
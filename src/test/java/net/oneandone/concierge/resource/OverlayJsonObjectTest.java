@@ -0,0 +1,76 @@
+package net.oneandone.concierge.resource;
+
+import org.testng.annotations.Test;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class OverlayJsonObjectTest {
+
+    private static final JsonObject BASE = Json.createObjectBuilder().add("name", "Johann").add("age", 42).build();
+
+    @Test
+    public void testAdditionalEntries() {
+        final Map<String, JsonValue> overlay = new LinkedHashMap<>();
+        overlay.put("profile", Json.createObjectBuilder().add("nickname", "jo").build());
+        overlay.put("active", JsonValue.TRUE);
+        final OverlayJsonObject object = new OverlayJsonObject(BASE, overlay);
+
+        assertEquals(object.size(), 4);
+        assertEquals(new ArrayList<>(object.keySet()), Arrays.asList("name", "age", "profile", "active"));
+        assertSame(object.get("name"), BASE.get("name"));
+        assertEquals(object.getInt("age"), 42);
+        assertTrue(object.getBoolean("active"));
+        assertEquals(object.getJsonObject("profile").getString("nickname"), "jo");
+        assertFalse(object.containsKey("unknown"));
+        assertEquals(object.toString(), "{\"name\":\"Johann\",\"age\":42,\"profile\":{\"nickname\":\"jo\"},\"active\":true}");
+    }
+
+    @Test
+    public void testVisibleFields() {
+        final Map<String, JsonValue> overlay = new LinkedHashMap<>();
+        overlay.put("links", Json.createObjectBuilder().build());
+        final OverlayJsonObject object = new OverlayJsonObject(BASE, overlay, Collections.singleton("age"));
+
+        assertEquals(object.size(), 2);
+        assertEquals(new ArrayList<>(object.keySet()), Arrays.asList("age", "links"));
+        assertFalse(object.containsKey("name"));
+        assertEquals(object.get("name"), null);
+        assertEquals(object.toString(), "{\"age\":42,\"links\":{}}");
+    }
+
+    @Test
+    public void testReplacedEntries() {
+        final Map<String, JsonValue> overlay = new LinkedHashMap<>();
+        overlay.put("name", Json.createArrayBuilder().add("Johann").build().get(0));
+        overlay.put("links", Json.createObjectBuilder().build());
+        final OverlayJsonObject object = new OverlayJsonObject(BASE, overlay);
+
+        assertEquals(object.size(), 3);
+        assertEquals(new ArrayList<>(object.keySet()), Arrays.asList("name", "age", "links"));
+        assertSame(object.get("name"), overlay.get("name"));
+    }
+
+    @Test
+    public void testEqualsBuiltObject() {
+        final Map<String, JsonValue> overlay = new LinkedHashMap<>();
+        overlay.put("age", Json.createArrayBuilder().add(43).build().get(0));
+        overlay.put("links", Json.createObjectBuilder().build());
+
+        final JsonObject expected = Json.createObjectBuilder().add("name", "Johann").add("age", 43).add("links", Json.createObjectBuilder()).build();
+        final OverlayJsonObject object = new OverlayJsonObject(BASE, overlay);
+        assertEquals(object.toString(), expected.toString());
+        assertEquals(expected, object);
+    }
+}
@@ -0,0 +1,191 @@
+package net.oneandone.concierge.resource;
+
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Extension;
+import net.oneandone.concierge.api.Group;
+import net.oneandone.concierge.api.filter.AddressFilter;
+import net.oneandone.concierge.api.filter.Filters;
+import net.oneandone.concierge.api.resolver.AsyncExtensionResolver;
+import net.oneandone.concierge.api.resolver.AsyncGroupResolver;
+import net.oneandone.concierge.demo.model.DemoData;
+import org.testng.annotations.Test;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+public class ResolutionContextTest {
+
+    @Test
+    public void testAwait() {
+        final ResolutionContext context = new ResolutionContext(TimeUnit.SECONDS.toNanos(5));
+        assertEquals(context.await(CompletableFuture.supplyAsync(() -> "resolved")), "resolved");
+    }
+
+    @Test(expectedExceptions = ResolutionContext.ResolutionTimeoutException.class)
+    public void testDeadlineExceeded() {
+        final ResolutionContext context = new ResolutionContext(TimeUnit.MILLISECONDS.toNanos(50));
+        context.await(new CompletableFuture<String>());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "resolver failed")
+    public void testResolverExceptionIsRethrown() {
+        final ResolutionContext context = new ResolutionContext(TimeUnit.SECONDS.toNanos(5));
+        context.await(CompletableFuture.supplyAsync(() -> {
+            throw new IllegalArgumentException("resolver failed");
+        }));
+    }
+
+    @Test
+    public void testMemoizedResolverCalls() {
+        final AtomicInteger calls = new AtomicInteger();
+        final AsyncGroupResolver resolver = new AsyncGroupResolver() {
+            @Override
+            public CompletionStage<Group> elementsAsync(final Element parent, final Filters filters) {
+                calls.incrementAndGet();
+                return CompletableFuture.completedFuture(Group.empty(name()));
+            }
+
+            @Override
+            public int defaultPageSize() {
+                return 0;
+            }
+
+            @Override
+            public int maximumPageSize() {
+                return 0;
+            }
+
+            @Override
+            public String[] hierarchy() {
+                return new String[]{"users"};
+            }
+        };
+
+        final ResolutionContext context = new ResolutionContext(TimeUnit.SECONDS.toNanos(5));
+        final Group group = context.elements(resolver, null, Filters.Builder.initialize().add(new AddressFilter("john.doe")).build()).join();
+        assertSame(context.elements(resolver, null, Filters.Builder.initialize().add(new AddressFilter("john.doe")).build()).join(), group);
+        assertEquals(calls.get(), 1);
+
+        context.elements(resolver, null, Filters.Builder.initialize().add(new AddressFilter("jane.doe")).build()).join();
+        context.elements(resolver, DemoData.USER1, Filters.Builder.initialize().add(new AddressFilter("john.doe")).build()).join();
+        assertEquals(calls.get(), 3);
+        assertEquals(context.calls(), 3);
+
+        // another request must call the resolver again
+        new ResolutionContext(TimeUnit.SECONDS.toNanos(5)).elements(resolver, null, Filters.Builder.initialize().add(new AddressFilter("john.doe")).build()).join();
+        assertEquals(calls.get(), 4);
+    }
+
+    @Test
+    public void testSharedResolverCalls() {
+        final AtomicInteger calls = new AtomicInteger();
+        final CompletableFuture<Group> pendingGroup = new CompletableFuture<>();
+        final AsyncGroupResolver resolver = new AsyncGroupResolver() {
+            @Override
+            public CompletionStage<Group> elementsAsync(final Element parent, final Filters filters) {
+                calls.incrementAndGet();
+                return pendingGroup;
+            }
+
+            @Override
+            public int defaultPageSize() {
+                return 0;
+            }
+
+            @Override
+            public int maximumPageSize() {
+                return 0;
+            }
+
+            @Override
+            public String[] hierarchy() {
+                return new String[]{"users"};
+            }
+        };
+
+        final SingleFlight flights = new SingleFlight();
+        final ResolutionContext context = new ResolutionContext(TimeUnit.SECONDS.toNanos(5), flights);
+        final ResolutionContext concurrentContext = new ResolutionContext(TimeUnit.SECONDS.toNanos(5), flights);
+        final CompletableFuture<Group> group = context.elements(resolver, null, Filters.Builder.initialize().build());
+        final CompletableFuture<Group> concurrentGroup = concurrentContext.elements(resolver, null, Filters.Builder.initialize().build());
+
+        pendingGroup.complete(Group.withElement(DemoData.USER1));
+        assertSame(group.join(), concurrentGroup.join());
+        assertEquals(calls.get(), 1);
+        assertEquals(context.elements(), 1);
+        assertEquals(concurrentContext.elements(), 1);
+
+        // completed calls won't be shared
+        new ResolutionContext(TimeUnit.SECONDS.toNanos(5), flights).elements(resolver, null, Filters.Builder.initialize().build()).join();
+        assertEquals(calls.get(), 2);
+    }
+
+    @Test
+    public void testSharedExtensionBatches() {
+        final AtomicInteger calls = new AtomicInteger();
+        final CompletableFuture<Map<Element, Extension>> pendingExtensions = new CompletableFuture<>();
+        final AsyncExtensionResolver resolver = new AsyncExtensionResolver() {
+            @Override
+            public CompletionStage<Optional<Extension>> resolveAsync(final Element element) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletionStage<Map<Element, Extension>> resolveAsync(final Group group) {
+                calls.incrementAndGet();
+                return pendingExtensions;
+            }
+
+            @Override
+            public String[] hierarchy() {
+                return new String[]{"users", "profile"};
+            }
+        };
+
+        // every request splits its group into batches of its own
+        final SingleFlight flights = new SingleFlight();
+        final List<Element> batch = Arrays.asList(DemoData.USER1, DemoData.USER2);
+        final CompletableFuture<Map<Element, Extension>> extensions = new ResolutionContext(TimeUnit.SECONDS.toNanos(5), flights)
+                .extensions(resolver, Group.withElements("users", batch, 4, ZonedDateTime.now()));
+        final CompletableFuture<Map<Element, Extension>> concurrentExtensions = new ResolutionContext(TimeUnit.SECONDS.toNanos(5), flights)
+                .extensions(resolver, Group.withElements("users", new ArrayList<>(batch), 4, ZonedDateTime.now()));
+
+        pendingExtensions.complete(Collections.emptyMap());
+        assertSame(extensions.join(), concurrentExtensions.join());
+        assertEquals(calls.get(), 1, "identical batches of concurrent requests must be resolved once");
+    }
+
+    @Test
+    public void testMemoizedResolverException() {
+        final AtomicInteger calls = new AtomicInteger();
+        final AsyncExtensionResolver resolver = new AsyncExtensionResolver() {
+            @Override
+            public CompletionStage<Optional<Extension>> resolveAsync(final Element element) {
+                calls.incrementAndGet();
+                throw new IllegalStateException("resolver failed");
+            }
+
+            @Override
+            public String[] hierarchy() {
+                return new String[]{"users", "profile"};
+            }
+        };
+
+        final ResolutionContext context = new ResolutionContext(TimeUnit.SECONDS.toNanos(5));
+        assertTrue(context.extension(resolver, DemoData.USER1).isCompletedExceptionally());
+        assertTrue(context.extension(resolver, DemoData.USER1).isCompletedExceptionally());
+        assertEquals(calls.get(), 1);
+    }
+
+}
@@ -0,0 +1,83 @@
+package net.oneandone.concierge.resource;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.oneandone.concierge.api.resolver.AsyncGroupResolver;
+import net.oneandone.concierge.demo.resolver.PostResolver;
+import net.oneandone.concierge.demo.resolver.UserProfileExtensionResolver;
+import net.oneandone.concierge.demo.resolver.UserResolver;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.testng.Assert.*;
+
+public class ResolverIndexTest {
+
+    private ResolverIndex index;
+
+    @BeforeClass
+    public void setUp() {
+        index = new ResolverIndex(
+                ImmutableList.of(new UserResolver(), new PostResolver()),
+                ImmutableList.of(new UserProfileExtensionResolver()),
+                MoreExecutors.directExecutor()
+        );
+    }
+
+    @Test
+    public void testRootNode() {
+        final ResolverIndex.Node root = index.root();
+        assertFalse(root.groupResolver().isPresent());
+        assertEquals(root.subgroups(), Collections.singletonList("users"));
+        assertTrue(root.extensions().isEmpty());
+    }
+
+    @Test
+    public void testGroupNode() {
+        final ResolverIndex.Node node = index.find(new String[]{"users"});
+        assertEquals(node.name(), "users");
+        assertEquals(node.groupResolver().get().defaultPageSize(), new UserResolver().defaultPageSize());
+        assertTrue(node.extensionResolvers().isEmpty());
+        assertEquals(node.subgroups(), Collections.singletonList("posts"));
+        assertEquals(node.extensions(), Collections.singletonList("profile"));
+        assertEquals(node.links().render("/users", "johann.bitionaire").getJsonObject("groups").getString("posts"), "/users/johann.bitionaire/posts");
+    }
+
+    @Test
+    public void testExtensionNode() {
+        final ResolverIndex.Node node = index.find(new String[]{"users", "profile"});
+        assertFalse(node.groupResolver().isPresent());
+        assertEquals(node.extensionResolvers().size(), 1);
+        assertEquals(node.extensionResolvers().get(0).hierarchy(), new String[]{"users", "profile"});
+    }
+
+    @Test
+    public void testUnknownHierarchy() {
+        final ResolverIndex.Node node = index.find(new String[]{"users", "instruments", "strings"});
+        assertSame(node, ResolverIndex.Node.EMPTY);
+        assertFalse(node.groupResolver().isPresent());
+        assertTrue(node.extensionResolvers().isEmpty());
+        assertTrue(node.subgroups().isEmpty());
+        assertSame(node.links(), LinkTemplate.EMPTY);
+    }
+
+    @Test
+    public void testFindByResourceIdentifier() {
+        final ResourceIdentifier identifier = ResourceIdentifier.parse("users/johann.bitionaire/posts/darkwing-duck");
+        assertSame(index.find(identifier), index.find(identifier.hierarchy()));
+        assertSame(index.find(identifier.next()), index.find(identifier.next().hierarchy()));
+        assertSame(index.findComplete(identifier), index.find(identifier.completeHierarchy()));
+        assertTrue(index.findComplete(ResourceIdentifier.parse("users/johann.bitionaire/profile")).extensionResolvers().size() == 1);
+    }
+
+    @Test
+    public void testFirstGroupResolverWins() {
+        final AsyncGroupResolver first = AsyncGroupResolver.of(new UserResolver(), MoreExecutors.directExecutor());
+        final ResolverIndex duplicateIndex = new ResolverIndex(Arrays.asList(first, new UserResolver()), Collections.emptyList(), MoreExecutors.directExecutor());
+        assertSame(duplicateIndex.find(new String[]{"users"}).groupResolver().get(), first);
+        assertEquals(duplicateIndex.root().subgroups(), Collections.singletonList("users"));
+    }
+}
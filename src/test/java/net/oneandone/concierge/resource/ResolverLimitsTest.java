@@ -0,0 +1,124 @@
+package net.oneandone.concierge.resource;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class ResolverLimitsTest {
+
+    @Test
+    public void testMaximumConcurrentCalls() {
+        final ResolverLimits limits = new ResolverLimits("users/profile", 1, 0, null);
+        final CompletableFuture<String> call = new CompletableFuture<>();
+
+        final CompletableFuture<String> first = limits.call(() -> call).toCompletableFuture();
+        final CompletableFuture<String> rejected = limits.call(() -> CompletableFuture.completedFuture("rejected")).toCompletableFuture();
+        assertFalse(first.isDone());
+        assertTrue(rejected.isCompletedExceptionally());
+        assertTrue(ResolverLimits.isUnavailable(catchFailure(rejected)));
+        assertEquals(limits.availableCalls(), 0);
+
+        // the permit is released once the call is completed
+        call.complete("profile");
+        assertEquals(first.join(), "profile");
+        assertEquals(limits.availableCalls(), 1);
+        assertEquals(limits.call(() -> CompletableFuture.completedFuture("again")).toCompletableFuture().join(), "again");
+    }
+
+    @Test
+    public void testFailedCall() {
+        final ResolverLimits limits = new ResolverLimits("users/profile", 1, 0, null);
+        try {
+            limits.call(() -> {
+                throw new IllegalStateException("resolver failed");
+            });
+            fail();
+        } catch (final IllegalStateException e) {
+            assertEquals(limits.availableCalls(), 1);
+        }
+        assertFalse(ResolverLimits.isUnavailable(new CompletionException(new IllegalStateException("resolver failed"))));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTimeout() {
+        final ScheduledExecutorService scheduler = Mockito.mock(ScheduledExecutorService.class);
+        final ScheduledFuture<?> scheduledFuture = Mockito.mock(ScheduledFuture.class);
+        Mockito.when(scheduler.schedule(Mockito.any(Runnable.class), Mockito.anyLong(), Mockito.any())).thenAnswer(invocation -> scheduledFuture);
+
+        final ResolverLimits limits = new ResolverLimits("users/profile", 1, TimeUnit.MILLISECONDS.toNanos(50), scheduler);
+        final CompletableFuture<String> call = new CompletableFuture<>();
+        final CompletableFuture<String> result = limits.call(() -> call).toCompletableFuture();
+
+        final ArgumentCaptor<Runnable> timeout = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(scheduler).schedule(timeout.capture(), Mockito.eq(TimeUnit.MILLISECONDS.toNanos(50)), Mockito.eq(TimeUnit.NANOSECONDS));
+        timeout.getValue().run();
+        assertTrue(ResolverLimits.isUnavailable(catchFailure(result)));
+
+        // the resolver is still busy, so the permit is held until it's finished
+        assertEquals(limits.availableCalls(), 0);
+        call.complete("profile");
+        assertEquals(limits.availableCalls(), 1);
+        Mockito.verify(scheduledFuture).cancel(false);
+    }
+
+    @Test
+    public void testCompletedBeforeTimeout() throws Exception {
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            final ResolverLimits limits = new ResolverLimits("users/profile", 0, TimeUnit.SECONDS.toNanos(5), scheduler);
+            assertEquals(limits.call(() -> CompletableFuture.completedFuture("profile")).toCompletableFuture().get(1, TimeUnit.SECONDS), "profile");
+            assertEquals(limits.availableCalls(), Integer.MAX_VALUE);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testTimeoutOfBlockingCall() throws Exception {
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            final ResolverLimits limits = new ResolverLimits("users/profile", 1, TimeUnit.MILLISECONDS.toNanos(50), scheduler);
+            // the resolver blocks the calling thread on the direct executor, i.e. without resolver threads
+            final CompletableFuture<String> result = limits.call(() -> CompletableFuture.supplyAsync(() -> {
+                try {
+                    Thread.sleep(500);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "profile";
+            }, MoreExecutors.directExecutor())).toCompletableFuture();
+
+            assertTrue(ResolverLimits.isUnavailable(catchFailure(result)), "the call must time out even if it blocked the calling thread");
+            assertEquals(limits.availableCalls(), 1);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testTimeoutWithoutScheduler() {
+        new ResolverLimits("users/profile", 0, 1, null);
+    }
+
+    private static Throwable catchFailure(final CompletableFuture<?> future) {
+        try {
+            future.join();
+        } catch (final CompletionException e) {
+            return e;
+        }
+        fail("the future did not fail");
+        return null;
+    }
+
+}
@@ -0,0 +1,98 @@
+package net.oneandone.concierge.resource;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.oneandone.concierge.api.Element;
+import net.oneandone.concierge.api.Group;
+import net.oneandone.concierge.api.filter.Filters;
+import net.oneandone.concierge.api.resolver.AsyncExtensionResolver;
+import net.oneandone.concierge.api.resolver.AsyncGroupResolver;
+import net.oneandone.concierge.demo.model.DemoData;
+import net.oneandone.concierge.demo.resolver.UserProfileExtensionResolver;
+import net.oneandone.concierge.demo.resolver.UserResolver;
+import org.testng.annotations.Test;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import static org.testng.Assert.*;
+
+public class ResolverMetricsTest {
+
+    @Test
+    public void testGroupResolverMetrics() {
+        final MetricRegistry registry = new MetricRegistry();
+        final AsyncGroupResolver resolver = new InstrumentedGroupResolver(AsyncGroupResolver.of(new UserResolver(), MoreExecutors.directExecutor()), registry);
+
+        final Group group = resolver.elementsAsync(null, Filters.Builder.initialize().build()).toCompletableFuture().join();
+        resolver.lastModifiedAsync(null, Filters.Builder.initialize().build()).toCompletableFuture().join();
+
+        assertEquals(registry.timer("concierge.resolvers.group.users.elements").getCount(), 1);
+        assertEquals(registry.timer("concierge.resolvers.group.users.lastModified").getCount(), 1);
+        assertEquals(registry.timer("concierge.resolvers.group.users.groups").getCount(), 0);
+        assertEquals(registry.histogram("concierge.resolvers.group.users.results").getCount(), 1);
+        assertEquals(registry.histogram("concierge.resolvers.group.users.results").getSnapshot().getMax(), group.elements().size());
+        assertEquals(registry.meter("concierge.resolvers.group.users.errors").getCount(), 0);
+    }
+
+    @Test
+    public void testExtensionResolverMetrics() {
+        final MetricRegistry registry = new MetricRegistry();
+        final AsyncExtensionResolver resolver = new InstrumentedExtensionResolver(AsyncExtensionResolver.of(new UserProfileExtensionResolver(), MoreExecutors.directExecutor()), registry);
+
+        assertTrue(resolver.resolveAsync(DemoData.USER4).toCompletableFuture().join().isPresent());
+
+        assertEquals(registry.timer("concierge.resolvers.extension.users.profile.resolve").getCount(), 1);
+        assertEquals(registry.histogram("concierge.resolvers.extension.users.profile.results").getSnapshot().getMax(), 1);
+        assertEquals(registry.meter("concierge.resolvers.extension.users.profile.errors").getCount(), 0);
+    }
+
+    @Test
+    public void testFailedResolverCalls() {
+        final MetricRegistry registry = new MetricRegistry();
+        final AsyncGroupResolver resolver = new InstrumentedGroupResolver(new AsyncGroupResolver() {
+            @Override
+            public CompletionStage<Group> elementsAsync(final Element parent, final Filters filters) {
+                final CompletableFuture<Group> result = new CompletableFuture<>();
+                result.completeExceptionally(new IllegalStateException("resolver failed"));
+                return result;
+            }
+
+            @Override
+            public CompletionStage<Map<Element, Group>> groupsAsync(final Collection<Element> parents, final Filters filters) {
+                throw new IllegalStateException("resolver failed");
+            }
+
+            @Override
+            public int defaultPageSize() {
+                return 0;
+            }
+
+            @Override
+            public int maximumPageSize() {
+                return 0;
+            }
+
+            @Override
+            public String[] hierarchy() {
+                return new String[]{"users"};
+            }
+        }, registry);
+
+        assertTrue(resolver.elementsAsync(null, Filters.Builder.initialize().build()).toCompletableFuture().isCompletedExceptionally());
+        try {
+            resolver.groupsAsync(Collections.emptyList(), Filters.Builder.initialize().build());
+            fail("the exception of the resolver should be rethrown");
+        } catch (final IllegalStateException e) {
+            assertEquals(e.getMessage(), "resolver failed");
+        }
+
+        assertEquals(registry.meter("concierge.resolvers.group.users.errors").getCount(), 2);
+        assertEquals(registry.timer("concierge.resolvers.group.users.elements").getCount(), 1);
+        assertEquals(registry.timer("concierge.resolvers.group.users.groups").getCount(), 1);
+        assertEquals(registry.histogram("concierge.resolvers.group.users.results").getCount(), 0);
+    }
+}
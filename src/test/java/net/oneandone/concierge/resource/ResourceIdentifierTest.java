@@ -1,10 +1,22 @@
 package net.oneandone.concierge.resource;
 
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
 import net.oneandone.concierge.api.filter.AddressFilter;
+import net.oneandone.concierge.api.filter.AttributeFilter;
+import net.oneandone.concierge.api.filter.CursorFilter;
+import net.oneandone.concierge.api.filter.FieldsFilter;
 import net.oneandone.concierge.api.filter.Filters;
 import net.oneandone.concierge.api.filter.PageFilter;
+import net.oneandone.concierge.api.filter.SortFilter;
+import net.oneandone.concierge.demo.model.DemoData;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
 import static org.testng.Assert.*;
 
 public class ResourceIdentifierTest {
@@ -34,6 +46,49 @@ public class ResourceIdentifierTest {
         assertFalse(filters.get(PageFilter.class).isPresent());
     }
 
+    @Test
+    public void testSharedHierarchies() throws Exception {
+        final ResourceIdentifier identifier = ResourceIdentifier.parse(new String("group1/id1/group2/id2/"));
+        assertEquals(identifier.get(), new String[]{"group1", "id1", "group2", "id2"});
+        assertSame(identifier.hierarchy(), identifier.hierarchy());
+        assertSame(identifier.next().completeHierarchy(), identifier.completeHierarchy());
+        assertSame(identifier.next().hierarchy(), identifier.completeHierarchy());
+        assertEquals(identifier.path(), "/group1/id1/group2/id2");
+
+        // the names of groups and extensions are interned
+        assertSame(identifier.hierarchySegment(1), ResourceIdentifier.parse(new String("group1/id3/group2")).hierarchySegment(1));
+        assertEquals(ResourceIdentifier.parse("group1//group2").get(), new String[]{"group1", "", "group2"});
+    }
+
+    @Test
+    public void testSubgroup() throws Exception {
+        final ResourceIdentifier identifier = ResourceIdentifier.parse("group1", ImmutableMultimap.of("show", "group2", "per_page", "5"));
+        final ResourceIdentifier subgroup = identifier.subgroup("group2");
+        assertEquals(subgroup.get(), new String[]{"group1", ResourceIdentifier.ANY_ELEMENT, "group2"});
+        assertEquals(subgroup.hierarchy(), new String[]{"group1", "group2"});
+        assertEquals(subgroup.groupIdentifier(), "group2");
+        assertFalse(subgroup.hasElementIdentifier());
+        assertFalse(subgroup.hasNextScope());
+        assertEquals(subgroup.filters(), identifier.extend(DemoData.USER1).extend("group2").next().filters());
+
+        final ResourceIdentifier elementIdentifier = ResourceIdentifier.parse("group1/id1");
+        assertEquals(elementIdentifier.subgroup("group2").get(), new String[]{"group1", "id1", "group2"});
+    }
+
+    @Test
+    public void testParseWithQuery() throws Exception {
+        final ResourceIdentifier identifier = ResourceIdentifier.parseWithQuery("/users/johann.bitionaire?show=profile&show=posts&filter%5Bname%5D=Johann+B&flag");
+        assertEquals(identifier.get(), new String[]{"users", "johann.bitionaire"});
+        assertEquals(identifier.normalized(), "users/johann.bitionaire?filter%5Bname%5D=Johann+B&flag=&show=posts&show=profile");
+        assertEquals(ResourceIdentifier.parseWithQuery("users").normalized(), "users");
+        assertTrue(ResourceIdentifier.parseWithQuery("/").empty());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testParseWithMalformedQuery() throws Exception {
+        ResourceIdentifier.parseWithQuery("users?page=%zz");
+    }
+
     @Test
     public void testResourceIdentifierWithOneGroupsAndAnElement() throws Exception {
         final ResourceIdentifier identifier = ResourceIdentifier.parse("group1/id1");
@@ -84,6 +139,66 @@ public class ResourceIdentifierTest {
         assertFalse(nextScopeFilters.get(PageFilter.class).isPresent());
     }
 
+    @Test
+    public void testFieldsFilter() throws Exception {
+        final Multimap<String, String> parameters = LinkedHashMultimap.create();
+        parameters.put("fields", "name, age");
+        parameters.put("fields", "age,,address");
+
+        final Filters filters = ResourceIdentifier.parse("group1", parameters).filters();
+        assertEquals(new ArrayList<>(filters.get(FieldsFilter.class).get().getFields()), Arrays.asList("name", "age", "address"));
+
+        // only the last scope will be restricted
+        assertFalse(ResourceIdentifier.parse("group1/id1/group2", parameters).filters().get(FieldsFilter.class).isPresent());
+        assertTrue(ResourceIdentifier.parse("group1/id1/group2", parameters).next().filters().get(FieldsFilter.class).isPresent());
+
+        // empty fields will be ignored
+        parameters.replaceValues("fields", Collections.singletonList(" , "));
+        assertFalse(ResourceIdentifier.parse("group1", parameters).filters().get(FieldsFilter.class).isPresent());
+    }
+
+    @Test
+    public void testAttributeAndSortFilters() throws Exception {
+        final Multimap<String, String> parameters = LinkedHashMultimap.create();
+        parameters.put("filter[nationality]", "British");
+        parameters.put("filter[nationality]", "German");
+        parameters.put("filter[]", "ignored");
+        parameters.put("sort", "-name, +age,year");
+
+        final Filters filters = ResourceIdentifier.parse("group1", parameters).filters();
+        assertEquals(filters.get(AttributeFilter.class).get().getAttributes().keySet(), Collections.singleton("nationality"));
+        assertEquals(new ArrayList<>(filters.get(AttributeFilter.class).get().getAttributes().get("nationality")), Arrays.asList("British", "German"));
+        assertEquals(filters.get(SortFilter.class).get().getOrders(), Arrays.asList(
+                new SortFilter.Order("name", true), new SortFilter.Order("age", false), new SortFilter.Order("year", false)));
+
+        // only the last scope will be filtered and sorted
+        assertFalse(ResourceIdentifier.parse("group1/id1/group2", parameters).filters().get(AttributeFilter.class).isPresent());
+        assertFalse(ResourceIdentifier.parse("group1/id1/group2", parameters).filters().get(SortFilter.class).isPresent());
+    }
+
+    @Test
+    public void testCursorFilter() throws Exception {
+        final Multimap<String, String> parameters = LinkedHashMultimap.create();
+        parameters.put("cursor", "b3BhcXVl");
+        parameters.put("page", "3");
+        parameters.put("per_page", "25");
+
+        // the cursor takes precedence over the page
+        final Filters filters = ResourceIdentifier.parse("group1", parameters).filters();
+        assertEquals(filters.get(CursorFilter.class).get().getCursor(), "b3BhcXVl");
+        assertEquals(filters.get(CursorFilter.class).get().getPerPage().getAsInt(), 25);
+        assertFalse(filters.get(PageFilter.class).isPresent());
+
+        // only the last scope will be paged
+        assertFalse(ResourceIdentifier.parse("group1/id1/group2", parameters).filters().get(CursorFilter.class).isPresent());
+        assertTrue(ResourceIdentifier.parse("group1/id1/group2", parameters).next().filters().get(CursorFilter.class).isPresent());
+
+        // an empty cursor requests the first page
+        parameters.replaceValues("cursor", Collections.singletonList(""));
+        assertFalse(ResourceIdentifier.parse("group1", parameters).filters().get(CursorFilter.class).isPresent());
+        assertEquals(ResourceIdentifier.parse("group1", parameters).filters().get(PageFilter.class).get().getPage(), 3);
+    }
+
     @Test
     public void testResourceIdentifierWithTwoGroupsAndElementsWithExtension() throws Exception {
         final ResourceIdentifier identifier = ResourceIdentifier.parse("group1/id1/group2/id2/extension");
@@ -120,4 +235,16 @@ public class ResourceIdentifierTest {
         assertFalse(extensionScope.hasNextScope());
         assertFalse(extensionScope.hasElementIdentifier());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testNormalizedResourceIdentifier() throws Exception {
+        final Multimap<String, String> parameters = LinkedHashMultimap.create();
+        parameters.put("show", "profile");
+        parameters.put("per_page", "10");
+        parameters.put("show", "posts");
+        parameters.put("q", "a&b=c");
+
+        assertEquals(ResourceIdentifier.parse("users/john.doe/posts", parameters).normalized(), "users/john.doe/posts?per_page=10&q=a%26b%3Dc&show=posts&show=profile");
+        assertEquals(ResourceIdentifier.parse("users/john.doe/posts").normalized(), "users/john.doe/posts");
+    }
+}
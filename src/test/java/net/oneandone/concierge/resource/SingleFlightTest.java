@@ -0,0 +1,73 @@
+package net.oneandone.concierge.resource;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testSharedFlight() {
+        final SingleFlight singleFlight = new SingleFlight();
+        final AtomicInteger computations = new AtomicInteger();
+        final CompletableFuture<String> computation = new CompletableFuture<>();
+
+        final CompletableFuture<String> first = singleFlight.share("users", () -> {
+            computations.incrementAndGet();
+            return computation;
+        });
+        final CompletableFuture<String> second = singleFlight.share("users", () -> {
+            computations.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        assertEquals(singleFlight.size(), 1);
+        assertFalse(second.isDone());
+
+        computation.complete("resolved");
+        assertEquals(first.join(), "resolved");
+        assertEquals(second.join(), "resolved");
+        assertEquals(computations.get(), 1);
+        assertEquals(singleFlight.size(), 0);
+
+        // completed flights won't be shared
+        assertEquals(singleFlight.share("users", () -> CompletableFuture.completedFuture("again")).join(), "again");
+    }
+
+    @Test
+    public void testDifferentKeys() {
+        final SingleFlight singleFlight = new SingleFlight();
+        final CompletableFuture<String> users = singleFlight.share("users", CompletableFuture::new);
+        final CompletableFuture<String> posts = singleFlight.share("posts", () -> CompletableFuture.completedFuture("posts"));
+        assertFalse(users.isDone());
+        assertEquals(posts.join(), "posts");
+        assertEquals(singleFlight.size(), 1);
+    }
+
+    @Test
+    public void testFailedFlight() {
+        final SingleFlight singleFlight = new SingleFlight();
+        final CompletableFuture<String> failed = singleFlight.share("users", () -> {
+            throw new IllegalStateException("resolver failed");
+        });
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(singleFlight.size(), 0);
+    }
+
+    @Test
+    public void testCancelledCaller() {
+        final SingleFlight singleFlight = new SingleFlight();
+        final CompletableFuture<String> computation = new CompletableFuture<>();
+        final CompletableFuture<String> first = singleFlight.share("users", () -> computation);
+        final CompletableFuture<String> second = singleFlight.share("users", () -> computation);
+
+        // a caller exceeding its deadline won't cancel the flight of the others
+        second.cancel(true);
+        computation.complete("resolved");
+        assertEquals(first.join(), "resolved");
+        assertTrue(second.isCancelled());
+    }
+
+}
@@ -0,0 +1,60 @@
+package net.oneandone.concierge.resource.cache;
+
+import com.google.common.base.Ticker;
+import org.testng.annotations.Test;
+
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class LocalResponseCacheTest {
+
+    @Test
+    public void testExpiration() {
+        final AtomicLong time = new AtomicLong();
+        final LocalResponseCache cache = new LocalResponseCache(1024, new Ticker() {
+            @Override
+            public long read() {
+                return time.get();
+            }
+        });
+
+        final CachedResponse response = response(10);
+        cache.put("users", response, 10, TimeUnit.SECONDS);
+        assertSame(cache.get("users").get(), response);
+        assertFalse(cache.get("users/john.doe").isPresent());
+
+        time.set(TimeUnit.SECONDS.toNanos(9));
+        assertTrue(cache.get("users").isPresent());
+
+        time.set(TimeUnit.SECONDS.toNanos(10));
+        assertFalse(cache.get("users").isPresent());
+    }
+
+    @Test
+    public void testMaximumSize() {
+        final LocalResponseCache cache = new LocalResponseCache(1000);
+
+        for (int i = 0; i < 100; i++) {
+            cache.put("users?page=" + i, response(90), 1, TimeUnit.MINUTES);
+        }
+
+        int cachedResponses = 0;
+        for (int i = 0; i < 100; i++) {
+            if (cache.get("users?page=" + i).isPresent()) {
+                cachedResponses++;
+            }
+        }
+        assertTrue(cachedResponses > 0);
+        assertTrue(cachedResponses * 100 <= 1000);
+    }
+
+    private static CachedResponse response(final int size) {
+        return new CachedResponse(new byte[size], "\"etag\"", ZonedDateTime.now(), Optional.empty(), Optional.empty());
+    }
+}
@@ -0,0 +1,34 @@
+package net.oneandone.concierge.resource.response;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class ApiResourcePagingTest {
+
+    @Test
+    public void testExactTotal() {
+        final ApiResourcePaging paging = ApiResourcePaging.builder().group("users").page(2).perPage(3).total(4).elements(1).build();
+        assertTrue(paging.isTotalKnown());
+        assertEquals(paging.getContentRange(), "users 3-3/4");
+        assertNull(paging.getEstimatedTotal());
+    }
+
+    @Test
+    public void testUnknownTotal() {
+        final ApiResourcePaging paging = ApiResourcePaging.builder().group("users").page(2).perPage(3).total(-1).elements(3).build();
+        assertFalse(paging.isTotalKnown());
+        assertEquals(paging.getContentRange(), "users 3-5/*");
+        assertNull(paging.getEstimatedTotal());
+
+        assertNull(ApiResourcePaging.builder().group("users").page(2).perPage(3).total(-1).elements(0).build().getContentRange());
+    }
+
+    @Test
+    public void testEstimatedTotal() {
+        final ApiResourcePaging paging = ApiResourcePaging.builder().group("users").page(1).perPage(3).total(100).elements(3).estimated(true).build();
+        assertFalse(paging.isTotalKnown());
+        assertEquals(paging.getContentRange(), "users 0-2/*");
+        assertEquals(paging.getEstimatedTotal(), "100");
+    }
+}
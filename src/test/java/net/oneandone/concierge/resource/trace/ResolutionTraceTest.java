@@ -0,0 +1,62 @@
+package net.oneandone.concierge.resource.trace;
+
+import org.testng.annotations.Test;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+
+import static org.testng.Assert.*;
+
+public class ResolutionTraceTest {
+
+    @Test
+    public void testServerTiming() {
+        final ResolutionTrace trace = new ResolutionTrace("users?show=posts");
+        trace.start("users", "elements", null, "[]").succeeded(4);
+        trace.start("users/posts", "elements", "johann.bitionaire", "[]").succeeded(2);
+        trace.start("users/posts", "elements", "andreas.piranha87", "[]").succeeded(1);
+        trace.finish(200);
+
+        final String serverTiming = trace.serverTiming();
+        assertTrue(serverTiming.matches("total;dur=\\d+\\.\\d{3}, users\\.elements;dur=\\d+\\.\\d{3};desc=\"1 call\", users\\.posts\\.elements;dur=\\d+\\.\\d{3};desc=\"2 calls\""), serverTiming);
+    }
+
+    @Test
+    public void testJsonDocument() {
+        final ResolutionTrace trace = new ResolutionTrace("users/johann.bitionaire/profile");
+        trace.start("users", "elements", null, "[AddressFilter(address=johann.bitionaire)]").succeeded(1);
+        trace.start("users/profile", "extension", "johann.bitionaire", null).failed(new IllegalStateException("resolver failed"));
+        trace.start("users/profile", "lastModified", "johann.bitionaire", null);
+        trace.finish(500);
+
+        final JsonObject json = trace.toJson();
+        assertEquals(json.getString("id"), trace.getId());
+        assertEquals(json.getString("uri"), "users/johann.bitionaire/profile");
+        assertEquals(json.getInt("status"), 500);
+
+        final JsonArray calls = json.getJsonArray("calls");
+        assertEquals(calls.size(), 3);
+        assertEquals(calls.getJsonObject(0).getString("resolver"), "users");
+        assertEquals(calls.getJsonObject(0).getString("filters"), "[AddressFilter(address=johann.bitionaire)]");
+        assertEquals(calls.getJsonObject(0).getInt("results"), 1);
+        assertFalse(calls.getJsonObject(0).containsKey("parent"));
+        assertEquals(calls.getJsonObject(1).getString("parent"), "johann.bitionaire");
+        assertEquals(calls.getJsonObject(1).getString("error"), "java.lang.IllegalStateException: resolver failed");
+        assertTrue(calls.getJsonObject(1).containsKey("duration"));
+        // the call is still in progress
+        assertFalse(calls.getJsonObject(2).containsKey("duration"));
+    }
+
+    @Test
+    public void testRetainedTraces() {
+        final ResolutionTraces traces = new ResolutionTraces(1);
+        final ResolutionTrace first = new ResolutionTrace("users");
+        final ResolutionTrace second = new ResolutionTrace("users");
+        traces.add(first);
+        traces.add(second);
+
+        assertFalse(traces.get(first.getId()).isPresent());
+        assertSame(traces.get(second.getId()).get(), second);
+        assertEquals(traces.all().size(), 1);
+    }
+}